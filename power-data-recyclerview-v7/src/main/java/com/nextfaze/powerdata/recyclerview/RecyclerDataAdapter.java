@@ -3,13 +3,25 @@ package com.nextfaze.powerdata.recyclerview;
 import android.support.v7.widget.RecyclerView;
 import com.nextfaze.powerdata.Data;
 import com.nextfaze.powerdata.DataObserver;
+import com.nextfaze.powerdata.PayloadDataObserver;
+import com.nextfaze.powerdata.internal.ViewportTracker;
 import lombok.NonNull;
 
 import java.util.HashSet;
 import java.util.Set;
 
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
 public abstract class RecyclerDataAdapter<VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
 
+    /**
+     * Block moves requiring more single item moves than this are dispatched as a removal and an insertion instead,
+     * since a long sequence of moves is expensive for {@link RecyclerView} to process.
+     */
+    private static final int MAX_ITEM_MOVES = 32;
+
     @NonNull
     private final Data<?> mData;
 
@@ -17,7 +29,7 @@ public abstract class RecyclerDataAdapter<VH extends RecyclerView.ViewHolder> ex
     private final Set<RecyclerView.AdapterDataObserver> mDataObservers = new HashSet<>();
 
     @NonNull
-    private final DataObserver mDataObserver = new DataObserver() {
+    private final DataObserver mDataObserver = new PayloadDataObserver() {
         @Override
         public void onChange() {
             notifyDataSetChanged();
@@ -28,6 +40,12 @@ public abstract class RecyclerDataAdapter<VH extends RecyclerView.ViewHolder> ex
             notifyItemRangeChanged(positionStart, itemCount);
         }
 
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @NonNull Object payload) {
+            // Payloads are passed to onBindViewHolder(VH, int, List<Object>), allowing partial binds.
+            notifyItemRangeChanged(positionStart, itemCount, payload);
+        }
+
         @Override
         public void onItemRangeInserted(int positionStart, int itemCount) {
             notifyItemRangeInserted(positionStart, itemCount);
@@ -40,16 +58,34 @@ public abstract class RecyclerDataAdapter<VH extends RecyclerView.ViewHolder> ex
 
         @Override
         public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-            if (itemCount == 1) {
-                notifyItemMoved(fromPosition, toPosition);
-            } else {
-                notifyDataSetChanged();
+            dispatchItemRangeMoved(fromPosition, toPosition, itemCount);
+        }
+    };
+
+    @NonNull
+    private final ViewportTracker mViewportTracker;
+
+    /** Reports the visible range of any attached {@link RecyclerView} to the data as it scrolls. */
+    @NonNull
+    private final RecyclerView.OnScrollListener mScrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            updateViewport(recyclerView);
+        }
+
+        @Override
+        public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+            if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                mViewportTracker.onIdle();
             }
         }
     };
 
+    /** Stable IDs are enabled if the data has them at this point. */
     protected RecyclerDataAdapter(@NonNull Data<?> data) {
         mData = data;
+        mViewportTracker = new ViewportTracker(data);
+        setHasStableIds(data.hasStableIds());
     }
 
     @Override
@@ -57,6 +93,74 @@ public abstract class RecyclerDataAdapter<VH extends RecyclerView.ViewHolder> ex
         return mData.size();
     }
 
+    /**
+     * By default, returns the ID provided by the data, which is only used if the data has stable IDs.
+     * @see Data#getItemId(int)
+     */
+    @Override
+    public long getItemId(int position) {
+        return mData.getItemId(position);
+    }
+
+    /**
+     * {@link RecyclerView} can only move a single item at a time, so a block move is decomposed into single item moves.
+     * Moving a block past some displaced items is equivalent to moving the displaced items the other way, so whichever
+     * is smaller is moved.
+     */
+    private void dispatchItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        int displacedCount = abs(toPosition - fromPosition);
+        if (min(itemCount, displacedCount) > MAX_ITEM_MOVES) {
+            notifyItemRangeRemoved(fromPosition, itemCount);
+            notifyItemRangeInserted(toPosition, itemCount);
+        } else if (toPosition > fromPosition) {
+            if (itemCount <= displacedCount) {
+                for (int i = 0; i < itemCount; i++) {
+                    notifyItemMoved(fromPosition, toPosition + itemCount - 1);
+                }
+            } else {
+                for (int i = 0; i < displacedCount; i++) {
+                    notifyItemMoved(fromPosition + itemCount + i, fromPosition + i);
+                }
+            }
+        } else if (toPosition < fromPosition) {
+            if (itemCount <= displacedCount) {
+                for (int i = 0; i < itemCount; i++) {
+                    notifyItemMoved(fromPosition + i, toPosition + i);
+                }
+            } else {
+                for (int i = 0; i < displacedCount; i++) {
+                    notifyItemMoved(toPosition, fromPosition + itemCount - 1);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        recyclerView.addOnScrollListener(mScrollListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(mScrollListener);
+        super.onDetachedFromRecyclerView(recyclerView);
+    }
+
+    private void updateViewport(@NonNull RecyclerView recyclerView) {
+        // Children may be laid out in any order, such as in a grid or reversed layout.
+        int firstPosition = Integer.MAX_VALUE;
+        int lastPosition = RecyclerView.NO_POSITION;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            int position = recyclerView.getChildAdapterPosition(recyclerView.getChildAt(i));
+            if (position != RecyclerView.NO_POSITION) {
+                firstPosition = min(firstPosition, position);
+                lastPosition = max(lastPosition, position);
+            }
+        }
+        mViewportTracker.onVisibleRangeChanged(lastPosition >= 0 ? firstPosition : -1, lastPosition);
+    }
+
     @Override
     public void registerAdapterDataObserver(RecyclerView.AdapterDataObserver observer) {
         super.registerAdapterDataObserver(observer);
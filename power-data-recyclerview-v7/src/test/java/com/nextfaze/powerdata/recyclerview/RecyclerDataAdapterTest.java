@@ -0,0 +1,144 @@
+package com.nextfaze.powerdata.recyclerview;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+import com.nextfaze.powerdata.Data;
+import com.nextfaze.powerdata.DataObserver;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class RecyclerDataAdapterTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    @Mock
+    private Data<Object> mData;
+
+    private DataObserver mDataObserver;
+
+    private ListAdapterDataObserver mAdapterDataObserver;
+
+    @Before
+    public void setUp() throws Exception {
+        RecyclerDataAdapter<RecyclerView.ViewHolder> adapter = new RecyclerDataAdapter<RecyclerView.ViewHolder>(mData) {
+            @Override
+            public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        mAdapterDataObserver = new ListAdapterDataObserver(80);
+        adapter.registerAdapterDataObserver(mAdapterDataObserver);
+        ArgumentCaptor<DataObserver> captor = ArgumentCaptor.forClass(DataObserver.class);
+        verify(mData).registerDataObserver(captor.capture());
+        mDataObserver = captor.getValue();
+    }
+
+    @Test
+    public void forwardMovePastMoreItemsMovesBlockItems() {
+        assertMoveApplied(1, 5, 2);
+        assertThat(mAdapterDataObserver.mMoveCount).isEqualTo(2);
+    }
+
+    @Test
+    public void forwardMovePastFewerItemsMovesDisplacedItems() {
+        assertMoveApplied(1, 3, 5);
+        assertThat(mAdapterDataObserver.mMoveCount).isEqualTo(2);
+    }
+
+    @Test
+    public void backwardMovePastMoreItemsMovesBlockItems() {
+        assertMoveApplied(6, 2, 2);
+        assertThat(mAdapterDataObserver.mMoveCount).isEqualTo(2);
+    }
+
+    @Test
+    public void backwardMovePastFewerItemsMovesDisplacedItems() {
+        assertMoveApplied(3, 1, 5);
+        assertThat(mAdapterDataObserver.mMoveCount).isEqualTo(2);
+    }
+
+    @Test
+    public void largeBlockMovedPastOneItemWithSingleMove() {
+        assertMoveApplied(0, 1, 40);
+        assertThat(mAdapterDataObserver.mMoveCount).isEqualTo(1);
+    }
+
+    @Test
+    public void moveExceedingMaxItemMovesDispatchedAsRemovalAndInsertion() {
+        mDataObserver.onItemRangeMoved(0, 40, 40);
+        assertThat(mAdapterDataObserver.mMoveCount).isEqualTo(0);
+        assertThat(mAdapterDataObserver.mRemovals).containsExactly(0, 40).inOrder();
+        assertThat(mAdapterDataObserver.mInsertions).containsExactly(40, 40).inOrder();
+    }
+
+    /** Dispatches a block move, then checks the single item moves it was decomposed into have the same effect. */
+    private void assertMoveApplied(int fromPosition, int toPosition, int itemCount) {
+        List<Integer> expected = new ArrayList<>(mAdapterDataObserver.mItems);
+        List<Integer> block = new ArrayList<>(expected.subList(fromPosition, fromPosition + itemCount));
+        expected.subList(fromPosition, fromPosition + itemCount).clear();
+        expected.addAll(toPosition, block);
+        mDataObserver.onItemRangeMoved(fromPosition, toPosition, itemCount);
+        assertThat(mAdapterDataObserver.mItems).containsExactlyElementsIn(expected).inOrder();
+        assertThat(mAdapterDataObserver.mRemovals).isEmpty();
+        assertThat(mAdapterDataObserver.mInsertions).isEmpty();
+    }
+
+    /** Applies single item moves to a list, as {@link RecyclerView} would, and records other notifications. */
+    private static final class ListAdapterDataObserver extends RecyclerView.AdapterDataObserver {
+
+        final List<Integer> mItems = new ArrayList<>();
+
+        final List<Integer> mRemovals = new ArrayList<>();
+
+        final List<Integer> mInsertions = new ArrayList<>();
+
+        int mMoveCount;
+
+        ListAdapterDataObserver(int size) {
+            for (int i = 0; i < size; i++) {
+                mItems.add(i);
+            }
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            assertThat(itemCount).isEqualTo(1);
+            mItems.add(toPosition, mItems.remove(fromPosition));
+            mMoveCount++;
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mRemovals.add(positionStart);
+            mRemovals.add(itemCount);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            mInsertions.add(positionStart);
+            mInsertions.add(itemCount);
+        }
+    }
+}
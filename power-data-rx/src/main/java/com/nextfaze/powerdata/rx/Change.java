@@ -1,5 +1,6 @@
 package com.nextfaze.powerdata.rx;
 
+import android.support.annotation.Nullable;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
@@ -21,32 +22,42 @@ public final class Change {
 
     private final int mCount;
 
+    /** Optional payload describing a {@link Kind#CHANGE}, for partial updates. */
+    @Nullable
+    private final Object mPayload;
+
     @NonNull
     public static Change newChange(int position, int count) {
-        return new Change(Kind.CHANGE, position, position, position, count);
+        return newChange(position, count, null);
+    }
+
+    @NonNull
+    public static Change newChange(int position, int count, @Nullable Object payload) {
+        return new Change(Kind.CHANGE, position, position, position, count, payload);
     }
 
     @NonNull
     public static Change newInsert(int position, int count) {
-        return new Change(Kind.INSERT, position, position, position, count);
+        return new Change(Kind.INSERT, position, position, position, count, null);
     }
 
     @NonNull
     public static Change newRemove(int position, int count) {
-        return new Change(Kind.REMOVE, position, position, position, count);
+        return new Change(Kind.REMOVE, position, position, position, count, null);
     }
 
     @NonNull
     public static Change newMove(int fromPosition, int toPosition, int count) {
-        return new Change(Kind.MOVE, fromPosition, fromPosition, toPosition, count);
+        return new Change(Kind.MOVE, fromPosition, fromPosition, toPosition, count, null);
     }
 
-    Change(@NonNull Kind kind, int position, int fromPosition, int toPosition, int count) {
+    Change(@NonNull Kind kind, int position, int fromPosition, int toPosition, int count, @Nullable Object payload) {
         mKind = kind;
         mPosition = position;
         mFromPosition = fromPosition;
         mToPosition = toPosition;
         mCount = count;
+        mPayload = payload;
     }
 
     public enum Kind {
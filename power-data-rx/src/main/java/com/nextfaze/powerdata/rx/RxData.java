@@ -6,6 +6,7 @@ import com.nextfaze.powerdata.Data;
 import com.nextfaze.powerdata.DataObserver;
 import com.nextfaze.powerdata.ErrorObserver;
 import com.nextfaze.powerdata.LoadingObserver;
+import com.nextfaze.powerdata.PayloadDataObserver;
 import com.nextfaze.powerdata.SimpleDataObserver;
 import lombok.NonNull;
 import rx.Observable;
@@ -52,7 +53,7 @@ public final class RxData {
             @Override
             public void call(final Subscriber<? super Change> subscriber) {
                 assertUiThread();
-                final DataObserver dataObserver = new DataObserver() {
+                final DataObserver dataObserver = new PayloadDataObserver() {
                     @Override
                     public void onChange() {
                         if (!subscriber.isUnsubscribed()) {
@@ -67,6 +68,13 @@ public final class RxData {
                         }
                     }
 
+                    @Override
+                    public void onItemRangeChanged(int positionStart, int itemCount, @NonNull Object payload) {
+                        if (!subscriber.isUnsubscribed()) {
+                            subscriber.onNext(Change.newChange(positionStart, itemCount, payload));
+                        }
+                    }
+
                     @Override
                     public void onItemRangeInserted(int positionStart, int itemCount) {
                         if (!subscriber.isUnsubscribed()) {
@@ -1,36 +1,44 @@
 package com.nextfaze.powerdata.sample;
 
 import android.support.annotation.Nullable;
+import com.nextfaze.powerdata.CancellationToken;
+import com.nextfaze.powerdata.Function;
 import com.nextfaze.powerdata.IncrementalArrayData;
 import lombok.NonNull;
 
+import static java.lang.Math.max;
+
 final class NewsIncrementalData extends IncrementalArrayData<NewsItem> {
 
     private static final int TOTAL = 30;
     private static final int INCREMENT = 10;
 
     @NonNull
-    private final NewsService mNewsService;
+    private static final Function<NewsItem, Object> ID = new Function<NewsItem, Object>() {
+        @NonNull
+        @Override
+        public Object apply(@NonNull NewsItem newsItem) {
+            return newsItem.getId();
+        }
+    };
 
-    private volatile int mOffset;
+    @NonNull
+    private final NewsService mNewsService;
 
     NewsIncrementalData(@NonNull NewsService newsService) {
+        super(ID);
         mNewsService = newsService;
     }
 
     @Nullable
     @Override
-    protected Result<? extends NewsItem> load() throws Throwable {
-        int offset = mOffset;
-        if (mOffset >= TOTAL) {
-            return null;
-        }
-        mOffset = offset + INCREMENT;
-        return new Result<>(mNewsService.getNews(offset, INCREMENT), TOTAL - mOffset);
-    }
-
-    @Override
-    protected void onLoadBegin() {
-        mOffset = 0;
+    protected Result<? extends NewsItem> load(int page,
+                                               @Nullable String pageToken,
+                                               @NonNull CancellationToken cancellationToken) throws Throwable {
+        int offset = pageToken != null ? Integer.parseInt(pageToken) : 0;
+        int nextOffset = offset + INCREMENT;
+        int remaining = max(0, TOTAL - nextOffset);
+        return new Result<>(mNewsService.getNews(offset, INCREMENT), remaining,
+                remaining > 0 ? String.valueOf(nextOffset) : null);
     }
 }
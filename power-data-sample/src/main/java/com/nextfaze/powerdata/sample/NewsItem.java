@@ -6,13 +6,20 @@ import lombok.experimental.Accessors;
 @Accessors(prefix = "m")
 public final class NewsItem {
 
+    private final long mId;
+
     @NonNull
     private final String mTitle;
 
-    public NewsItem(@NonNull String title) {
+    public NewsItem(long id, @NonNull String title) {
+        mId = id;
         mTitle = title;
     }
 
+    public long getId() {
+        return mId;
+    }
+
     @NonNull
     public String getTitle() {
         return mTitle;
@@ -17,7 +17,7 @@ final class NewsService {
         Thread.sleep(1000);
         ArrayList<NewsItem> newsItems = new ArrayList<>();
         for (int i = 0; i < 10; ++i) {
-            newsItems.add(new NewsItem(format("News Item #%s", i)));
+            newsItems.add(new NewsItem(i, format("News Item #%s", i)));
         }
         if (RANDOM.nextInt(5) == 0) {
             throw new RuntimeException("Random failure");
@@ -30,7 +30,7 @@ final class NewsService {
         Thread.sleep(2000);
         ArrayList<NewsItem> newsItems = new ArrayList<>();
         for (int i = offset; i < offset + count; ++i) {
-            newsItems.add(new NewsItem(format("News Item #%s", i)));
+            newsItems.add(new NewsItem(i, format("News Item #%s", i)));
         }
         return newsItems;
     }
@@ -1,6 +1,7 @@
 package com.nextfaze.powerdata.sample;
 
 import com.nextfaze.powerdata.ArrayData;
+import com.nextfaze.powerdata.CancellationToken;
 import lombok.NonNull;
 
 import java.util.List;
@@ -16,7 +17,7 @@ final class NewsSimpleData extends ArrayData<NewsItem> {
 
     @NonNull
     @Override
-    protected List<NewsItem> load() throws Exception {
+    protected List<NewsItem> load(@NonNull CancellationToken cancellationToken) throws Exception {
         return mNewsService.getNews(0, 10);
     }
 }
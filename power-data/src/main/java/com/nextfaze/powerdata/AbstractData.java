@@ -2,11 +2,15 @@ package com.nextfaze.powerdata;
 
 import android.os.Looper;
 import android.support.annotation.CallSuper;
+import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
 
 import java.util.Iterator;
+import java.util.List;
+
+import static java.lang.Math.max;
 
 /**
  * Skeleton {@link Data} implementation that provides observer management and sensible default method implementations.
@@ -14,6 +18,15 @@ import java.util.Iterator;
 @Accessors(prefix = "m")
 public abstract class AbstractData<T> implements Data<T> {
 
+    /** Load priority of data that isn't observed. */
+    static final int PRIORITY_HIDDEN = 0;
+
+    /** Load priority of data that is presented by an adapter, but without a visible {@code DataLayout}. */
+    static final int PRIORITY_BACKGROUND = 1;
+
+    /** Load priority of data that is visible, as indicated by it having loading observers. */
+    static final int PRIORITY_VISIBLE = 2;
+
     @NonNull
     private final DataObservers mDataObservers = new DataObservers();
 
@@ -29,10 +42,23 @@ public abstract class AbstractData<T> implements Data<T> {
     @NonNull
     private final CoalescingPoster mPoster = new CoalescingPoster();
 
+    @Nullable
+    private IdFunction<? super T> mIdFunction;
+
+    @NonNull
+    private Viewport mViewport = Viewport.EMPTY;
+
+    /** Priority of loads performed by this instance, read by the {@link LoadScheduler} from worker threads. */
+    private volatile int mLoadPriority = PRIORITY_HIDDEN;
+
+    /** Number of loaded elements beyond the end of the viewport, read by the {@link LoadScheduler}. */
+    private volatile int mLoadDistance = Integer.MAX_VALUE;
+
     //region Observer Registration
     @Override
     public void registerDataObserver(@NonNull DataObserver dataObserver) {
         mDataObservers.register(dataObserver);
+        updateLoadPriority();
         if (mDataObservers.size() == 1) {
             onFirstDataObserverRegistered();
         }
@@ -41,6 +67,7 @@ public abstract class AbstractData<T> implements Data<T> {
     @Override
     public void unregisterDataObserver(@NonNull DataObserver dataObserver) {
         mDataObservers.unregister(dataObserver);
+        updateLoadPriority();
         if (mDataObservers.size() == 0) {
             onLastDataObserverUnregistered();
         }
@@ -59,11 +86,13 @@ public abstract class AbstractData<T> implements Data<T> {
     @Override
     public void registerLoadingObserver(@NonNull LoadingObserver loadingObserver) {
         mLoadingObservers.register(loadingObserver);
+        updateLoadPriority();
     }
 
     @Override
     public void unregisterLoadingObserver(@NonNull LoadingObserver loadingObserver) {
         mLoadingObservers.unregister(loadingObserver);
+        updateLoadPriority();
     }
 
     @Override
@@ -97,6 +126,87 @@ public abstract class AbstractData<T> implements Data<T> {
         return size() <= 0;
     }
 
+    /** Returns the function used to derive stable IDs from elements, if any. */
+    @Nullable
+    public final IdFunction<? super T> getIdFunction() {
+        return mIdFunction;
+    }
+
+    /**
+     * Sets the function used to derive stable IDs from elements. Adapters query {@link #hasStableIds()} when they're
+     * created, so this should be set before then.
+     * @param idFunction The ID function, or {@code null} to disable stable IDs.
+     */
+    @UiThread
+    public final void setIdFunction(@Nullable IdFunction<? super T> idFunction) {
+        mIdFunction = idFunction;
+    }
+
+    /**
+     * Returns {@code true} if an {@link IdFunction} has been set.
+     * @see Data#hasStableIds()
+     */
+    @Override
+    public boolean hasStableIds() {
+        return mIdFunction != null;
+    }
+
+    /**
+     * Applies the {@link IdFunction} to the element at the specified position, or returns the position if none has
+     * been set.
+     * @see Data#getItemId(int)
+     */
+    @Override
+    public long getItemId(int position) {
+        if (mIdFunction != null) {
+            return mIdFunction.apply(get(position, 0));
+        }
+        return position;
+    }
+
+    /** Returns the most recently set viewport, which is {@link Viewport#EMPTY} until one is set. */
+    @NonNull
+    public final Viewport getViewport() {
+        return mViewport;
+    }
+
+    /**
+     * Stores the viewport, then calls {@link #onViewportChanged(Viewport)} if it differs from the previous one.
+     * @see Data#setViewport(Viewport)
+     */
+    @UiThread
+    @Override
+    public final void setViewport(@NonNull Viewport viewport) {
+        if (!viewport.equals(mViewport)) {
+            mViewport = viewport;
+            updateLoadDistance();
+            onViewportChanged(viewport);
+        }
+    }
+
+    final int getLoadPriority() {
+        return mLoadPriority;
+    }
+
+    final int getLoadDistance() {
+        return mLoadDistance;
+    }
+
+    private void updateLoadPriority() {
+        int priority = PRIORITY_HIDDEN;
+        if (mLoadingObservers.size() > 0) {
+            priority = PRIORITY_VISIBLE;
+        } else if (mDataObservers.size() > 0) {
+            priority = PRIORITY_BACKGROUND;
+        }
+        mLoadPriority = priority;
+    }
+
+    /** Recomputes the number of loaded elements beyond the end of the viewport, which changes with the size too. */
+    private void updateLoadDistance() {
+        mLoadDistance = mViewport.isEmpty() ? Integer.MAX_VALUE : max(0, size() - 1 - mViewport.getLastPosition());
+    }
+
     @Override
     public Iterator<T> iterator() {
         return new DataIterator<>(this);
@@ -114,6 +224,11 @@ public abstract class AbstractData<T> implements Data<T> {
     protected void onLastDataObserverUnregistered() {
     }
 
+    /** Called when the viewport changes. Subclasses can override this to prefetch elements ahead of the viewport. */
+    @UiThread
+    protected void onViewportChanged(@NonNull Viewport viewport) {
+    }
+
     /** Returns the number of registered data observers. */
     protected final int getDataObserverCount() {
         return mDataObservers.size();
@@ -139,6 +254,7 @@ public abstract class AbstractData<T> implements Data<T> {
         runOnUiThread(new Runnable() {
             @Override
             public void run() {
+                updateLoadDistance();
                 mDataObservers.notifyDataChanged();
             }
         });
@@ -148,11 +264,23 @@ public abstract class AbstractData<T> implements Data<T> {
         notifyItemRangeChanged(position, 1);
     }
 
+    protected void notifyItemChanged(final int position, @Nullable Object payload) {
+        notifyItemRangeChanged(position, 1, payload);
+    }
+
     protected void notifyItemRangeChanged(final int positionStart, final int itemCount) {
+        notifyItemRangeChanged(positionStart, itemCount, null);
+    }
+
+    /**
+     * Dispatch a change notification on the UI thread, with an optional payload describing the change. Observers
+     * implementing {@link PayloadDataObserver} receive the payload, allowing them to perform a partial update.
+     */
+    protected void notifyItemRangeChanged(final int positionStart, final int itemCount, @Nullable final Object payload) {
         runOnUiThread(new Runnable() {
             @Override
             public void run() {
-                mDataObservers.notifyItemRangeChanged(positionStart, itemCount);
+                mDataObservers.notifyItemRangeChanged(positionStart, itemCount, payload);
             }
         });
     }
@@ -165,6 +293,7 @@ public abstract class AbstractData<T> implements Data<T> {
         runOnUiThread(new Runnable() {
             @Override
             public void run() {
+                updateLoadDistance();
                 mDataObservers.notifyItemRangeInserted(positionStart, itemCount);
             }
         });
@@ -191,11 +320,55 @@ public abstract class AbstractData<T> implements Data<T> {
         runOnUiThread(new Runnable() {
             @Override
             public void run() {
+                updateLoadDistance();
                 mDataObservers.notifyItemRangeRemoved(positionStart, itemCount);
             }
         });
     }
 
+    /**
+     * Overwrites the elements of {@code target} from {@code positionStart} with those of {@code source}, which must lie
+     * within its bounds. Elements equal to the ones they would replace are left untouched, and change notifications are
+     * only dispatched for runs of elements that differ, so a revalidation that returns the same elements neither
+     * mutates the list nor rebinds any items.
+     * @return {@code true} if any element changed.
+     */
+    final boolean overwriteElements(@NonNull List<T> target, int positionStart, @NonNull List<? extends T> source) {
+        int runStart = -1;
+        boolean changed = false;
+        int count = source.size();
+        for (int i = 0; i <= count; i++) {
+            boolean equal = i == count || equal(target.get(positionStart + i), source.get(i));
+            if (!equal && runStart == -1) {
+                runStart = i;
+            } else if (equal && runStart != -1) {
+                notifyItemRangeChanged(positionStart + runStart, i - runStart);
+                runStart = -1;
+                changed = true;
+            }
+            if (!equal) {
+                target.set(positionStart + i, source.get(i));
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the number of leading elements of {@code source} that are equal to the elements of {@code target} from
+     * {@code positionStart}, which they must lie within the bounds of.
+     */
+    static int equalPrefixLength(@NonNull List<?> target, int positionStart, @NonNull List<?> source) {
+        int length = 0;
+        while (length < source.size() && equal(target.get(positionStart + length), source.get(length))) {
+            length++;
+        }
+        return length;
+    }
+
+    static boolean equal(@Nullable Object a, @Nullable Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
     /** Dispatch a available change notification on the UI thread. */
     protected void notifyAvailableChanged() {
         runOnUiThread(new Runnable() {
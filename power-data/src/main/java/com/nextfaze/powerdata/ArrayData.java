@@ -1,16 +1,28 @@
 package com.nextfaze.powerdata;
 
+import android.os.Handler;
 import android.support.annotation.CallSuper;
 import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.util.Log;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static java.lang.Math.abs;
+import static android.os.Looper.getMainLooper;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 /**
@@ -19,18 +31,41 @@ import static java.lang.Math.min;
  * @param <T> The type of element this data contains.
  */
 @Accessors(prefix = "m")
-public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
+public abstract class ArrayData<T> extends AbstractData<T> implements List<T>, Closeable {
+
+    private static final String TAG = ArrayData.class.getSimpleName();
 
     /** The backing array of non-null elements. */
     @NonNull
     private final ArrayList<T> mData = new ArrayList<>();
 
+    /** Performs a blocking load in the background, unless {@link #loadAsync} is overridden. */
+    @Nullable
+    private Task<?> mTask;
+
     /**
-     * Presence of this task indicates loading state. Changes to this field must be accompanied by {@link
-     * #notifyLoadingChanged()}.
+     * Presence of this token indicates loading state, and it is canceled if the current load is abandoned. Changes to
+     * this field must be accompanied by {@link #notifyLoadingChanged()}.
      */
     @Nullable
-    private Task<?> mTask;
+    private CancellationToken mCancellationToken;
+
+    /** Batches elements streamed by the current load. */
+    @Nullable
+    private FrameBatcher<T> mBatcher;
+
+    /** Receives the outcome of the current load. Read from the loading thread to complete it with changes. */
+    @Nullable
+    private volatile Callback mCallback;
+
+    /** The number of elements streamed so far by the current load, which overwrite existing elements from the start. */
+    private int mStreamPosition;
+
+    /** Indicates the current load has removed or replaced existing elements, having called {@link #onClear()}. */
+    private boolean mStreamCleared;
+
+    /** Indicates the current load has changed the elements, so the snapshot needs to be saved. */
+    private boolean mStreamChanged;
 
     /** Indicates the currently loaded data is invalid and needs to be reloaded next opportunity. */
     private boolean mDirty = true;
@@ -44,14 +79,63 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
     /** @see #available() */
     private int mAvailable = Integer.MAX_VALUE;
 
+    @NonNull
+    private final Handler mHandler = new Handler(getMainLooper());
+
+    @NonNull
+    private RetryPolicy mRetryPolicy = RetryPolicy.NONE;
+
+    /** The number of consecutive failed load attempts. */
+    private int mFailedAttempts;
+
+    /** A pending retry of a failed load, posted to run after a backoff delay. */
+    @Nullable
+    private Runnable mRetry;
+
+    /** Validator of the currently loaded elements, passed to the next load. */
+    @Nullable
+    private String mValidator;
+
+    /** Optional snapshot of the loaded elements, restored on a cold start. */
+    @Nullable
+    private SnapshotFile<T> mSnapshotFile;
+
+    /** Applies changes pushed from any thread, created on demand. */
+    @Nullable
+    private LiveChangeSink mChangeSink;
+
+    /** Optional index of element positions by key. */
+    @Nullable
+    private final KeyIndex<T> mKeyIndex;
+
     protected ArrayData() {
+        mKeyIndex = null;
+    }
+
+    /**
+     * Creates an instance that maintains a hash index of element positions by the key returned by {@code
+     * keyFunction}, making {@link #contains(Object)}, {@link #indexOf(Object)} and {@link #remove(Object)} {@code O(1)},
+     * and enabling the {@code ByKey} operations. After an insertion or removal before the end, the first lookup of a
+     * following element reindexes the elements after the modification, in {@code O(n)}. Keys must be unique within
+     * this data, and equal elements must have equal keys.
+     * @param elementType The type of element, so lookups of objects of other types skip {@code keyFunction}.
+     */
+    protected ArrayData(@NonNull Class<T> elementType, @NonNull Function<? super T, ?> keyFunction) {
+        mKeyIndex = new KeyIndex<>(elementType, keyFunction);
     }
 
     @CallSuper
     public void close() {
         cancelTask();
+        if (mChangeSink != null) {
+            mChangeSink.mBatcher.cancel();
+        }
+        mValidator = null;
         mData.clear();
         mData.trimToSize();
+        if (mKeyIndex != null) {
+            mKeyIndex.clear();
+        }
     }
 
     @Override
@@ -66,11 +150,26 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
 
     @Override
     public final boolean contains(Object object) {
+        if (mKeyIndex != null) {
+            return indexOf(object) != -1;
+        }
         return mData.contains(object);
     }
 
     @Override
     public final int indexOf(Object object) {
+        if (mKeyIndex != null) {
+            if (object == null) {
+                return -1;
+            }
+            // Objects of other types aren't elements, so they're simply absent rather than an error.
+            Object key = mKeyIndex.keyOfCandidate(object);
+            if (key == null) {
+                return -1;
+            }
+            int index = mKeyIndex.indexOf(mData, key);
+            return index != -1 && mData.get(index).equals(object) ? index : -1;
+        }
         return mData.indexOf(object);
     }
 
@@ -82,6 +181,9 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
     @Override
     public final T remove(int index) {
         T removed = mData.remove(index);
+        if (mKeyIndex != null) {
+            mKeyIndex.removed(removed, index);
+        }
         notifyItemRemoved(index);
         return removed;
     }
@@ -89,6 +191,9 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
     @Override
     public final boolean add(@NonNull T t) {
         if (mData.add(t)) {
+            if (mKeyIndex != null) {
+                mKeyIndex.inserted(mData, mData.size() - 1, 1);
+            }
             notifyItemInserted(mData.size() - 1);
             return true;
         }
@@ -98,6 +203,9 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
     @Override
     public final void add(int index, T object) {
         mData.add(index, object);
+        if (mKeyIndex != null) {
+            mKeyIndex.inserted(mData, index, 1);
+        }
         notifyItemInserted(index);
     }
 
@@ -108,6 +216,9 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
         int newSize = mData.size();
         if (newSize != oldSize) {
             int count = mData.size() - oldSize;
+            if (mKeyIndex != null) {
+                mKeyIndex.inserted(mData, oldSize, count);
+            }
             notifyItemRangeInserted(oldSize, count);
             return true;
         }
@@ -121,6 +232,9 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
         int newSize = mData.size();
         if (newSize != oldSize) {
             int count = mData.size() - oldSize;
+            if (mKeyIndex != null) {
+                mKeyIndex.inserted(mData, index, count);
+            }
             notifyItemRangeInserted(index, count);
             return true;
         }
@@ -129,16 +243,69 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
 
     @Override
     public final boolean remove(@NonNull Object obj) {
-        //noinspection SuspiciousMethodCalls
-        int index = mData.indexOf(obj);
+        int index = indexOf(obj);
         if (index != -1) {
-            mData.remove(index);
-            notifyItemRemoved(index);
+            remove(index);
             return true;
         }
         return false;
     }
 
+    /**
+     * Returns the position of the element with the specified key in {@code O(1)}, or {@code -1} if there is no such
+     * element.
+     * @throws IllegalStateException If this instance was not created with a key function.
+     */
+    public final int indexOfKey(@NonNull Object key) {
+        return requireKeyIndex().indexOf(mData, key);
+    }
+
+    /**
+     * Indicates if an element with the specified key is present.
+     * @throws IllegalStateException If this instance was not created with a key function.
+     */
+    public final boolean containsKey(@NonNull Object key) {
+        return indexOfKey(key) != -1;
+    }
+
+    /**
+     * Replaces the element having the same key as the specified element, notifying of a single change.
+     * @return {@code true} if an element with the same key was present and replaced.
+     * @throws IllegalStateException If this instance was not created with a key function.
+     */
+    public final boolean updateByKey(@NonNull T t) {
+        return updateByKey(t, null);
+    }
+
+    /**
+     * Replaces the element having the same key as the specified element, notifying of a single change with a payload
+     * describing it.
+     * @return {@code true} if an element with the same key was present and replaced.
+     * @throws IllegalStateException If this instance was not created with a key function.
+     */
+    public final boolean updateByKey(@NonNull T t, @Nullable Object payload) {
+        int index = indexOfKey(requireKeyIndex().keyOf(t));
+        if (index != -1) {
+            set(index, t, payload);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the element with the specified key, notifying of a single removal.
+     * @return The removed element, or {@code null} if there was no element with the specified key.
+     * @throws IllegalStateException If this instance was not created with a key function.
+     */
+    @Nullable
+    public final T removeByKey(@NonNull Object key) {
+        int index = indexOfKey(key);
+        if (index != -1) {
+            return remove(index);
+        }
+        return null;
+    }
+
     // TODO: Notify of change if modified from iterator.
 
     @NonNull
@@ -168,6 +335,9 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
     public final boolean removeAll(@NonNull Collection<?> collection) {
         boolean removed = mData.removeAll(collection);
         if (removed) {
+            if (mKeyIndex != null) {
+                mKeyIndex.rebuild(mData);
+            }
             // TODO: Fine-grained change notification.
             notifyDataChanged();
         }
@@ -178,6 +348,9 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
     public final boolean retainAll(@NonNull Collection<?> collection) {
         boolean changed = mData.retainAll(collection);
         if (changed) {
+            if (mKeyIndex != null) {
+                mKeyIndex.rebuild(mData);
+            }
             // TODO: Fine-grained change notification.
             notifyDataChanged();
         }
@@ -186,8 +359,19 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
 
     @Override
     public final T set(int index, T object) {
+        return set(index, object, null);
+    }
+
+    /**
+     * Replaces the element at the specified position, notifying of the change with a payload describing it, which
+     * observers can use to perform a partial update.
+     */
+    public final T set(int index, @NonNull T object, @Nullable Object payload) {
         T t = mData.set(index, object);
-        notifyItemChanged(index);
+        if (mKeyIndex != null) {
+            mKeyIndex.changed(t, object, index);
+        }
+        notifyItemChanged(index, payload);
         return t;
     }
 
@@ -212,10 +396,14 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
 
     @Override
     public final void clear() {
+        mValidator = null;
         onClear();
         int size = mData.size();
         if (size > 0) {
             mData.clear();
+            if (mKeyIndex != null) {
+                mKeyIndex.clear();
+            }
             setAvailable(Integer.MAX_VALUE);
             notifyItemRangeRemoved(0, size);
         }
@@ -255,11 +443,158 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
         return mAvailable;
     }
 
-    /** Called in a background thread to load the data set. */
     @NonNull
-    protected abstract List<? extends T> load() throws Throwable;
+    public final RetryPolicy getRetryPolicy() {
+        return mRetryPolicy;
+    }
+
+    /**
+     * Sets the policy used to retry failed loads. Retries are scheduled on the UI thread after a backoff delay, so no
+     * thread is held while waiting, and errors are only dispatched once the policy gives up. Defaults to {@link
+     * RetryPolicy#NONE}.
+     */
+    @UiThread
+    public final void setRetryPolicy(@NonNull RetryPolicy retryPolicy) {
+        mRetryPolicy = retryPolicy;
+    }
 
-    /** Called prior to elements being cleared. Always called from the UI thread. */
+    /**
+     * Returns the validator set by the load that produced the current elements, which asynchronous sources can send
+     * with their next request, such as in an {@code If-None-Match} header.
+     * @see LoadCallback#setValidator(String)
+     */
+    @UiThread
+    @Nullable
+    public final String getValidator() {
+        return mValidator;
+    }
+
+    /**
+     * Returns a sink through which changes can be pushed from any thread, such as from a long-lived event stream.
+     * Changes are applied to the current elements once per frame, merged by key, with adjacent positions coalesced into
+     * range notifications. A subsequent load replaces the elements as usual. Requires a key function.
+     * @throws IllegalStateException If no key function was specified.
+     */
+    @UiThread
+    @NonNull
+    public final ChangeSink<T> getChangeSink() {
+        requireKeyIndex();
+        if (mChangeSink == null) {
+            mChangeSink = new LiveChangeSink();
+        }
+        return mChangeSink;
+    }
+
+    @Nullable
+    public final SnapshotFile<T> getSnapshotFile() {
+        return mSnapshotFile;
+    }
+
+    /**
+     * Sets a snapshot file in which the elements and their validator are saved after each successful load that changes
+     * them. If this data is empty, the elements of an existing snapshot are presented immediately, and its validator restored, but
+     * the data remains dirty, so they are revalidated by the next load, which overwrites them in place, notifying only
+     * the elements that changed. The snapshot is decoded in full by this call. Typically called from a subclass
+     * constructor, so the snapshot is shown from the first frame.
+     */
+    @UiThread
+    public final void setSnapshotFile(@Nullable SnapshotFile<T> snapshotFile) {
+        mSnapshotFile = snapshotFile;
+        if (snapshotFile != null && mData.isEmpty()) {
+            SnapshotFile.Snapshot<T> snapshot = snapshotFile.readSnapshot();
+            if (snapshot != null) {
+                try {
+                    addAll(snapshot.mElements);
+                    mValidator = snapshot.mTag;
+                } catch (IllegalStateException e) {
+                    Log.w(TAG, "Discarding unreadable snapshot " + snapshotFile.getFile(), e);
+                    snapshotFile.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Called in a background thread to load the data set, with a token that is canceled if the load is abandoned by
+     * {@link #refresh()}, {@link #invalidate()} or {@link #close()}.
+     * @see CancellationToken
+     */
+    @NonNull
+    protected abstract List<? extends T> load(@NonNull CancellationToken cancellationToken) throws Throwable;
+
+    /**
+     * Called in a background thread to load the data set progressively, emitting elements to {@code sink} in chunks as
+     * they become available, such as while a large response is being parsed. Chunks are batched into range
+     * notifications at most once per frame, so elements can be presented as soon as the first chunk arrives. During a
+     * refresh, streamed elements overwrite the existing ones from the start, and any remaining existing elements are
+     * removed once the load completes, or fails without being retried. By default, emits the result of {@link
+     * #load(CancellationToken)} as a single chunk.
+     * @param sink Receives the elements, in order. Throws a {@link java.util.concurrent.CancellationException} if the
+     * load has been abandoned.
+     * @param cancellationToken Canceled if the load is abandoned.
+     */
+    protected void load(@NonNull Sink<? super T> sink, @NonNull CancellationToken cancellationToken)
+            throws Throwable {
+        sink.emit(load(cancellationToken));
+    }
+
+    /**
+     * Called in a background thread to load the data set conditionally. If the source reports the content is unchanged
+     * since {@code validator}, call {@link LoadCallback#onNotModified()}, which completes the load without mutating the
+     * list or dispatching any change notifications. Otherwise, emit the elements to {@code callback} as for {@link
+     * #load(Sink, CancellationToken)}, optionally {@linkplain LoadCallback#setValidator(String) setting a validator} for
+     * the next load. The load succeeds when this method returns, unless the callback has already been completed. Calls
+     * {@link #load(Sink, CancellationToken)} by default.
+     * @param validator The validator set by the load that produced the current elements, or {@code null} if none.
+     */
+    protected void load(@NonNull LoadCallback<? super T> callback,
+                        @Nullable String validator,
+                        @NonNull CancellationToken cancellationToken) throws Throwable {
+        load((Sink<? super T>) callback, cancellationToken);
+    }
+
+    /**
+     * Called on the UI thread to start loading the data set without blocking a thread, for sources backed by a
+     * non-blocking client. Elements are delivered to {@code callback} from any thread, and the load completes when
+     * {@link LoadCallback#onSuccess(Collection)} or {@link LoadCallback#onFailure(Throwable)} is called. Asynchronous
+     * loads don't occupy a {@link LoadScheduler} slot, since no thread waits on them. Conditional requests can use
+     * {@link #getValidator()}. By default, calls {@link #load(LoadCallback, String, CancellationToken)} on a background
+     * thread once the {@link LoadScheduler} permits it.
+     * @param callback Receives the elements and the outcome of the load.
+     * @param cancellationToken Canceled if the load is abandoned, in which case the request should be canceled too.
+     */
+    @UiThread
+    protected void loadAsync(@NonNull final LoadCallback<? super T> callback,
+                             @NonNull final CancellationToken cancellationToken) {
+        // TODO: Replace use of Task with either a plain Thread or use of an Executor.
+        final String validator = mValidator;
+        mTask = new Task<Void>() {
+            @Override
+            protected Void call() throws Throwable {
+                cancellationToken.throwIfCanceled();
+                load(callback, validator, cancellationToken);
+                return null;
+            }
+
+            @Override
+            protected void onSuccess(Void result) throws Throwable {
+                callback.onSuccess(Collections.<T>emptyList());
+            }
+
+            @Override
+            protected void onFailure(@NonNull Throwable e) throws Throwable {
+                callback.onFailure(e);
+            }
+        };
+        // Wait for the scheduler to permit the load before occupying a pool thread.
+        mTask.executor(LoadScheduler.getDefault().executor(this, mTask.getExecutor()));
+        mTask.execute();
+    }
+
+    /**
+     * Called prior to elements being cleared, or replaced or removed by a load. Not called by loads that leave the
+     * elements unchanged. Always called from the UI thread.
+     */
     protected void onClear() {
     }
 
@@ -278,65 +613,287 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
         // We only start loading the data if it's not already loading, and we're shown.
         // If we're not shown we don't care about the data.
         // Only load if data is marked as dirty.
-        if (mDirty && mTask == null && getDataObserverCount() > 0) {
-            // TODO: Replace use of Task with either a plain Thread or use of an Executor.
-            mTask = new Task<List<? extends T>>() {
+        if (mDirty && mCancellationToken == null && mRetry == null && getDataObserverCount() > 0) {
+            final CancellationToken cancellationToken = new CancellationToken();
+            final FrameBatcher<T> batcher = new FrameBatcher<T>() {
                 @Override
-                protected List<? extends T> call() throws Throwable {
-                    return load();
+                protected void onFlush(@NonNull List<T> elements) {
+                    // Ignore batches from an abandoned load.
+                    if (this == mBatcher) {
+                        applyStreamedElements(elements);
+                    }
                 }
+            };
+            mCancellationToken = cancellationToken;
+            mBatcher = batcher;
+            mStreamPosition = 0;
+            mStreamCleared = false;
+            mStreamChanged = false;
+            Callback callback = new Callback(cancellationToken, batcher);
+            mCallback = callback;
+            loadAsync(callback, cancellationToken);
+        }
+    }
 
-                @Override
-                protected void onSuccess(@NonNull List<? extends T> data) throws Throwable {
-                    onClear();
-                    mDirty = false;
-                    mClear = false;
-                    int oldSize = mData.size();
-                    int newSize = data.size();
-                    int deltaSize = newSize - oldSize;
-
-                    mData.clear();
-                    for (T t : data) {
-                        if (t != null) {
-                            mData.add(t);
-                        }
-                    }
+    private void onLoadSuccess(@NonNull FrameBatcher<T> batcher, @Nullable String validator) {
+        batcher.flush();
+        finishStream();
+        boolean changed = mStreamChanged || !equal(validator, mValidator);
+        mValidator = validator;
+        if (changed) {
+            saveSnapshot();
+        }
+        onLoadComplete();
+    }
 
-                    int changed = min(oldSize, newSize);
-                    if (changed > 0) {
-                        notifyItemRangeChanged(0, changed);
-                    }
-                    if (deltaSize < 0) {
-                        notifyItemRangeRemoved(oldSize + deltaSize, abs(deltaSize));
-                    } else if (deltaSize > 0) {
-                        notifyItemRangeInserted(oldSize, abs(deltaSize));
-                    }
-                    setAvailable(0);
-                    mTask = null;
-                    loadDataIfAppropriate();
-                    updateLoading();
-                }
+    private void onLoadChanged(@NonNull FrameBatcher<T> batcher,
+                               @Nullable String validator,
+                               @NonNull List<T> upserts,
+                               @NonNull Set<?> deletedKeys) {
+        batcher.cancel();
+        boolean changed = applyChanges(upserts, deletedKeys) || !equal(validator, mValidator);
+        mValidator = validator;
+        if (changed) {
+            saveSnapshot();
+        }
+        onLoadComplete();
+    }
 
-                @Override
-                protected void onFailure(@NonNull Throwable e) throws Throwable {
-                    mTask = null;
-                    updateLoading();
-                    notifyError(e);
-                }
-            };
-            mTask.execute();
+    private void onLoadNotModified(@NonNull FrameBatcher<T> batcher) {
+        batcher.cancel();
+        onLoadComplete();
+    }
+
+    private void saveSnapshot() {
+        if (mSnapshotFile != null) {
+            mSnapshotFile.save(mData, mValidator);
+        }
+    }
+
+    private void onLoadComplete() {
+        mDirty = false;
+        mClear = false;
+        setAvailable(0);
+        mTask = null;
+        mCancellationToken = null;
+        mBatcher = null;
+        mCallback = null;
+        mFailedAttempts = 0;
+        loadDataIfAppropriate();
+        updateLoading();
+    }
+
+    private void onLoadFailure(@NonNull FrameBatcher<T> batcher, @NonNull Throwable e) {
+        mFailedAttempts++;
+        boolean retry = mRetryPolicy.shouldRetry(mFailedAttempts, e);
+        if (retry) {
+            // The retry streams over the existing elements from the start again.
+            batcher.cancel();
+        } else {
+            // Keep what was streamed, but don't leave the stale elements it didn't reach following it.
+            batcher.flush();
+            if (mStreamPosition > 0) {
+                finishStream();
+            }
+        }
+        mTask = null;
+        mCancellationToken = null;
+        mBatcher = null;
+        mCallback = null;
+        if (retry) {
+            scheduleRetry(mRetryPolicy.getDelayMillis(mFailedAttempts));
+            updateLoading();
+        } else {
+            mFailedAttempts = 0;
+            updateLoading();
+            notifyError(e);
+        }
+    }
+
+    /**
+     * Writes a batch of streamed elements over the existing elements, starting from where the previous batch of this
+     * load ended, and appending once the existing elements are exhausted. Overwriting in place means a refresh doesn't
+     * shrink the list before growing it again, and only elements that differ from the ones they replace are notified
+     * as changed.
+     */
+    private void applyStreamedElements(@NonNull List<T> elements) {
+        int positionStart = mStreamPosition;
+        int count = elements.size();
+        int overwritten = max(0, min(count, mData.size() - positionStart));
+        mStreamPosition += count;
+
+        // Elements equal to the ones they would replace are skipped, so they're neither cleared nor reindexed.
+        int unchanged = equalPrefixLength(mData, positionStart, elements.subList(0, overwritten));
+        if (unchanged < overwritten) {
+            int replacedStart = positionStart + unchanged;
+            int replacedCount = overwritten - unchanged;
+            onStreamChange(true);
+            if (mKeyIndex != null) {
+                mKeyIndex.overwriting(mData, replacedStart, replacedCount);
+            }
+            overwriteElements(mData, replacedStart, elements.subList(unchanged, overwritten));
+            if (mKeyIndex != null) {
+                mKeyIndex.overwritten(mData, replacedStart, replacedCount);
+            }
+        }
+        if (count > overwritten) {
+            onStreamChange(false);
+            mData.addAll(elements.subList(overwritten, count));
+            if (mKeyIndex != null) {
+                mKeyIndex.inserted(mData, positionStart + overwritten, count - overwritten);
+            }
+            notifyItemRangeInserted(positionStart + overwritten, count - overwritten);
+        }
+    }
+
+    /**
+     * Records that the current load is about to change the elements, calling {@link #onClear()} before it first
+     * removes or replaces existing elements.
+     */
+    private void onStreamChange(boolean clearing) {
+        mStreamChanged = true;
+        if (clearing && !mStreamCleared) {
+            mStreamCleared = true;
+            onClear();
         }
     }
 
+    /**
+     * Applies changes by key in place. Deletions are applied first, then upserts replace the elements with the same key,
+     * unless they're equal, and the remaining upserts are appended. Adjacent positions are coalesced into range
+     * notifications. Each deleted key is removed at most once, so keys must be distinct.
+     * @return {@code true} if any element changed.
+     */
+    private boolean applyChanges(@NonNull List<T> upserts, @NonNull Set<?> deletedKeys) {
+        KeyIndex<T> keyIndex = requireKeyIndex();
+
+        // Remove in descending order, so the positions yet to be removed remain valid.
+        ArrayList<Integer> removed = new ArrayList<>();
+        for (Object key : deletedKeys) {
+            int position = keyIndex.indexOf(mData, key);
+            if (position != -1) {
+                removed.add(position);
+            }
+        }
+        Collections.sort(removed, Collections.reverseOrder());
+        for (int i = 0; i < removed.size(); ) {
+            int end = removed.get(i) + 1;
+            int start = end - 1;
+            for (i++; i < removed.size() && removed.get(i) == start - 1; i++) {
+                start--;
+            }
+            mData.subList(start, end).clear();
+            notifyItemRangeRemoved(start, end - start);
+        }
+        if (!removed.isEmpty()) {
+            keyIndex.rebuild(mData);
+        }
+
+        // Replace existing elements, collecting new ones by key so the last upsert of a key wins. Repeated upserts of
+        // a key replace the same position, which is only notified once.
+        TreeSet<Integer> changedPositions = new TreeSet<>();
+        LinkedHashMap<Object, T> inserted = new LinkedHashMap<>();
+        for (T t : upserts) {
+            Object key = keyIndex.keyOf(t);
+            int position = keyIndex.indexOf(mData, key);
+            if (position == -1) {
+                inserted.put(key, t);
+            } else if (!t.equals(mData.get(position))) {
+                keyIndex.changed(mData.set(position, t), t, position);
+                changedPositions.add(position);
+            }
+        }
+        ArrayList<Integer> changed = new ArrayList<>(changedPositions);
+        for (int i = 0; i < changed.size(); ) {
+            int start = changed.get(i);
+            int end = start + 1;
+            for (i++; i < changed.size() && changed.get(i) == end; i++) {
+                end = changed.get(i) + 1;
+            }
+            notifyItemRangeChanged(start, end - start);
+        }
+
+        if (!inserted.isEmpty()) {
+            int positionStart = mData.size();
+            mData.addAll(inserted.values());
+            keyIndex.inserted(mData, positionStart, inserted.size());
+            notifyItemRangeInserted(positionStart, inserted.size());
+        }
+        return !removed.isEmpty() || !changed.isEmpty() || !inserted.isEmpty();
+    }
+
+    /**
+     * Completes the load identified by {@code cancellationToken} by applying changes by key to the existing elements,
+     * rather than replacing them. Ignored if the load has been abandoned. Repeated deleted keys are only removed once.
+     * @throws IllegalStateException If the load has already emitted elements.
+     * @see DeltaData
+     */
+    final void completeWithChanges(@NonNull CancellationToken cancellationToken,
+                                   @NonNull Collection<? extends T> upserts,
+                                   @NonNull Collection<?> deletedKeys) {
+        Callback callback = mCallback;
+        if (callback != null && callback.mCancellationToken == cancellationToken) {
+            callback.onChanges(upserts, deletedKeys);
+        }
+    }
+
+    /** Removes any existing elements beyond those written by the completed load. */
+    private void finishStream() {
+        int removed = mData.size() - mStreamPosition;
+        if (removed > 0) {
+            onStreamChange(true);
+            if (mKeyIndex != null) {
+                mKeyIndex.removing(mData, mStreamPosition, removed);
+            }
+            mData.subList(mStreamPosition, mData.size()).clear();
+            notifyItemRangeRemoved(mStreamPosition, removed);
+        }
+    }
+
+    @NonNull
+    private KeyIndex<T> requireKeyIndex() {
+        if (mKeyIndex == null) {
+            throw new IllegalStateException("No key function specified");
+        }
+        return mKeyIndex;
+    }
+
+    private void scheduleRetry(long delayMillis) {
+        mRetry = new Runnable() {
+            @Override
+            public void run() {
+                mRetry = null;
+                loadDataIfAppropriate();
+                updateLoading();
+            }
+        };
+        mHandler.postDelayed(mRetry, delayMillis);
+    }
+
     private void cancelTask() {
+        if (mBatcher != null) {
+            mBatcher.cancel();
+            mBatcher = null;
+        }
+        mCallback = null;
+        if (mCancellationToken != null) {
+            mCancellationToken.cancel();
+            mCancellationToken = null;
+        }
         if (mTask != null) {
             mTask.cancel();
             mTask = null;
         }
+        if (mRetry != null) {
+            mHandler.removeCallbacks(mRetry);
+            mRetry = null;
+        }
+        mFailedAttempts = 0;
     }
 
+    /** A pending retry counts as loading, since the load hasn't given up yet. */
     private void updateLoading() {
-        setLoading(mTask != null);
+        setLoading(mCancellationToken != null || mRetry != null);
     }
 
     private void setLoading(final boolean loading) {
@@ -362,4 +919,180 @@ public abstract class ArrayData<T> extends AbstractData<T> implements List<T> {
             }
         });
     }
+
+    /**
+     * Funnels the outcome of a load onto the UI thread, ignoring anything that arrives once it's abandoned. Outcomes
+     * reported on the UI thread, as by the default background load, are applied immediately.
+     */
+    private final class Callback implements LoadCallback<T> {
+
+        @NonNull
+        private final CancellationToken mCancellationToken;
+
+        @NonNull
+        private final FrameBatcher<T> mBatcher;
+
+        @NonNull
+        private final AtomicBoolean mCompleted = new AtomicBoolean();
+
+        @Nullable
+        private volatile String mValidator;
+
+        private volatile boolean mEmitted;
+
+        Callback(@NonNull CancellationToken cancellationToken, @NonNull FrameBatcher<T> batcher) {
+            mCancellationToken = cancellationToken;
+            mBatcher = batcher;
+        }
+
+        @Override
+        public void emit(@NonNull Collection<? extends T> elements) {
+            mCancellationToken.throwIfCanceled();
+            if (!mCompleted.get() && !elements.isEmpty()) {
+                mEmitted = true;
+                mBatcher.add(elements);
+            }
+        }
+
+        @Override
+        public void onSuccess(@NonNull Collection<? extends T> elements) {
+            if (mCancellationToken.isCanceled() || !mCompleted.compareAndSet(false, true)) {
+                return;
+            }
+            mBatcher.add(elements);
+            runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    if (isCurrent()) {
+                        onLoadSuccess(mBatcher, mValidator);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onNotModified() {
+            if (mEmitted) {
+                throw new IllegalStateException("Elements have already been emitted");
+            }
+            if (mCancellationToken.isCanceled() || !mCompleted.compareAndSet(false, true)) {
+                return;
+            }
+            runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    if (isCurrent()) {
+                        onLoadNotModified(mBatcher);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void setValidator(@Nullable String validator) {
+            mValidator = validator;
+        }
+
+        void onChanges(@NonNull Collection<? extends T> upserts, @NonNull Collection<?> deletedKeys) {
+            if (mEmitted) {
+                throw new IllegalStateException("Elements have already been emitted");
+            }
+            if (mCancellationToken.isCanceled() || !mCompleted.compareAndSet(false, true)) {
+                return;
+            }
+            final ArrayList<T> upsertsCopy = new ArrayList<>();
+            for (T t : upserts) {
+                if (t != null) {
+                    upsertsCopy.add(t);
+                }
+            }
+            final LinkedHashSet<Object> deletedKeysCopy = new LinkedHashSet<Object>(deletedKeys);
+            runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    if (isCurrent()) {
+                        onLoadChanged(mBatcher, mValidator, upsertsCopy, deletedKeysCopy);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onFailure(@NonNull final Throwable e) {
+            if (mCancellationToken.isCanceled() || !mCompleted.compareAndSet(false, true)) {
+                return;
+            }
+            runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    if (isCurrent()) {
+                        onLoadFailure(mBatcher, e);
+                    }
+                }
+            });
+        }
+
+        private boolean isCurrent() {
+            return mCancellationToken == ArrayData.this.mCancellationToken;
+        }
+    }
+
+    /** Queues pushed changes, and applies each frame's worth as a single batch merged by key. */
+    private final class LiveChangeSink implements ChangeSink<T> {
+
+        @NonNull
+        final FrameBatcher<Change<T>> mBatcher = new FrameBatcher<Change<T>>() {
+            @Override
+            protected void onFlush(@NonNull List<Change<T>> changes) {
+                applyLiveChanges(changes);
+            }
+        };
+
+        @Override
+        public void upsert(@NonNull T t) {
+            mBatcher.add(new Change<>(t, null));
+        }
+
+        @Override
+        public void delete(@NonNull Object key) {
+            mBatcher.add(new Change<T>(null, key));
+        }
+
+        private void applyLiveChanges(@NonNull List<Change<T>> changes) {
+            // Only the last change to each key matters, and it takes the place of any earlier ones.
+            KeyIndex<T> keyIndex = requireKeyIndex();
+            LinkedHashMap<Object, Change<T>> merged = new LinkedHashMap<>();
+            for (Change<T> change : changes) {
+                Object key = change.mElement != null ? keyIndex.keyOf(change.mElement) : change.mKey;
+                merged.remove(key);
+                merged.put(key, change);
+            }
+            ArrayList<T> upserts = new ArrayList<>();
+            LinkedHashSet<Object> deletedKeys = new LinkedHashSet<>();
+            for (Map.Entry<Object, Change<T>> entry : merged.entrySet()) {
+                T element = entry.getValue().mElement;
+                if (element != null) {
+                    upserts.add(element);
+                } else {
+                    deletedKeys.add(entry.getKey());
+                }
+            }
+            applyChanges(upserts, deletedKeys);
+        }
+    }
+
+    /** An upsert of an element, or a deletion by key. */
+    private static final class Change<T> {
+
+        @Nullable
+        final T mElement;
+
+        @Nullable
+        final Object mKey;
+
+        Change(@Nullable T element, @Nullable Object key) {
+            mElement = element;
+            mKey = key;
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package com.nextfaze.powerdata;
+
+import android.util.Log;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Signals that a load has been abandoned, such as by {@link Data#refresh()}, {@link Data#invalidate()}, or closing the
+ * data. Loads are also interrupted, but many I/O and parsing libraries ignore interruption, so sources should poll
+ * {@link #isCanceled()} or {@link #throwIfCanceled()} between units of work, or register a callback that aborts a
+ * blocking call, such as by cancelling an HTTP request. Thread-safe.
+ */
+public final class CancellationToken {
+
+    private static final String TAG = CancellationToken.class.getSimpleName();
+
+    @NonNull
+    private final ArrayList<Runnable> mCallbacks = new ArrayList<>();
+
+    private volatile boolean mCanceled;
+
+    CancellationToken() {
+    }
+
+    public boolean isCanceled() {
+        return mCanceled;
+    }
+
+    /** Throws a {@link CancellationException} if canceled, which ends the load without dispatching an error. */
+    public void throwIfCanceled() {
+        if (mCanceled) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Registers a callback to be run when canceled, or runs it immediately if already canceled. Callbacks are run on
+     * the thread that cancels the load, which is usually the UI thread, so they must be quick and thread-safe.
+     */
+    public void registerCallback(@NonNull Runnable callback) {
+        synchronized (mCallbacks) {
+            if (!mCanceled) {
+                mCallbacks.add(callback);
+                return;
+            }
+        }
+        run(callback);
+    }
+
+    public void unregisterCallback(@NonNull Runnable callback) {
+        synchronized (mCallbacks) {
+            mCallbacks.remove(callback);
+        }
+    }
+
+    void cancel() {
+        ArrayList<Runnable> callbacks;
+        synchronized (mCallbacks) {
+            if (mCanceled) {
+                return;
+            }
+            mCanceled = true;
+            callbacks = new ArrayList<>(mCallbacks);
+            mCallbacks.clear();
+        }
+        for (Runnable callback : callbacks) {
+            run(callback);
+        }
+    }
+
+    private static void run(@NonNull Runnable callback) {
+        try {
+            callback.run();
+        } catch (Throwable e) {
+            Log.e(TAG, "Error running cancellation callback", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.AnyThread;
+import lombok.NonNull;
+
+/**
+ * Receives individual changes to a keyed data set from any thread, such as from a long-lived event stream. Changes are
+ * queued without locking, and applied on the UI thread at most once per frame, merged by key, so that a burst of events
+ * results in a handful of range notifications rather than one UI thread dispatch per event. Thread-safe.
+ * @param <T> The type of element being changed.
+ * @see ArrayData#getChangeSink()
+ */
+public interface ChangeSink<T> {
+
+    /** Replaces the element with the same key, or appends it if there is no such element. */
+    @AnyThread
+    void upsert(@NonNull T t);
+
+    /** Removes the element with the specified key, if present. */
+    @AnyThread
+    void delete(@NonNull Object key);
+}
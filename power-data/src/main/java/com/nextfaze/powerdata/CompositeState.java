@@ -0,0 +1,162 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+
+import java.util.List;
+
+import static com.nextfaze.powerdata.Data.UNKNOWN;
+import static java.lang.Math.min;
+
+/**
+ * Aggregates the loading, available and error state of the children of a composite data instance. The composite is
+ * loading if any child is, its available count is the sum of the children's, and it forwards every child's errors.
+ * Children are only observed while the composite has observers of the same kind; otherwise the state is computed on
+ * demand.
+ */
+final class CompositeState {
+
+    @NonNull
+    private final AbstractData<?> mParent;
+
+    @NonNull
+    private final List<? extends Data<?>> mDatas;
+
+    @NonNull
+    private final LoadingObserver mLoadingObserver = new LoadingObserver() {
+        @Override
+        public void onLoadingChange() {
+            updateLoading();
+        }
+    };
+
+    @NonNull
+    private final AvailableObserver mAvailableObserver = new AvailableObserver() {
+        @Override
+        public void onAvailableChange() {
+            updateAvailable();
+        }
+    };
+
+    @NonNull
+    private final ErrorObserver mErrorObserver = new ErrorObserver() {
+        @Override
+        public void onError(@NonNull Throwable e) {
+            mParent.notifyError(e);
+        }
+    };
+
+    private boolean mObservingLoading;
+    private boolean mObservingAvailable;
+    private boolean mObservingError;
+
+    private boolean mLoading;
+    private int mAvailable = UNKNOWN;
+
+    /**
+     * @param parent The composite, which is notified of changes to the aggregate state.
+     * @param datas The children of the composite, which must not change.
+     */
+    CompositeState(@NonNull AbstractData<?> parent, @NonNull List<? extends Data<?>> datas) {
+        mParent = parent;
+        mDatas = datas;
+    }
+
+    boolean isLoading() {
+        if (!mObservingLoading) {
+            return computeLoading();
+        }
+        return mLoading;
+    }
+
+    int available() {
+        if (!mObservingAvailable) {
+            return computeAvailable();
+        }
+        return mAvailable;
+    }
+
+    /** Starts or stops observing the children, according to whether the parent has loading observers. */
+    void updateLoadingObserver() {
+        if (mObservingLoading && mParent.getLoadingObserverCount() <= 0) {
+            for (Data<?> data : mDatas) {
+                data.unregisterLoadingObserver(mLoadingObserver);
+            }
+            mObservingLoading = false;
+        } else if (!mObservingLoading && mParent.getLoadingObserverCount() > 0) {
+            for (Data<?> data : mDatas) {
+                data.registerLoadingObserver(mLoadingObserver);
+            }
+            mObservingLoading = true;
+            mLoading = computeLoading();
+        }
+    }
+
+    /** Starts or stops observing the children, according to whether the parent has available observers. */
+    void updateAvailableObserver() {
+        if (mObservingAvailable && mParent.getAvailableObserverCount() <= 0) {
+            for (Data<?> data : mDatas) {
+                data.unregisterAvailableObserver(mAvailableObserver);
+            }
+            mObservingAvailable = false;
+        } else if (!mObservingAvailable && mParent.getAvailableObserverCount() > 0) {
+            for (Data<?> data : mDatas) {
+                data.registerAvailableObserver(mAvailableObserver);
+            }
+            mObservingAvailable = true;
+            mAvailable = computeAvailable();
+        }
+    }
+
+    /** Starts or stops observing the children, according to whether the parent has error observers. */
+    void updateErrorObserver() {
+        if (mObservingError && mParent.getErrorObserverCount() <= 0) {
+            for (Data<?> data : mDatas) {
+                data.unregisterErrorObserver(mErrorObserver);
+            }
+            mObservingError = false;
+        } else if (!mObservingError && mParent.getErrorObserverCount() > 0) {
+            for (Data<?> data : mDatas) {
+                data.registerErrorObserver(mErrorObserver);
+            }
+            mObservingError = true;
+        }
+    }
+
+    private void updateLoading() {
+        boolean loading = computeLoading();
+        if (loading != mLoading) {
+            mLoading = loading;
+            mParent.notifyLoadingChanged();
+        }
+    }
+
+    private void updateAvailable() {
+        int available = computeAvailable();
+        if (available != mAvailable) {
+            mAvailable = available;
+            mParent.notifyAvailableChanged();
+        }
+    }
+
+    private boolean computeLoading() {
+        for (Data<?> data : mDatas) {
+            if (data.isLoading()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Sums the available counts, which is unknown if any child's is unknown. */
+    private int computeAvailable() {
+        long available = 0;
+        for (Data<?> data : mDatas) {
+            int childAvailable = data.available();
+            if (childAvailable == UNKNOWN) {
+                return UNKNOWN;
+            }
+            available += childAvailable;
+        }
+        return (int) min(available, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,324 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * Presents the elements of several data instances end to end. A prefix sum tree of the child sizes resolves positions
+ * in {@code O(log k)}, and each child's fine-grained notifications are forwarded with shifted positions.
+ */
+final class ConcatData<T> extends AbstractData<T> {
+
+    @NonNull
+    private final List<Data<? extends T>> mDatas;
+
+    @NonNull
+    private final List<ChildDataObserver> mDataObservers;
+
+    @NonNull
+    private final SizeTree mSizes;
+
+    @NonNull
+    private final CompositeState mState;
+
+    private boolean mObservingData;
+
+    ConcatData(@NonNull List<? extends Data<? extends T>> datas) {
+        mDatas = new ArrayList<>(datas);
+        mDataObservers = new ArrayList<>(mDatas.size());
+        for (int i = 0; i < mDatas.size(); i++) {
+            mDataObservers.add(new ChildDataObserver(i));
+        }
+        mState = new CompositeState(this, mDatas);
+        mSizes = new SizeTree(mDatas.size());
+    }
+
+    @NonNull
+    @Override
+    public T get(int position, int flags) {
+        updateSizesIfNotObserving();
+        if (position < 0 || position >= mSizes.total()) {
+            throw new IndexOutOfBoundsException(format("Position %s, size %s", position, mSizes.total()));
+        }
+        int child = mSizes.find(position);
+        return mDatas.get(child).get(position - mSizes.prefix(child), flags);
+    }
+
+    @Override
+    public int size() {
+        updateSizesIfNotObserving();
+        return mSizes.total();
+    }
+
+    @Override
+    public boolean isLoading() {
+        return mState.isLoading();
+    }
+
+    @Override
+    public int available() {
+        return mState.available();
+    }
+
+    /** Returns {@code true} if an {@link IdFunction} has been set, or all children have stable IDs. */
+    @Override
+    public boolean hasStableIds() {
+        return getIdFunction() != null || childrenHaveStableIds();
+    }
+
+    /**
+     * Applies this instance's {@link IdFunction} if set, otherwise returns the ID of the corresponding child element.
+     * Child IDs must be unique across all children.
+     */
+    @Override
+    public long getItemId(int position) {
+        if (getIdFunction() != null || !childrenHaveStableIds()) {
+            return super.getItemId(position);
+        }
+        updateSizesIfNotObserving();
+        int child = mSizes.find(position);
+        return mDatas.get(child).getItemId(position - mSizes.prefix(child));
+    }
+
+    /** Passes each child the part of the viewport that falls within its range, which is empty if it isn't visible. */
+    @Override
+    protected void onViewportChanged(@NonNull Viewport viewport) {
+        updateSizesIfNotObserving();
+        for (int i = 0; i < mDatas.size(); i++) {
+            int offset = mSizes.prefix(i);
+            int first = max(viewport.getFirstPosition(), offset);
+            int last = min(viewport.getLastPosition(), offset + mSizes.get(i) - 1);
+            mDatas.get(i).setViewport(viewport.isEmpty() ? viewport : viewport.withRange(first - offset, last - offset));
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        for (Data<? extends T> data : mDatas) {
+            data.invalidate();
+        }
+    }
+
+    @Override
+    public void refresh() {
+        for (Data<? extends T> data : mDatas) {
+            data.refresh();
+        }
+    }
+
+    @Override
+    public void reload() {
+        for (Data<? extends T> data : mDatas) {
+            data.reload();
+        }
+    }
+
+    @Override
+    public void registerDataObserver(@NonNull DataObserver dataObserver) {
+        super.registerDataObserver(dataObserver);
+        updateDataObserver();
+    }
+
+    @Override
+    public void unregisterDataObserver(@NonNull DataObserver dataObserver) {
+        super.unregisterDataObserver(dataObserver);
+        updateDataObserver();
+    }
+
+    @Override
+    public void registerAvailableObserver(@NonNull AvailableObserver availableObserver) {
+        super.registerAvailableObserver(availableObserver);
+        mState.updateAvailableObserver();
+    }
+
+    @Override
+    public void unregisterAvailableObserver(@NonNull AvailableObserver availableObserver) {
+        super.unregisterAvailableObserver(availableObserver);
+        mState.updateAvailableObserver();
+    }
+
+    @Override
+    public void registerLoadingObserver(@NonNull LoadingObserver loadingObserver) {
+        super.registerLoadingObserver(loadingObserver);
+        mState.updateLoadingObserver();
+    }
+
+    @Override
+    public void unregisterLoadingObserver(@NonNull LoadingObserver loadingObserver) {
+        super.unregisterLoadingObserver(loadingObserver);
+        mState.updateLoadingObserver();
+    }
+
+    @Override
+    public void registerErrorObserver(@NonNull ErrorObserver errorObserver) {
+        super.registerErrorObserver(errorObserver);
+        mState.updateErrorObserver();
+    }
+
+    @Override
+    public void unregisterErrorObserver(@NonNull ErrorObserver errorObserver) {
+        super.unregisterErrorObserver(errorObserver);
+        mState.updateErrorObserver();
+    }
+
+    private void updateDataObserver() {
+        if (mObservingData && getDataObserverCount() <= 0) {
+            for (int i = 0; i < mDatas.size(); i++) {
+                mDatas.get(i).unregisterDataObserver(mDataObservers.get(i));
+            }
+            mObservingData = false;
+        } else if (!mObservingData && getDataObserverCount() > 0) {
+            for (int i = 0; i < mDatas.size(); i++) {
+                mDatas.get(i).registerDataObserver(mDataObservers.get(i));
+            }
+            mObservingData = true;
+            // Sizes may have changed while we weren't observing.
+            updateSizes();
+        }
+    }
+
+    private boolean childrenHaveStableIds() {
+        for (Data<? extends T> data : mDatas) {
+            if (!data.hasStableIds()) {
+                return false;
+            }
+        }
+        return !mDatas.isEmpty();
+    }
+
+    private void updateSizesIfNotObserving() {
+        // Sizes are only kept up to date by notifications while we're observing.
+        if (!mObservingData) {
+            updateSizes();
+        }
+    }
+
+    private void updateSizes() {
+        for (int i = 0; i < mDatas.size(); i++) {
+            mSizes.set(i, mDatas.get(i).size());
+        }
+    }
+
+    private final class ChildDataObserver implements PayloadDataObserver {
+
+        private final int mChild;
+
+        ChildDataObserver(int child) {
+            mChild = child;
+        }
+
+        @Override
+        public void onChange() {
+            // Decompose into fine-grained notifications confined to this child's range.
+            int offset = mSizes.prefix(mChild);
+            int oldSize = mSizes.get(mChild);
+            int newSize = mDatas.get(mChild).size();
+            mSizes.set(mChild, newSize);
+            int changed = min(oldSize, newSize);
+            if (changed > 0) {
+                notifyItemRangeChanged(offset, changed);
+            }
+            if (newSize < oldSize) {
+                notifyItemRangeRemoved(offset + newSize, oldSize - newSize);
+            } else if (newSize > oldSize) {
+                notifyItemRangeInserted(offset + oldSize, newSize - oldSize);
+            }
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(mSizes.prefix(mChild) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @NonNull Object payload) {
+            notifyItemRangeChanged(mSizes.prefix(mChild) + positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            mSizes.add(mChild, itemCount);
+            notifyItemRangeInserted(mSizes.prefix(mChild) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mSizes.add(mChild, -itemCount);
+            notifyItemRangeRemoved(mSizes.prefix(mChild) + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            int offset = mSizes.prefix(mChild);
+            notifyItemRangeMoved(offset + fromPosition, offset + toPosition, itemCount);
+        }
+    }
+
+    /** Fenwick tree of child sizes, supporting prefix sums and position lookup in {@code O(log k)}. */
+    private static final class SizeTree {
+
+        @NonNull
+        private final int[] mSizes;
+
+        /** One-based Fenwick tree array. */
+        @NonNull
+        private final int[] mTree;
+
+        /** The highest power of two {@code <= k}, used to descend the tree. */
+        private final int mHighBit;
+
+        SizeTree(int count) {
+            mSizes = new int[count];
+            mTree = new int[count + 1];
+            mHighBit = count > 0 ? Integer.highestOneBit(count) : 0;
+        }
+
+        int get(int child) {
+            return mSizes[child];
+        }
+
+        void set(int child, int size) {
+            add(child, size - mSizes[child]);
+        }
+
+        void add(int child, int delta) {
+            mSizes[child] += delta;
+            for (int i = child + 1; i < mTree.length; i += i & -i) {
+                mTree[i] += delta;
+            }
+        }
+
+        /** Returns the sum of sizes of all children preceding {@code child}. */
+        int prefix(int child) {
+            int sum = 0;
+            for (int i = child; i > 0; i -= i & -i) {
+                sum += mTree[i];
+            }
+            return sum;
+        }
+
+        int total() {
+            return prefix(mSizes.length);
+        }
+
+        /** Returns the child containing {@code position}, which must be within {@code [0, total())}. */
+        int find(int position) {
+            int child = 0;
+            int remaining = position;
+            for (int step = mHighBit; step > 0; step >>= 1) {
+                int next = child + step;
+                if (next < mTree.length && mTree[next] <= remaining) {
+                    child = next;
+                    remaining -= mTree[next];
+                }
+            }
+            return child;
+        }
+    }
+}
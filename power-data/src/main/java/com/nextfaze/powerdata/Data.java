@@ -90,6 +90,29 @@ public interface Data<T> extends Iterable<T> {
     @UiThread
     boolean isLoading();
 
+    /**
+     * Indicates if {@link #getItemId(int)} returns IDs that uniquely identify elements, and that stay the same for as
+     * long as an element is present, including across refreshes.
+     */
+    @UiThread
+    boolean hasStableIds();
+
+    /**
+     * Returns the ID of the element at the specified position. Unless {@link #hasStableIds()} returns {@code true},
+     * this is simply the position.
+     * @throws RuntimeException If the element is out of bounds or can't be retrieved.
+     */
+    @UiThread
+    long getItemId(int position);
+
+    /**
+     * Informs this instance which positions are currently visible, and how the visible range is moving, so it can
+     * prioritize loading accordingly. Called by adapters as the user scrolls. Instances that wrap others translate the
+     * viewport into the positions of the wrapped data and pass it on.
+     */
+    @UiThread
+    void setViewport(@NonNull Viewport viewport);
+
     /** Marks existing elements as invalid, such that they are not reloaded immediately, but at the next suitable time, such as when clients resume observation. */
     @UiThread
     void invalidate();
@@ -1,13 +1,19 @@
 package com.nextfaze.powerdata;
 
 import android.database.DataSetObserver;
+import android.widget.AbsListView;
 import android.widget.BaseAdapter;
+import android.widget.ListView;
+import com.nextfaze.powerdata.internal.ViewportTracker;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
 
 import java.util.HashSet;
 import java.util.Set;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
 /** Presents the contents of a {@link Data} instance, and responds to change events. */
 @Accessors(prefix = "m")
 public abstract class DataAdapter<T> extends BaseAdapter {
@@ -26,8 +32,31 @@ public abstract class DataAdapter<T> extends BaseAdapter {
         }
     };
 
+    @NonNull
+    private final ViewportTracker mViewportTracker;
+
+    @NonNull
+    private final AbsListView.OnScrollListener mScrollListener = new AbsListView.OnScrollListener() {
+        @Override
+        public void onScrollStateChanged(AbsListView view, int scrollState) {
+            if (scrollState == SCROLL_STATE_IDLE) {
+                mViewportTracker.onIdle();
+            }
+        }
+
+        @Override
+        public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+            // List view positions include any header views, which aren't part of the data.
+            int headerCount = view instanceof ListView ? ((ListView) view).getHeaderViewsCount() : 0;
+            int firstPosition = max(0, firstVisibleItem - headerCount);
+            int lastPosition = min(getCount(), firstVisibleItem + visibleItemCount - headerCount) - 1;
+            mViewportTracker.onVisibleRangeChanged(lastPosition >= firstPosition ? firstPosition : -1, lastPosition);
+        }
+    };
+
     public DataAdapter(@NonNull Data<T> data) {
         mData = data;
+        mViewportTracker = new ViewportTracker(data);
     }
 
     @NonNull
@@ -35,6 +64,18 @@ public abstract class DataAdapter<T> extends BaseAdapter {
         return mData;
     }
 
+    /**
+     * Returns a scroll listener that reports the visible range of the list to the data, so it can load ahead of the
+     * user. Unlike {@code RecyclerView}, {@link AbsListView} only supports a single scroll listener, so this must be
+     * set explicitly using {@link AbsListView#setOnScrollListener(AbsListView.OnScrollListener)}, or called from an
+     * existing listener.
+     * @see Data#setViewport(Viewport)
+     */
+    @NonNull
+    public final AbsListView.OnScrollListener getScrollListener() {
+        return mScrollListener;
+    }
+
     @Override
     public final int getCount() {
         return mData.size();
@@ -61,9 +102,18 @@ public abstract class DataAdapter<T> extends BaseAdapter {
         }
     }
 
-    /** By default, simply returns the position, since a data item does not intrinsically have a {@code long} ID. */
+    /** Returns {@code true} if the data has stable IDs. */
+    @Override
+    public boolean hasStableIds() {
+        return mData.hasStableIds();
+    }
+
+    /**
+     * By default, returns the ID provided by the data, which is simply the position unless the data has stable IDs.
+     * @see Data#getItemId(int)
+     */
     @Override
     public long getItemId(int position) {
-        return position;
+        return mData.getItemId(position);
     }
 }
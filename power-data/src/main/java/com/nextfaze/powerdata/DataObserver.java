@@ -9,5 +9,14 @@ public interface DataObserver {
 
     void onItemRangeRemoved(int positionStart, int itemCount);
 
+    /**
+     * Called when a contiguous block of elements has moved. The move is equivalent to removing the block, then
+     * inserting it at {@code toPosition} among the remaining elements, so {@code toPosition} is the final position of
+     * the block's first element. For example, moving a block of 2 from position 0 to position 3 turns {@code [A, B, C,
+     * D, E]} into {@code [C, D, E, A, B]}.
+     * @param fromPosition The position of the block's first element before the move.
+     * @param toPosition The position of the block's first element after the move.
+     * @param itemCount The number of elements in the block.
+     */
     void onItemRangeMoved(int fromPosition, int toPosition, int itemCount);
 }
@@ -1,5 +1,7 @@
 package com.nextfaze.powerdata;
 
+import android.support.annotation.Nullable;
+
 final class DataObservers extends Observers<DataObserver> {
     void notifyDataChanged() {
         for (DataObserver dataObserver : mObservers) {
@@ -12,8 +14,17 @@ final class DataObservers extends Observers<DataObserver> {
     }
 
     void notifyItemRangeChanged(int positionStart, int itemCount) {
+        notifyItemRangeChanged(positionStart, itemCount, null);
+    }
+
+    /** Observers that don't accept payloads are notified without one. */
+    void notifyItemRangeChanged(int positionStart, int itemCount, @Nullable Object payload) {
         for (DataObserver dataObserver : mObservers) {
-            dataObserver.onItemRangeChanged(positionStart, itemCount);
+            if (payload != null && dataObserver instanceof PayloadDataObserver) {
+                ((PayloadDataObserver) dataObserver).onItemRangeChanged(positionStart, itemCount, payload);
+            } else {
+                dataObserver.onItemRangeChanged(positionStart, itemCount);
+            }
         }
     }
 
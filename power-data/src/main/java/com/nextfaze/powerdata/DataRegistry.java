@@ -0,0 +1,106 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.UiThread;
+import android.util.Log;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * Hands out shared, reference counted {@link Data} instances by key, so that screens presenting the same source share a
+ * single instance, and with it a single load and a single list of elements, instead of each loading independently.
+ * <p>
+ * Each call to {@link #acquire(Object, Function)} must be balanced by a call to {@link #release(Data)}, typically in the
+ * matching lifecycle callback of the component that acquired it. When the last reference is released, the instance is
+ * removed from the registry and closed if it implements {@link Closeable}, as {@link ArrayData} and {@link
+ * IncrementalArrayData} do.
+ * </p>
+ * A key must always identify data of the same type. Not thread-safe, so access only from the UI thread.
+ */
+public final class DataRegistry {
+
+    private static final String TAG = DataRegistry.class.getSimpleName();
+
+    @NonNull
+    private final HashMap<Object, Entry> mEntriesByKey = new HashMap<>();
+
+    @NonNull
+    private final IdentityHashMap<Data<?>, Entry> mEntriesByData = new IdentityHashMap<>();
+
+    /**
+     * Returns the instance registered with the specified key, creating it using {@code factory} if there is none, and
+     * increments its reference count.
+     * @param key Identifies the source of the data, such as a request URL.
+     * @param factory Creates the instance if none is registered with the key. Called at most once per registration.
+     * @return The shared instance.
+     */
+    @UiThread
+    @NonNull
+    public <K, D extends Data<?>> D acquire(@NonNull K key, @NonNull Function<? super K, ? extends D> factory) {
+        Entry entry = mEntriesByKey.get(key);
+        if (entry == null) {
+            entry = new Entry(key, factory.apply(key));
+            if (mEntriesByData.containsKey(entry.mData)) {
+                throw new IllegalStateException("Factory returned an instance already registered with another key");
+            }
+            mEntriesByKey.put(key, entry);
+            mEntriesByData.put(entry.mData, entry);
+        }
+        entry.mReferenceCount++;
+        //noinspection unchecked
+        return (D) entry.mData;
+    }
+
+    /**
+     * Decrements the reference count of a shared instance, removing and closing it once no references remain.
+     * @throws IllegalStateException If the instance isn't registered.
+     */
+    @UiThread
+    public void release(@NonNull Data<?> data) {
+        Entry entry = mEntriesByData.get(data);
+        if (entry == null) {
+            throw new IllegalStateException("Data not registered: " + data);
+        }
+        if (--entry.mReferenceCount <= 0) {
+            mEntriesByKey.remove(entry.mKey);
+            mEntriesByData.remove(data);
+            close(data);
+        }
+    }
+
+    /** Returns the number of references held to the instance registered with the specified key, if any. */
+    @UiThread
+    public int getReferenceCount(@NonNull Object key) {
+        Entry entry = mEntriesByKey.get(key);
+        return entry != null ? entry.mReferenceCount : 0;
+    }
+
+    private static void close(@NonNull Data<?> data) {
+        if (data instanceof Closeable) {
+            try {
+                ((Closeable) data).close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing data", e);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        @NonNull
+        final Object mKey;
+
+        @NonNull
+        final Data<?> mData;
+
+        int mReferenceCount;
+
+        Entry(@NonNull Object key, @NonNull Data<?> data) {
+            mKey = key;
+            mData = data;
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.nextfaze.powerdata;
 
+import android.support.annotation.Nullable;
 import lombok.NonNull;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
 public abstract class DataWrapper<T> extends AbstractData<T> {
 
     @NonNull
     private final Data<?> mData;
 
     @NonNull
-    private final DataObserver mDataObserver = new DataObserver() {
+    private final DataObserver mDataObserver = new PayloadDataObserver() {
         @Override
         public void onChange() {
             forwardChanged();
@@ -16,7 +20,12 @@ public abstract class DataWrapper<T> extends AbstractData<T> {
 
         @Override
         public void onItemRangeChanged(int positionStart, int itemCount) {
-            forwardItemRangeChanged(positionStart, itemCount);
+            forwardItemRangeChanged(positionStart, itemCount, null);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @NonNull Object payload) {
+            forwardItemRangeChanged(positionStart, itemCount, payload);
         }
 
         @Override
@@ -103,6 +112,30 @@ public abstract class DataWrapper<T> extends AbstractData<T> {
         return mData.isEmpty();
     }
 
+    /** Returns {@code true} if an {@link IdFunction} has been set on this instance, or the wrapped data has stable IDs. */
+    @Override
+    public boolean hasStableIds() {
+        return getIdFunction() != null || mData.hasStableIds();
+    }
+
+    /** Applies this instance's {@link IdFunction} if set, otherwise returns the ID of the corresponding inner element. */
+    @Override
+    public long getItemId(int position) {
+        if (getIdFunction() != null || !mData.hasStableIds()) {
+            return super.getItemId(position);
+        }
+        return mData.getItemId(outerToInner(position));
+    }
+
+    /**
+     * Translates the viewport into inner positions using {@link #outerToInner(int)}, and passes it to the wrapped data.
+     * The inner viewport spans all inner positions corresponding to visible outer positions.
+     */
+    @Override
+    protected void onViewportChanged(@NonNull Viewport viewport) {
+        mData.setViewport(toInnerViewport(viewport));
+    }
+
     @Override
     public void registerDataObserver(@NonNull DataObserver dataObserver) {
         super.registerDataObserver(dataObserver);
@@ -159,6 +192,20 @@ public abstract class DataWrapper<T> extends AbstractData<T> {
         notifyItemRangeChanged(innerToOuter(innerPositionStart), innerItemCount);
     }
 
+    /**
+     * Forwards an inner change, with the payload describing it, if any, which should be attached to the resulting
+     * change notifications. Every inner change is forwarded through this method. By default, changes without a payload
+     * are delegated to {@link #forwardItemRangeChanged(int, int)}, and changes with one are translated with {@link
+     * #innerToOuter(int)}.
+     */
+    protected void forwardItemRangeChanged(int innerPositionStart, int innerItemCount, @Nullable Object payload) {
+        if (payload == null) {
+            forwardItemRangeChanged(innerPositionStart, innerItemCount);
+        } else {
+            notifyItemRangeChanged(innerToOuter(innerPositionStart), innerItemCount, payload);
+        }
+    }
+
     protected void forwardItemRangeInserted(int innerPositionStart, int innerItemCount) {
         notifyItemRangeInserted(innerToOuter(innerPositionStart), innerItemCount);
     }
@@ -191,6 +238,23 @@ public abstract class DataWrapper<T> extends AbstractData<T> {
         return innerPosition;
     }
 
+    @NonNull
+    private Viewport toInnerViewport(@NonNull Viewport viewport) {
+        // Positions can only be translated reliably while notifications keep any index up to date.
+        int lastPosition = min(viewport.getLastPosition(), size() - 1);
+        if (!mObservingData || viewport.isEmpty() || lastPosition < viewport.getFirstPosition()) {
+            return viewport.withRange(-1, -1);
+        }
+        int innerFirstPosition = Integer.MAX_VALUE;
+        int innerLastPosition = -1;
+        for (int position = viewport.getFirstPosition(); position <= lastPosition; position++) {
+            int innerPosition = outerToInner(position);
+            innerFirstPosition = min(innerFirstPosition, innerPosition);
+            innerLastPosition = max(innerLastPosition, innerPosition);
+        }
+        return viewport.withRange(innerFirstPosition, innerLastPosition);
+    }
+
     private void updateDataObserver() {
         if (mObservingData && getDataObserverCount() <= 0) {
             mData.unregisterDataObserver(mDataObserver);
@@ -4,6 +4,9 @@ import com.android.internal.util.Predicate;
 import lombok.NonNull;
 
 import java.util.Collections;
+import java.util.Comparator;
+
+import static java.util.Arrays.asList;
 
 public final class Datas {
 
@@ -40,14 +43,75 @@ public final class Datas {
         return new TransformData<>(data, function);
     }
 
+    /**
+     * Presents the elements of the specified data sorted according to {@code comparator}. The sort order is maintained
+     * incrementally as the wrapped data changes. Elements that compare equal retain their relative order in the wrapped
+     * data, including after inner insertions, changes and moves.
+     */
+    @NonNull
+    public static <T> Data<T> sort(@NonNull Data<? extends T> data, @NonNull Comparator<? super T> comparator) {
+        return new SortedData<>(data, comparator);
+    }
+
+    /**
+     * Presents only the first element of the specified data for each distinct key returned by {@code keyFunction}.
+     * Later elements with the same key are suppressed until the first is removed.
+     */
+    @NonNull
+    public static <T> Data<T> distinct(@NonNull Data<? extends T> data, @NonNull Function<? super T, ?> keyFunction) {
+        return new DistinctData<>(data, keyFunction);
+    }
+
+    /**
+     * Groups consecutive elements of the specified data into sections by the key returned by {@code keyFunction}, with
+     * each section preceded by its key as a header element.
+     */
+    @NonNull
+    public static <T> SectionedData<T> section(@NonNull Data<? extends T> data,
+                                               @NonNull Function<? super T, ?> keyFunction) {
+        return new SectionedData<>(data, keyFunction);
+    }
+
+    /**
+     * Presents the elements of the specified data instances end to end, as a single data instance. Each instance's
+     * change notifications are forwarded with shifted positions.
+     */
+    @SafeVarargs
+    @NonNull
+    public static <T> Data<T> concat(@NonNull Data<? extends T>... datas) {
+        return new ConcatData<>(asList(datas));
+    }
+
+    /**
+     * Merges the specified data instances, each of which must already be sorted according to {@code comparator}, into a
+     * single sorted data instance. Each instance's new elements are inserted at their merged position incrementally.
+     */
+    @SafeVarargs
+    @NonNull
+    public static <T> Data<T> mergeSorted(@NonNull Comparator<? super T> comparator,
+                                          @NonNull Data<? extends T>... datas) {
+        return new MergedData<>(comparator, asList(datas));
+    }
+
+    /** Presents the elements of the specified data, skipping the first {@code offset} elements. */
     @NonNull
     public static <T> Data<T> offset(@NonNull Data<? extends T> data, int offset) {
-        return new OffsetData<>(data, offset);
+        return new SliceData<>(data, offset, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Presents a window of at most {@code limit} elements of the specified data, starting at {@code offset}. The
+     * window can be moved later using {@link SliceData#setOffset(int)} and {@link SliceData#setLimit(int)}.
+     */
+    @NonNull
+    public static <T> SliceData<T> slice(@NonNull Data<? extends T> data, int offset, int limit) {
+        return new SliceData<>(data, offset, limit);
     }
 
+    /** Presents at most the first {@code limit} elements of the specified data. */
     @NonNull
     public static <T> Data<T> limit(@NonNull Data<? extends T> data, int limit) {
-        return new LimitData<>(data, limit);
+        return new SliceData<>(data, 0, limit);
     }
 
 }
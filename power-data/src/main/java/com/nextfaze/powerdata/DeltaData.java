@@ -0,0 +1,110 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ArrayData} that is kept in sync with a source that reports the changes since a cursor, rather than the full
+ * list of elements. Each load passes the cursor returned by the previous one, and the resulting upserts and deletions
+ * are applied in place by key, dispatching range notifications only for the affected positions. The cursor is stored
+ * as the data's {@linkplain #getValidator() validator}, so it is saved and restored along with any {@link
+ * SnapshotFile}, and a sync can resume from it after the process restarts. Clearing the data also clears the cursor,
+ * so the next load starts from scratch.
+ * @param <T> The type of element this data contains.
+ */
+public abstract class DeltaData<T> extends ArrayData<T> {
+
+    /**
+     * @param elementType The type of element.
+     * @param keyFunction Returns the unique key of an element, by which changes are applied.
+     */
+    protected DeltaData(@NonNull Class<T> elementType, @NonNull Function<? super T, ?> keyFunction) {
+        super(elementType, keyFunction);
+    }
+
+    /**
+     * Called in a background thread to load the changes since {@code cursor}.
+     * @param cursor The cursor returned by the last successful load, or {@code null} if there is none, in which case a
+     * {@linkplain Delta#reset(List, String) reset} should be returned.
+     * @param cancellationToken Canceled if the load is abandoned.
+     */
+    @WorkerThread
+    @NonNull
+    protected abstract Delta<? extends T> loadDelta(@Nullable String cursor,
+                                                    @NonNull CancellationToken cancellationToken) throws Throwable;
+
+    /** Returns the full data set, which is the changes since no cursor. Not called, since loads apply changes. */
+    @NonNull
+    @Override
+    protected final List<? extends T> load(@NonNull CancellationToken cancellationToken) throws Throwable {
+        return loadDelta(null, cancellationToken).getUpserts();
+    }
+
+    @Override
+    protected final void load(@NonNull LoadCallback<? super T> callback,
+                              @Nullable String validator,
+                              @NonNull CancellationToken cancellationToken) throws Throwable {
+        Delta<? extends T> delta = loadDelta(validator, cancellationToken);
+        callback.setValidator(delta.getCursor());
+        if (delta.isReset()) {
+            callback.emit(delta.getUpserts());
+        } else {
+            completeWithChanges(cancellationToken, delta.getUpserts(), delta.getDeletedKeys());
+        }
+    }
+
+    /** The changes reported by a source since a cursor. Immutable. */
+    @Getter
+    @Accessors(prefix = "m")
+    public static final class Delta<T> {
+
+        /** Elements to be inserted, or to replace the existing elements with the same key. */
+        @NonNull
+        private final List<? extends T> mUpserts;
+
+        /** Keys of the elements to be removed. */
+        @NonNull
+        private final Collection<?> mDeletedKeys;
+
+        /** The cursor from which the next load continues. */
+        @Nullable
+        private final String mCursor;
+
+        /** Indicates the upserts are the full list of elements, which replace the existing elements. */
+        private final boolean mReset;
+
+        /**
+         * Creates a set of changes to the existing elements. Deletions are applied first, then upserts replace the
+         * elements with the same key, and upserts with new keys are appended in order.
+         */
+        public Delta(@NonNull List<? extends T> upserts, @NonNull Collection<?> deletedKeys, @Nullable String cursor) {
+            this(upserts, deletedKeys, cursor, false);
+        }
+
+        private Delta(@NonNull List<? extends T> upserts,
+                      @NonNull Collection<?> deletedKeys,
+                      @Nullable String cursor,
+                      boolean reset) {
+            mUpserts = upserts;
+            mDeletedKeys = deletedKeys;
+            mCursor = cursor;
+            mReset = reset;
+        }
+
+        /**
+         * Creates a delta containing the full list of elements, for when there is no cursor or the source can no
+         * longer compute the changes since it.
+         */
+        @NonNull
+        public static <T> Delta<T> reset(@NonNull List<? extends T> elements, @Nullable String cursor) {
+            return new Delta<>(elements, Collections.emptyList(), cursor, true);
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.lang.Math.max;
+import static java.lang.String.format;
+
+/**
+ * Presents only the first element of the wrapped data for each distinct key. A hash index of the inner positions of
+ * each key, and a Fenwick tree of the included positions, are maintained incrementally from inner change notifications.
+ * Appending, changing, or promoting an element costs {@code O(log n)}, and an insertion or removal before the end of
+ * the wrapped data additionally costs a single {@code O(n)} pass to shift the positions that follow it.
+ */
+final class DistinctData<T> extends DataWrapper<T> {
+
+    @NonNull
+    private final Data<? extends T> mData;
+
+    @NonNull
+    private final Function<? super T, ?> mKeyFunction;
+
+    /** Cached key of each inner element, so removed elements can be accounted for. */
+    @NonNull
+    private final ArrayList<Object> mKeys = new ArrayList<>();
+
+    /** Sorted inner positions of the elements having each key. The first occurrence of each key is included. */
+    @NonNull
+    private final HashMap<Object, ArrayList<Integer>> mOccurrences = new HashMap<>();
+
+    /** Indicates which inner positions are included. */
+    @NonNull
+    private final InclusionTree mIncluded = new InclusionTree();
+
+    @NonNull
+    private final IndexState mIndexState = new IndexState(this) {
+        @Override
+        void build() {
+            buildCompleteIndex();
+        }
+    };
+
+    /** Start of the pending coalesced insertion notification. */
+    private int mInsertionStart;
+
+    /** Size of the pending coalesced insertion notification. */
+    private int mInsertionCount;
+
+    DistinctData(@NonNull Data<? extends T> data, @NonNull Function<? super T, ?> keyFunction) {
+        super(data);
+        mData = data;
+        mKeyFunction = keyFunction;
+    }
+
+    @NonNull
+    @Override
+    public T get(int position, int flags) {
+        mIndexState.checkObserving();
+        if (position < 0 || position >= mIncluded.count()) {
+            throw new IndexOutOfBoundsException(format("Position %s, size %s", position, mIncluded.count()));
+        }
+        return mData.get(mIncluded.find(position), flags);
+    }
+
+    @Override
+    protected int outerToInner(int outerPosition) {
+        mIndexState.checkObserving();
+        return mIncluded.find(outerPosition);
+    }
+
+    @Override
+    public int size() {
+        mIndexState.rebuildIfNeeded();
+        return mIncluded.count();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() <= 0;
+    }
+
+    @Override
+    public void registerDataObserver(@NonNull DataObserver dataObserver) {
+        super.registerDataObserver(dataObserver);
+        mIndexState.updateObserving();
+    }
+
+    @Override
+    public void unregisterDataObserver(@NonNull DataObserver dataObserver) {
+        super.unregisterDataObserver(dataObserver);
+        mIndexState.updateObserving();
+    }
+
+    @Override
+    protected void forwardChanged() {
+        buildCompleteIndex();
+        notifyDataChanged();
+    }
+
+    @Override
+    protected void forwardItemRangeChanged(int innerPositionStart, int innerItemCount, @Nullable Object payload) {
+        changeIndexRange(innerPositionStart, innerItemCount, payload);
+    }
+
+    @Override
+    protected void forwardItemRangeInserted(int innerPositionStart, int innerItemCount) {
+        insertIndexRange(innerPositionStart, innerItemCount, Collections.emptySet());
+    }
+
+    @Override
+    protected void forwardItemRangeRemoved(int innerPositionStart, int innerItemCount) {
+        HashSet<Object> promotions = new HashSet<>();
+        removeIndexRange(innerPositionStart, innerItemCount, promotions);
+        promote(promotions);
+    }
+
+    @Override
+    protected void forwardItemRangeMoved(int innerFromPosition, int innerToPosition, int innerItemCount) {
+        // Which occurrence of a key comes first may change, so treat as a removal then an insertion. Promotions are
+        // deferred until the index matches the inner data again.
+        HashSet<Object> promotions = new HashSet<>();
+        removeIndexRange(innerFromPosition, innerItemCount, promotions);
+        insertIndexRange(innerToPosition, innerItemCount, promotions);
+        promote(promotions);
+    }
+
+    private void buildCompleteIndex() {
+        mKeys.clear();
+        mOccurrences.clear();
+        mIncluded.clear();
+        int size = mData.size();
+        mKeys.ensureCapacity(size);
+        mIncluded.insert(0, size);
+        for (int innerPosition = 0; innerPosition < size; innerPosition++) {
+            Object key = key(innerPosition);
+            mKeys.add(key);
+            if (addOccurrence(key, innerPosition).get(0) == innerPosition) {
+                mIncluded.set(innerPosition, true);
+            }
+        }
+    }
+
+    /** Indexes inserted elements, ignoring those whose key is awaiting promotion. */
+    private void insertIndexRange(int innerPositionStart, int innerItemCount, @NonNull Set<Object> promotions) {
+        int innerPositionEnd = innerPositionStart + innerItemCount;
+        ArrayList<Object> keys = new ArrayList<>(innerItemCount);
+        for (int innerPosition = innerPositionStart; innerPosition < innerPositionEnd; innerPosition++) {
+            keys.add(key(innerPosition));
+        }
+        // When appending, no existing positions need shifting.
+        if (innerPositionStart < mKeys.size()) {
+            offsetOccurrences(innerPositionStart, innerItemCount);
+        }
+        mKeys.addAll(innerPositionStart, keys);
+        mIncluded.insert(innerPositionStart, innerItemCount);
+        for (int innerPosition = innerPositionStart; innerPosition < innerPositionEnd; innerPosition++) {
+            Object key = mKeys.get(innerPosition);
+            List<Integer> occurrences = addOccurrence(key, innerPosition);
+            if (occurrences.size() == 1) {
+                include(innerPosition);
+            } else if (occurrences.get(0) == innerPosition && !promotions.contains(key)) {
+                // The inserted element supersedes the included occurrence, since it now comes first.
+                exclude(occurrences.get(1));
+                include(innerPosition);
+            }
+        }
+        flushInsertions();
+    }
+
+    /** Removes elements from the index, collecting keys whose included occurrence was removed but remain present. */
+    private void removeIndexRange(int innerPositionStart, int innerItemCount, @NonNull Set<Object> promotions) {
+        int innerPositionEnd = innerPositionStart + innerItemCount;
+        int outerPositionStart = mIncluded.prefix(innerPositionStart);
+        int outerPositionEnd = mIncluded.prefix(innerPositionEnd);
+        HashSet<Object> removedIncludedKeys = new HashSet<>();
+        for (int innerPosition = innerPositionStart; innerPosition < innerPositionEnd; innerPosition++) {
+            Object key = mKeys.get(innerPosition);
+            if (mIncluded.get(innerPosition)) {
+                removedIncludedKeys.add(key);
+            }
+            removeOccurrence(key, innerPosition);
+        }
+        for (Object key : removedIncludedKeys) {
+            if (mOccurrences.containsKey(key)) {
+                promotions.add(key);
+            }
+        }
+        promotions.retainAll(mOccurrences.keySet());
+        boolean removingTail = innerPositionEnd == mKeys.size();
+        mIncluded.remove(innerPositionStart, innerItemCount);
+        mKeys.subList(innerPositionStart, innerPositionEnd).clear();
+        if (!removingTail) {
+            offsetOccurrences(innerPositionEnd, -innerItemCount);
+        }
+        if (outerPositionEnd > outerPositionStart) {
+            notifyItemRangeRemoved(outerPositionStart, outerPositionEnd - outerPositionStart);
+        }
+    }
+
+    /** Includes the first occurrence of each of the specified keys, in inner order. */
+    private void promote(@NonNull Set<Object> promotions) {
+        int[] innerPositions = new int[promotions.size()];
+        int i = 0;
+        for (Object key : promotions) {
+            innerPositions[i++] = mOccurrences.get(key).get(0);
+        }
+        Arrays.sort(innerPositions);
+        for (int innerPosition : innerPositions) {
+            include(innerPosition);
+        }
+        flushInsertions();
+    }
+
+    private void changeIndexRange(int innerPositionStart, int innerItemCount, @Nullable Object payload) {
+        for (int innerPosition = innerPositionStart; innerPosition < innerPositionStart + innerItemCount; innerPosition++) {
+            Object oldKey = mKeys.get(innerPosition);
+            Object newKey = key(innerPosition);
+            int outerPosition = mIncluded.prefix(innerPosition);
+            boolean wasIncluded = mIncluded.get(innerPosition);
+            if (newKey.equals(oldKey)) {
+                if (wasIncluded) {
+                    notifyItemChanged(outerPosition, payload);
+                }
+                continue;
+            }
+            // The key changed, so this element may now supersede the included occurrence of its new key, and the next
+            // occurrence of its old key may need to be promoted in its place.
+            removeOccurrence(oldKey, innerPosition);
+            List<Integer> occurrences = addOccurrence(newKey, innerPosition);
+            boolean included = occurrences.get(0) == innerPosition;
+            int supersededPosition = included && occurrences.size() > 1 ? occurrences.get(1) : -1;
+            mKeys.set(innerPosition, newKey);
+            if (wasIncluded && included) {
+                notifyItemChanged(outerPosition, payload);
+            } else if (wasIncluded) {
+                mIncluded.set(innerPosition, false);
+                notifyItemRemoved(outerPosition);
+            } else if (included) {
+                include(innerPosition);
+                flushInsertions();
+            }
+            if (supersededPosition >= 0) {
+                exclude(supersededPosition);
+            }
+            if (wasIncluded && mOccurrences.containsKey(oldKey)) {
+                include(mOccurrences.get(oldKey).get(0));
+                flushInsertions();
+            }
+        }
+    }
+
+    private void include(int innerPosition) {
+        int outerPosition = mIncluded.prefix(innerPosition);
+        // Coalesce adjacent insertions into a single range notification.
+        if (mInsertionCount <= 0 || outerPosition != mInsertionStart + mInsertionCount) {
+            flushInsertions();
+            mInsertionStart = outerPosition;
+        }
+        mIncluded.set(innerPosition, true);
+        mInsertionCount++;
+    }
+
+    private void exclude(int innerPosition) {
+        flushInsertions();
+        int outerPosition = mIncluded.prefix(innerPosition);
+        mIncluded.set(innerPosition, false);
+        notifyItemRemoved(outerPosition);
+    }
+
+    private void flushInsertions() {
+        if (mInsertionCount > 0) {
+            notifyItemRangeInserted(mInsertionStart, mInsertionCount);
+            mInsertionCount = 0;
+        }
+    }
+
+    /** Records an occurrence of {@code key}, returning the sorted inner positions of all its occurrences. */
+    @NonNull
+    private List<Integer> addOccurrence(@NonNull Object key, int innerPosition) {
+        ArrayList<Integer> occurrences = mOccurrences.get(key);
+        if (occurrences == null) {
+            occurrences = new ArrayList<>(1);
+            mOccurrences.put(key, occurrences);
+        }
+        // Appended positions follow every existing occurrence, so no search is required.
+        if (occurrences.isEmpty() || occurrences.get(occurrences.size() - 1) < innerPosition) {
+            occurrences.add(innerPosition);
+        } else {
+            occurrences.add(-Collections.binarySearch(occurrences, innerPosition) - 1, innerPosition);
+        }
+        return occurrences;
+    }
+
+    private void removeOccurrence(@NonNull Object key, int innerPosition) {
+        ArrayList<Integer> occurrences = mOccurrences.get(key);
+        occurrences.remove(Collections.binarySearch(occurrences, innerPosition));
+        if (occurrences.isEmpty()) {
+            mOccurrences.remove(key);
+        }
+    }
+
+    /** Offsets all recorded occurrences at or after {@code innerPositionStart}. */
+    private void offsetOccurrences(int innerPositionStart, int offset) {
+        for (ArrayList<Integer> occurrences : mOccurrences.values()) {
+            int i = Collections.binarySearch(occurrences, innerPositionStart);
+            for (i = i >= 0 ? i : -i - 1; i < occurrences.size(); i++) {
+                occurrences.set(i, occurrences.get(i) + offset);
+            }
+        }
+    }
+
+    @NonNull
+    private Object key(int innerPosition) {
+        return mKeyFunction.apply(mData.get(innerPosition));
+    }
+
+    /**
+     * Fenwick tree of a flag for each inner position, indicating whether it's included, so that an outer position and
+     * the inner position it maps to can each be found from the other in {@code O(log n)}.
+     */
+    private static final class InclusionTree {
+
+        @NonNull
+        private boolean[] mFlags = new boolean[0];
+
+        /** One-based Fenwick tree array, valid up to {@link #mSize}. */
+        @NonNull
+        private int[] mTree = new int[1];
+
+        private int mSize;
+
+        private int mCount;
+
+        /** Returns the number of included positions. */
+        int count() {
+            return mCount;
+        }
+
+        boolean get(int position) {
+            return mFlags[position];
+        }
+
+        void set(int position, boolean included) {
+            if (mFlags[position] == included) {
+                return;
+            }
+            mFlags[position] = included;
+            int delta = included ? 1 : -1;
+            mCount += delta;
+            for (int i = position + 1; i <= mSize; i += i & -i) {
+                mTree[i] += delta;
+            }
+        }
+
+        /** Returns the number of included positions preceding {@code position}. */
+        int prefix(int position) {
+            int sum = 0;
+            for (int i = position; i > 0; i -= i & -i) {
+                sum += mTree[i];
+            }
+            return sum;
+        }
+
+        /** Returns the position of the included position at {@code index}, which must be within {@code [0, count())}. */
+        int find(int index) {
+            int position = 0;
+            int remaining = index;
+            for (int step = Integer.highestOneBit(max(1, mSize)); step > 0; step >>= 1) {
+                int next = position + step;
+                if (next <= mSize && mTree[next] <= remaining) {
+                    position = next;
+                    remaining -= mTree[next];
+                }
+            }
+            return position;
+        }
+
+        /** Inserts positions that aren't included. Appending costs {@code O(log n)} per position. */
+        void insert(int start, int count) {
+            ensureCapacity(mSize + count);
+            if (start == mSize) {
+                // The new flags are clear, so each new node only sums the existing flags it covers.
+                for (int i = mSize + 1; i <= mSize + count; i++) {
+                    mTree[i] = prefix(i - 1) - prefix(i - (i & -i));
+                }
+                mSize += count;
+            } else {
+                System.arraycopy(mFlags, start, mFlags, start + count, mSize - start);
+                Arrays.fill(mFlags, start, start + count, false);
+                mSize += count;
+                rebuild();
+            }
+        }
+
+        /** Removes positions. Removing from the end costs {@code O(1)} per position. */
+        void remove(int start, int count) {
+            int end = start + count;
+            for (int position = start; position < end; position++) {
+                if (mFlags[position]) {
+                    mCount--;
+                }
+            }
+            System.arraycopy(mFlags, end, mFlags, start, mSize - end);
+            Arrays.fill(mFlags, mSize - count, mSize, false);
+            boolean removingTail = end == mSize;
+            mSize -= count;
+            // Each node only covers positions up to its own, so removing from the end leaves the remainder valid.
+            if (!removingTail) {
+                rebuild();
+            }
+        }
+
+        void clear() {
+            Arrays.fill(mFlags, 0, mSize, false);
+            mSize = 0;
+            mCount = 0;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > mFlags.length) {
+                int newCapacity = max(capacity, mFlags.length * 2);
+                mFlags = Arrays.copyOf(mFlags, newCapacity);
+                mTree = Arrays.copyOf(mTree, newCapacity + 1);
+            }
+        }
+
+        private void rebuild() {
+            Arrays.fill(mTree, 0);
+            for (int i = 1; i <= mSize; i++) {
+                mTree[i] += mFlags[i - 1] ? 1 : 0;
+                int parent = i + (i & -i);
+                if (parent <= mSize) {
+                    mTree[parent] += mTree[i];
+                }
+            }
+        }
+    }
+}
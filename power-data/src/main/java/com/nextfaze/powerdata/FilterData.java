@@ -1,6 +1,7 @@
 package com.nextfaze.powerdata;
 
 import android.os.Handler;
+import android.support.annotation.Nullable;
 import android.util.SparseIntArray;
 import com.android.internal.util.Predicate;
 import lombok.NonNull;
@@ -73,6 +74,13 @@ final class FilterData<T> extends DataWrapper<T> {
         return mData.get(innerPosition, flags);
     }
 
+    @Override
+    protected int outerToInner(int outerPosition) {
+        assertObservingData();
+        rebuildIndexIfNeeded();
+        return mIndex.keyAt(outerPosition);
+    }
+
     private void assertObservingData() {
         // It's incorrect to access the elements of this Data without being registered as a data observer.
         // We maintain an index into the inner wrapped Data, and therefore we need to be notified when the wrapped
@@ -208,17 +216,17 @@ final class FilterData<T> extends DataWrapper<T> {
     }
 
     private void buildCompleteIndex() {
-        changeIndexRange(0, mData.size(), false);
+        changeIndexRange(0, mData.size(), false, null);
     }
 
     @Override
     protected void forwardChanged() {
-        changeIndexRange(0, mData.size(), true);
+        changeIndexRange(0, mData.size(), true, null);
     }
 
     @Override
-    protected void forwardItemRangeChanged(int innerPositionStart, int innerItemCount) {
-        changeIndexRange(innerPositionStart, innerItemCount, true);
+    protected void forwardItemRangeChanged(int innerPositionStart, int innerItemCount, @Nullable Object payload) {
+        changeIndexRange(innerPositionStart, innerItemCount, true, payload);
     }
 
     @Override
@@ -244,7 +252,10 @@ final class FilterData<T> extends DataWrapper<T> {
     protected void forwardAvailableChanged() {
     }
 
-    private void changeIndexRange(final int innerPositionStart, final int itemCount, boolean notify) {
+    private void changeIndexRange(final int innerPositionStart,
+                                  final int itemCount,
+                                  boolean notify,
+                                  @Nullable Object payload) {
         for (int innerPosition = innerPositionStart; innerPosition < innerPositionStart + itemCount; innerPosition++) {
             T t = mData.get(innerPosition);
             boolean include = apply(t);
@@ -256,7 +267,7 @@ final class FilterData<T> extends DataWrapper<T> {
                     // Item should be included. Overwrite mapping and notify of a change.
                     mIndex.put(innerPosition);
                     if (notify) {
-                        notifyItemChanged(outerPosition);
+                        notifyItemChanged(outerPosition, payload);
                     }
                 } else {
                     // Item shouldn't be included. Remove mapping and notify of removal.
@@ -0,0 +1,105 @@
+package com.nextfaze.powerdata;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.support.annotation.AnyThread;
+import android.support.annotation.UiThread;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static android.os.Looper.getMainLooper;
+import static java.lang.Math.max;
+
+/**
+ * Accumulates elements produced on any thread, and hands them to the UI thread in batches at most once per frame, so
+ * that a rapid stream of small chunks results in one range notification per frame rather than one per chunk. Producers
+ * never block, since elements are queued without locking.
+ */
+abstract class FrameBatcher<T> {
+
+    /** The minimum interval between flushes, which is approximately one frame at 60 fps. */
+    private static final long FRAME_MILLIS = 16;
+
+    @NonNull
+    private final Handler mHandler = new Handler(getMainLooper());
+
+    @NonNull
+    private final Queue<T> mPending = new ConcurrentLinkedQueue<>();
+
+    @NonNull
+    private final AtomicBoolean mPosted = new AtomicBoolean();
+
+    @NonNull
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private volatile long mLastFlushTime;
+
+    /** Adds an element to the next batch. */
+    @AnyThread
+    void add(@NonNull T t) {
+        mPending.offer(t);
+        scheduleFlush();
+    }
+
+    /** Adds elements to the next batch, ignoring {@code null} elements. */
+    @AnyThread
+    void add(@NonNull Collection<? extends T> elements) {
+        boolean added = false;
+        for (T t : elements) {
+            if (t != null) {
+                mPending.offer(t);
+                added = true;
+            }
+        }
+        if (added) {
+            scheduleFlush();
+        }
+    }
+
+    /** Immediately hands any pending elements to {@link #onFlush(List)}. */
+    @UiThread
+    void flush() {
+        mHandler.removeCallbacks(mFlushRunnable);
+        // Clear the flag before draining, so elements added after the drain schedule another flush.
+        mPosted.set(false);
+        mLastFlushTime = SystemClock.uptimeMillis();
+        ArrayList<T> batch = new ArrayList<>();
+        T t;
+        while ((t = mPending.poll()) != null) {
+            batch.add(t);
+        }
+        if (!batch.isEmpty()) {
+            onFlush(batch);
+        }
+    }
+
+    /** Discards any pending elements. */
+    @AnyThread
+    void cancel() {
+        mHandler.removeCallbacks(mFlushRunnable);
+        mPending.clear();
+        mPosted.set(false);
+    }
+
+    private void scheduleFlush() {
+        if (mPosted.compareAndSet(false, true)) {
+            long delay = max(0, mLastFlushTime + FRAME_MILLIS - SystemClock.uptimeMillis());
+            mHandler.postDelayed(mFlushRunnable, delay);
+        }
+    }
+
+    /** Called on the UI thread with the next non-empty batch of elements, in the order they were added. */
+    @UiThread
+    protected abstract void onFlush(@NonNull List<T> elements);
+}
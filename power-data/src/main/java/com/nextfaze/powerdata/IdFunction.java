@@ -0,0 +1,8 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+
+/** Derives a {@code long} ID from an element, which must stay the same for as long as the element is present. */
+public interface IdFunction<T> {
+    long apply(@NonNull T t);
+}
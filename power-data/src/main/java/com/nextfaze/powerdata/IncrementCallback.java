@@ -0,0 +1,27 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+
+/**
+ * Receives the outcome of an asynchronous increment, such as one driven by a non-blocking HTTP client. Only the first
+ * call to {@link #onSuccess(IncrementalArrayData.Result)} or {@link #onFailure(Throwable)} has any effect, and calls
+ * made after loading has been abandoned are ignored. Thread-safe.
+ * @param <T> The type of element being loaded.
+ * @see IncrementalArrayData#loadAsync(int, String, IncrementCallback, CancellationToken)
+ */
+public interface IncrementCallback<T> {
+
+    /**
+     * Completes the increment.
+     * @param result The elements to be appended, or {@code null} if there are no more, as returned by {@link
+     * IncrementalArrayData#load(int, String, CancellationToken)}.
+     */
+    @AnyThread
+    void onSuccess(@Nullable IncrementalArrayData.Result<? extends T> result);
+
+    /** Fails the increment. The error is subject to the data's {@link RetryPolicy}. */
+    @AnyThread
+    void onFailure(@NonNull Throwable e);
+}
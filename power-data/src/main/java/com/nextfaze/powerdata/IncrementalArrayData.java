@@ -4,17 +4,27 @@ import android.support.annotation.CallSuper;
 import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
 import android.support.annotation.WorkerThread;
+import android.util.Log;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.experimental.Accessors;
 
+import java.io.Closeable;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -28,16 +38,37 @@ import static java.lang.Thread.currentThread;
  * @param <T> The type of element this data contains.
  */
 @Accessors(prefix = "m")
-public abstract class IncrementalArrayData<T> extends AbstractData<T> implements List<T> {
+public abstract class IncrementalArrayData<T> extends AbstractData<T> implements List<T>, Closeable {
+
+    private static final String TAG = IncrementalArrayData.class.getSimpleName();
 
     private static final ThreadFactory DEFAULT_THREAD_FACTORY = new NamedThreadFactory("Incremental Array Data Thread %d");
 
+    /** The maximum number of threads shared by all instances to fetch increments concurrently. */
+    private static final int MAX_PREFETCH_THREADS = 4;
+
+    @NonNull
+    private static final ThreadPoolExecutor sPrefetchExecutor = new ThreadPoolExecutor(
+            MAX_PREFETCH_THREADS, MAX_PREFETCH_THREADS, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+            new NamedThreadFactory("Incremental Array Data Prefetch Thread %d"));
+
+    static {
+        sPrefetchExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /** How far ahead to look while scrolling, in seconds of travel at the current velocity. */
+    private static final float VELOCITY_LOOK_AHEAD_SECONDS = 1;
+
     @NonNull
     private final ArrayList<T> mData = new ArrayList<>();
 
     @NonNull
     private final ThreadFactory mThreadFactory;
 
+    /** Returns the key of an element, used to drop elements repeated across a page seam, or {@code null} if none. */
+    @Nullable
+    private final Function<? super T, ?> mKeyFunction;
+
     @NonNull
     private final Lock mLock = new ReentrantLock();
 
@@ -47,12 +78,42 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
     /** The number of rows to look ahead before loading. */
     private volatile int mLookAheadRowCount = 5;
 
+    @NonNull
+    private volatile RetryPolicy mRetryPolicy = RetryPolicy.NONE;
+
+    /** The maximum number of increments fetched concurrently, when the number remaining is known. */
+    private volatile int mParallelism = 1;
+
+    /** Optional cache of loaded increments, consulted before each is loaded. */
+    @Nullable
+    private volatile PageCache<T> mPageCache;
+
+    /** Optional snapshot of the loaded elements, restored on a cold start. */
+    @Nullable
+    private SnapshotFile<T> mSnapshotFile;
+
+    /** The next page token last saved to or restored from {@link #mSnapshotFile}. */
+    @Nullable
+    private String mSnapshotPageToken;
+
     @Nullable
     private Thread mThread;
 
+    /** Cancels the loads performed by {@link #mThread}. */
+    @Nullable
+    private CancellationToken mCancellationToken;
+
     /** Indicates the last attempt to load a page failed. */
     private volatile boolean mError;
 
+    /** The token of the increment following the loaded elements, as reported by the last {@link Result}. */
+    @Nullable
+    private volatile String mNextPageToken;
+
+    /** The token from which the next load begins, instead of from the start, or {@code null} if none. */
+    @Nullable
+    private String mResumePageToken;
+
     private boolean mLoading;
     private int mAvailable = Integer.MAX_VALUE;
     private boolean mDirty = true;
@@ -63,12 +124,27 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
     }
 
     protected IncrementalArrayData(@NonNull ThreadFactory threadFactory) {
+        this(threadFactory, null);
+    }
+
+    /**
+     * @param keyFunction Returns the unique key of an element. Elements of an increment whose keys match elements of
+     * the preceding increment are dropped, so rows that shift across a page boundary aren't shown twice.
+     */
+    protected IncrementalArrayData(@NonNull Function<? super T, ?> keyFunction) {
+        this(DEFAULT_THREAD_FACTORY, keyFunction);
+    }
+
+    protected IncrementalArrayData(@NonNull ThreadFactory threadFactory, @Nullable Function<? super T, ?> keyFunction) {
         mThreadFactory = threadFactory;
+        mKeyFunction = keyFunction;
     }
 
     @CallSuper
     public void close() {
         stopThread();
+        mResumePageToken = null;
+        mNextPageToken = null;
         mData.clear();
         mData.trimToSize();
     }
@@ -258,6 +334,7 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
     @Override
     public final void invalidate() {
         stopThread();
+        mResumePageToken = null;
         mDirty = true;
         mClear = true;
     }
@@ -265,6 +342,7 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
     @Override
     public final void refresh() {
         stopThread();
+        mResumePageToken = null;
         mDirty = true;
         setAvailable(Integer.MAX_VALUE);
         startThreadIfNeeded();
@@ -293,6 +371,116 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
         mLookAheadRowCount = lookAheadRowCount;
     }
 
+    @NonNull
+    public final RetryPolicy getRetryPolicy() {
+        return mRetryPolicy;
+    }
+
+    /**
+     * Sets the policy used to retry failed increments. The loading thread sleeps between retries, which costs nothing
+     * extra since it would otherwise be waiting for the next increment to be requested, and no {@link LoadScheduler}
+     * slot is held meanwhile. Errors are only dispatched once the policy gives up. Defaults to {@link RetryPolicy#NONE}.
+     */
+    @UiThread
+    public final void setRetryPolicy(@NonNull RetryPolicy retryPolicy) {
+        mRetryPolicy = retryPolicy;
+    }
+
+    public final int getParallelism() {
+        return mParallelism;
+    }
+
+    /**
+     * Sets the maximum number of increments fetched concurrently. When a {@link Result} reports a finite number of
+     * remaining elements, each time loading proceeds the following pages are fetched concurrently, up to this number in
+     * total, and appended in order as they arrive. The number of pages is estimated from the size of the last page.
+     * Fetches run on a small executor shared by all instances, and are also subject to the {@link LoadScheduler}.
+     * Since pages are loaded out of order, {@link #load(int, String, CancellationToken)} must load the page it's passed,
+     * and be thread-safe, since it's called for several pages at once on different threads. Pages that have
+     * been fetched but not yet appended when a load fails are discarded, and fetched again when loading resumes from the
+     * page that failed. Increments with a {@linkplain Result#getNextPageToken() next page token} are always loaded one after another.
+     * Defaults to {@code 1}, which loads pages strictly one after another.
+     */
+    @UiThread
+    public final void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        mParallelism = parallelism;
+    }
+
+    @Nullable
+    public final PageCache<T> getPageCache() {
+        return mPageCache;
+    }
+
+    /**
+     * Sets a cache consulted before each increment is loaded, and updated after, keyed by page index, or by page token
+     * for keyed pagination. Increments found in the cache are served without calling {@link #load(int, String,
+     * CancellationToken)}, which is why it must load the page it specifies, rather than tracking its position.
+     * Call {@link PageCache#clear()} to force every page to be loaded afresh.
+     */
+    @UiThread
+    public final void setPageCache(@Nullable PageCache<T> pageCache) {
+        mPageCache = pageCache;
+    }
+
+    /**
+     * Returns the token of the increment following the loaded elements, as reported by the last {@link Result}, or
+     * {@code null} if there is none. After a snapshot is restored, this is the token saved with it.
+     * @see #resume(String)
+     */
+    @Nullable
+    public final String getNextPageToken() {
+        return mNextPageToken;
+    }
+
+    /**
+     * Makes the next load continue from {@code pageToken}, appending to the existing elements, rather than loading
+     * from the start. Typically called from a subclass constructor with the {@linkplain #getNextPageToken() token}
+     * restored from a {@link SnapshotFile}, so scrolling resumes where it left off after the process restarts. Only
+     * sources with keyed pagination can resume. Refreshing or invalidating loads from the start again.
+     * @throws IllegalStateException If loading has already begun.
+     */
+    @UiThread
+    public final void resume(@NonNull String pageToken) {
+        if (mThread != null) {
+            throw new IllegalStateException("Loading has already begun");
+        }
+        mResumePageToken = pageToken;
+        mNextPageToken = pageToken;
+    }
+
+    @Nullable
+    public final SnapshotFile<T> getSnapshotFile() {
+        return mSnapshotFile;
+    }
+
+    /**
+     * Sets a snapshot file in which the loaded elements are saved after each increment that changes them. If this data is empty, the
+     * elements of an existing snapshot are presented immediately, and they are revalidated by the first increment
+     * loaded, which overwrites them in place, notifying only the elements that changed. The {@linkplain
+     * #getNextPageToken() next page token} is saved and restored with the elements. The snapshot is decoded in full by
+     * this call. Typically called from a subclass constructor, so the snapshot is shown from the first frame.
+     */
+    @UiThread
+    public final void setSnapshotFile(@Nullable SnapshotFile<T> snapshotFile) {
+        mSnapshotFile = snapshotFile;
+        if (snapshotFile != null && mData.isEmpty()) {
+            SnapshotFile.Snapshot<T> snapshot = snapshotFile.readSnapshot();
+            if (snapshot != null) {
+                try {
+                    addAll(snapshot.mElements);
+                    mNextPageToken = snapshot.mTag;
+                    mSnapshotPageToken = snapshot.mTag;
+                } catch (IllegalStateException e) {
+                    Log.w(TAG, "Discarding unreadable snapshot " + snapshotFile.getFile(), e);
+                    snapshotFile.delete();
+                }
+            }
+        }
+    }
+
     @Override
     public final boolean isLoading() {
         return mLoading;
@@ -318,14 +506,69 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
     }
 
     /**
-     * Called from a worker thread to load the next increment of items.
+     * Loads the next increment when the viewport comes within the look-ahead distance of the end, which is the
+     * {@linkplain #setLookAheadRowCount(int) look-ahead row count}, or the distance scrolled at the current velocity
+     * within {@link #VELOCITY_LOOK_AHEAD_SECONDS}, whichever is greater. Scrolling backward never loads.
+     */
+    @CallSuper
+    @Override
+    protected void onViewportChanged(@NonNull Viewport viewport) {
+        super.onViewportChanged(viewport);
+        if (viewport.isEmpty() || viewport.getDirection() == Viewport.Direction.BACKWARD) {
+            return;
+        }
+        int lookAhead = max(mLookAheadRowCount, (int) ceil(viewport.getVelocity() * VELOCITY_LOOK_AHEAD_SECONDS));
+        if (viewport.getLastPosition() >= size() - 1 - lookAhead) {
+            proceed();
+        }
+    }
+
+    /**
+     * Called from a worker thread to load an increment of elements, with a token that is canceled if loading is
+     * abandoned by {@link #refresh()}, {@link #invalidate()} or {@link #close()}. Sources with keyed pagination load the
+     * increment following {@code pageToken}, and others the increment at index {@code page}, rather than tracking their
+     * position themselves, so that the position is reset when loading begins from the start. If the {@linkplain
+     * #setParallelism(int) parallelism} exceeds {@code 1}, this is called concurrently from several threads, and must
+     * be thread-safe. Only called by {@link #loadAsync(int, String, IncrementCallback, CancellationToken)}, unless it's
+     * overridden.
+     * @param page The index of the increment, counting from {@code 0} since loading began. Increments may be loaded out
+     * of order, or served from a {@link PageCache} without calling this.
+     * @param pageToken The {@linkplain Result#getNextPageToken() token} reported by the previous increment, or {@code
+     * null} for the first increment, or if the previous one didn't report a token.
      * @return A result containing the next set of elements to be appended, or {@code null} if there are no more items.
      * The result also indicates if these are the final elements of the data set.
      * @throws Throwable If any error occurs while trying to load.
+     * @see CancellationToken
      */
     @WorkerThread
     @Nullable
-    protected abstract Result<? extends T> load() throws Throwable;
+    protected abstract Result<? extends T> load(int page,
+                                                @Nullable String pageToken,
+                                                @NonNull CancellationToken cancellationToken) throws Throwable;
+
+    /**
+     * Called from a worker thread to start loading an increment without blocking it, for sources backed by a
+     * non-blocking client. The outcome is delivered to {@code callback} from any thread. The same contract as {@link
+     * #load(int, String, CancellationToken)} applies to the arguments and to concurrent calls. Asynchronous increments
+     * only occupy a {@link LoadScheduler} slot until this method returns. By default, calls {@link #load(int, String,
+     * CancellationToken)} and completes the callback with its outcome.
+     * @param callback Receives the outcome of the increment.
+     * @param cancellationToken Canceled if loading is abandoned, in which case the request should be canceled too.
+     */
+    @WorkerThread
+    protected void loadAsync(int page,
+                             @Nullable String pageToken,
+                             @NonNull IncrementCallback<T> callback,
+                             @NonNull CancellationToken cancellationToken) {
+        Result<? extends T> result;
+        try {
+            result = load(page, pageToken, cancellationToken);
+        } catch (Throwable e) {
+            callback.onFailure(e);
+            return;
+        }
+        callback.onSuccess(result);
+    }
 
     /** Called prior to elements being cleared. Always called from the UI thread. */
     @UiThread
@@ -352,12 +595,18 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
     private void startThreadIfNeeded() {
         if (mDirty && mThread == null && getDataObserverCount() > 0) {
             mDirty = false;
-            onLoadBegin();
+            final String resumePageToken = mResumePageToken;
+            mResumePageToken = null;
+            if (resumePageToken == null) {
+                onLoadBegin();
+            }
             setLoading(true);
+            final CancellationToken cancellationToken = new CancellationToken();
+            mCancellationToken = cancellationToken;
             mThread = mThreadFactory.newThread(new Runnable() {
                 @Override
                 public void run() {
-                    runLoadLoop();
+                    runLoadLoop(cancellationToken, resumePageToken);
                 }
             });
             mThread.start();
@@ -365,15 +614,19 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
     }
 
     private void stopThread() {
+        if (mCancellationToken != null) {
+            mCancellationToken.cancel();
+            mCancellationToken = null;
+        }
         if (mThread != null) {
             mThread.interrupt();
             mThread = null;
         }
     }
 
-    private void runLoadLoop() {
+    private void runLoadLoop(@NonNull CancellationToken cancellationToken, @Nullable String resumePageToken) {
         try {
-            loadLoop();
+            loadLoop(cancellationToken, resumePageToken);
         } catch (InterruptedException e) {
             // Normal thread termination.
         }
@@ -381,89 +634,249 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
 
     /**
      * Loads each increment until full range has been loading, halting in between increment until instructed to
-     * proceed.
+     * proceed. If a resume token is specified, loading continues from it, appending to the existing elements.
      */
-    private void loadLoop() throws InterruptedException {
-        boolean firstItem = true;
+    private void loadLoop(@NonNull CancellationToken cancellationToken,
+                          @Nullable String resumePageToken) throws InterruptedException {
+        boolean firstItem = resumePageToken == null;
+        String pageToken = resumePageToken;
         boolean moreAvailable = true;
+        int failedAttempts = 0;
+        int page = 0;
+        int pageSize = 0;
+        int remaining = Integer.MAX_VALUE;
 
         // Loop until all loaded.
         while (moreAvailable) {
-            // Thread interruptions terminate the loop.
-            if (currentThread().isInterrupted()) {
+            // Thread interruptions and cancellation terminate the loop.
+            if (currentThread().isInterrupted() || cancellationToken.isCanceled()) {
                 throw new InterruptedException();
             }
+            long retryDelay = -1;
+            ArrayList<Increment> prefetches = new ArrayList<>();
             try {
                 setLoading(true);
 
-                // Load next increment of items.
-                final Result<? extends T> result = load();
-                moreAvailable = result != null && result.getRemaining() > 0;
-                setAvailable(result != null ? result.getRemaining() : 0);
-
-                if (result != null && !result.getElements().isEmpty()) {
-                    // If invalidated while shown, we lazily clear the data so the user doesn't see blank data while loading.
-                    final boolean needToClear = firstItem;
-                    firstItem = false;
-                    runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (needToClear) {
-                                overwriteResult(result);
-                            } else {
-                                appendResult(result);
+                // Fetch the following pages concurrently, if the number of them remaining is known. Keyed pages can
+                // only be loaded one after another, since each token is reported by the page before it.
+                int prefetchCount = pageToken == null ? prefetchCount(pageSize, remaining) : 0;
+                for (int i = 1; i <= prefetchCount; i++) {
+                    prefetches.add(prefetchPage(page + i, cancellationToken));
+                }
+
+                // Serve the next increment from the cache, or load it once the scheduler permits it. Then splice in
+                // any prefetched increments in order, each as soon as it arrives.
+                for (int i = 0; i <= prefetches.size() && moreAvailable; i++) {
+                    final Result<? extends T> result = i == 0 ?
+                            loadPage(page, pageToken, cancellationToken) : prefetches.get(i - 1).await();
+                    if (cancellationToken.isCanceled()) {
+                        // Discard the result of an abandoned load.
+                        throw new InterruptedException();
+                    }
+                    failedAttempts = 0;
+                    page++;
+                    remaining = result != null ? result.getRemaining() : 0;
+                    pageSize = result != null ? result.getElements().size() : 0;
+                    moreAvailable = remaining > 0;
+                    pageToken = result != null ? result.getNextPageToken() : null;
+                    mNextPageToken = pageToken;
+                    setAvailable(remaining);
+
+                    if (result != null && !result.getElements().isEmpty()) {
+                        // If invalidated while shown, we lazily clear the data so the user doesn't see blank data while loading.
+                        final boolean needToClear = firstItem;
+                        final String nextPageToken = pageToken;
+                        firstItem = false;
+                        runOnUiThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (needToClear) {
+                                    overwriteResult(result, nextPageToken);
+                                } else {
+                                    appendResult(result, nextPageToken);
+                                }
                             }
-                        }
-                    });
+                        });
+                    }
                 }
             } catch (InterruptedException | InterruptedIOException e) {
                 throw new InterruptedException();
             } catch (Throwable e) {
-                notifyError(e);
-                mError = true;
+                if (cancellationToken.isCanceled()) {
+                    // The load was abandoned, so whatever it threw isn't worth reporting.
+                    throw new InterruptedException();
+                }
+                failedAttempts++;
+                RetryPolicy retryPolicy = mRetryPolicy;
+                if (retryPolicy.shouldRetry(failedAttempts, e)) {
+                    retryDelay = retryPolicy.getDelayMillis(failedAttempts);
+                } else {
+                    failedAttempts = 0;
+                    notifyError(e);
+                    mError = true;
+                }
             } finally {
-                setLoading(false);
+                // Prefetches that weren't spliced in are reloaded by the next increment.
+                for (Increment prefetch : prefetches) {
+                    prefetch.cancel();
+                }
+                // Still loading while a retry is pending.
+                setLoading(retryDelay >= 0);
             }
 
-            // Block until instructed to continue, even if an error occurred.
-            // In this case, loading must be explicitly resumed.
-            block();
+            if (retryDelay >= 0) {
+                Thread.sleep(retryDelay);
+            } else {
+                // Block until instructed to continue, even if an error occurred.
+                // In this case, loading must be explicitly resumed.
+                block();
+            }
         }
     }
 
-    private void overwriteResult(@NonNull Result<? extends T> result) {
+    /**
+     * Returns the number of pages to fetch concurrently with the next one, which is limited by the parallelism, and the
+     * number of pages remaining, estimated from the size of the last page.
+     */
+    private int prefetchCount(int pageSize, int remaining) {
+        int parallelism = mParallelism;
+        if (parallelism <= 1 || pageSize <= 0 || remaining <= 0 || remaining == Integer.MAX_VALUE) {
+            return 0;
+        }
+        int remainingPages = (int) ((remaining + (long) pageSize - 1) / pageSize);
+        return min(parallelism, remainingPages) - 1;
+    }
+
+    /**
+     * Fetches the page on the shared prefetch executor, once the {@link LoadScheduler} permits it, so no pool thread is
+     * occupied while waiting for a slot.
+     */
+    @NonNull
+    private Increment prefetchPage(int page, @NonNull CancellationToken cancellationToken) {
+        final Increment increment = new Increment(page, null, cancellationToken);
+        FutureTask<Void> task = new FutureTask<>(new Runnable() {
+            @Override
+            public void run() {
+                if (!increment.serveFromCache()) {
+                    increment.start();
+                }
+            }
+        }, null);
+        increment.mTask = task;
+        LoadScheduler.getDefault().executor(this, sPrefetchExecutor).execute(task);
+        return increment;
+    }
+
+    /**
+     * Serves the increment at {@code page}, or following {@code pageToken} if specified, from the page cache, if any,
+     * otherwise loads it once the {@link LoadScheduler} permits it, and caches the result.
+     */
+    @Nullable
+    private Result<? extends T> loadPage(int page,
+                                         @Nullable String pageToken,
+                                         @NonNull CancellationToken cancellationToken) throws Throwable {
+        Increment increment = new Increment(page, pageToken, cancellationToken);
+        if (!increment.serveFromCache()) {
+            LoadScheduler scheduler = LoadScheduler.getDefault();
+            scheduler.acquire(this);
+            try {
+                increment.start();
+            } finally {
+                scheduler.release();
+            }
+        }
+        return increment.await();
+    }
+
+    @Nullable
+    private Result<? extends T> cachedPage(int page, @Nullable String pageToken) {
+        PageCache<T> pageCache = mPageCache;
+        return pageCache != null ? pageCache.get(pageCacheKey(page, pageToken)) : null;
+    }
+
+    @NonNull
+    private static String pageCacheKey(int page, @Nullable String pageToken) {
+        return pageToken != null ? "token-" + pageToken : String.valueOf(page);
+    }
+
+    /**
+     * Replaces the existing elements with the first increment, overwriting them in place so that only elements that
+     * differ from the ones they replace are notified as changed. {@link #onClear()} is only called if existing
+     * elements are replaced or removed.
+     */
+    private void overwriteResult(@NonNull Result<? extends T> result, @Nullable String nextPageToken) {
+        mClear = false;
+        List<T> elements = nonNullElements(result);
         int oldSize = mData.size();
-        clearElementsWithCallback(false);
-        appendNonNullElements(result);
-        int newSize = mData.size();
-        int deltaSize = newSize - oldSize;
-        int changed = min(oldSize, newSize);
-        if (changed > 0) {
-            notifyItemRangeChanged(0, changed);
+        int newSize = elements.size();
+        int overwritten = min(oldSize, newSize);
+        int unchanged = equalPrefixLength(mData, 0, elements.subList(0, overwritten));
+        if (unchanged < overwritten || oldSize > newSize) {
+            onClear();
         }
-        if (deltaSize < 0) {
-            notifyItemRangeRemoved(oldSize + deltaSize, abs(deltaSize));
-        } else if (deltaSize > 0) {
-            notifyItemRangeInserted(oldSize, abs(deltaSize));
+        overwriteElements(mData, unchanged, elements.subList(unchanged, overwritten));
+        if (oldSize > newSize) {
+            mData.subList(newSize, oldSize).clear();
+            notifyItemRangeRemoved(newSize, oldSize - newSize);
+        } else if (newSize > oldSize) {
+            mData.addAll(elements.subList(oldSize, newSize));
+            notifyItemRangeInserted(oldSize, newSize - oldSize);
         }
+        saveSnapshotIfChanged(unchanged < overwritten || oldSize != newSize, nextPageToken);
     }
 
-    private void appendResult(@NonNull Result<? extends T> result) {
+    private void appendResult(@NonNull Result<? extends T> result, @Nullable String nextPageToken) {
         int oldSize = mData.size();
-        appendNonNullElements(result);
+        mData.addAll(withoutSeamDuplicates(nonNullElements(result)));
         int deltaSize = mData.size() - oldSize;
         if (deltaSize > 0) {
             notifyItemRangeInserted(oldSize, deltaSize);
         }
+        saveSnapshotIfChanged(deltaSize > 0, nextPageToken);
     }
 
-    private void appendNonNullElements(@NonNull Result<? extends T> result) {
+    /**
+     * Drops elements whose keys match those at the end of the existing elements, within the length of the increment,
+     * which happens when rows are inserted ahead of the loaded position between increments.
+     */
+    @NonNull
+    private List<T> withoutSeamDuplicates(@NonNull List<T> elements) {
+        Function<? super T, ?> keyFunction = mKeyFunction;
+        int size = mData.size();
+        if (keyFunction == null || size == 0 || elements.isEmpty()) {
+            return elements;
+        }
+        HashSet<Object> seamKeys = new HashSet<>();
+        for (T t : mData.subList(max(0, size - elements.size()), size)) {
+            seamKeys.add(keyFunction.apply(t));
+        }
+        ArrayList<T> distinct = new ArrayList<>(elements.size());
+        for (T t : elements) {
+            if (!seamKeys.contains(keyFunction.apply(t))) {
+                distinct.add(t);
+            }
+        }
+        return distinct;
+    }
+
+    @NonNull
+    private List<T> nonNullElements(@NonNull Result<? extends T> result) {
         List<? extends T> elements = result.getElements();
+        ArrayList<T> nonNullElements = new ArrayList<>(elements.size());
         for (T t : elements) {
             if (t != null) {
-                mData.add(t);
+                nonNullElements.add(t);
             }
         }
+        return nonNullElements;
+    }
+
+    /** Saves the snapshot, unless neither the elements nor the next page token differ from those last saved. */
+    private void saveSnapshotIfChanged(boolean elementsChanged, @Nullable String nextPageToken) {
+        if (mSnapshotFile != null && (elementsChanged || !equal(nextPageToken, mSnapshotPageToken))) {
+            mSnapshotPageToken = nextPageToken;
+            mSnapshotFile.save(mData, nextPageToken);
+        }
     }
 
     private void setLoading(final boolean loading) {
@@ -509,6 +922,105 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
         }
     }
 
+    /**
+     * An increment being loaded, which the loading thread waits for. As for {@link ArrayData} loads, only the first
+     * outcome has any effect, and outcomes delivered after loading has been abandoned are ignored.
+     */
+    private final class Increment implements IncrementCallback<T> {
+
+        private final int mPage;
+
+        @Nullable
+        private final String mPageToken;
+
+        @NonNull
+        private final CancellationToken mCancellationToken;
+
+        @NonNull
+        private final AtomicBoolean mCompleted = new AtomicBoolean();
+
+        @NonNull
+        private final CountDownLatch mDone = new CountDownLatch(1);
+
+        /** The task starting this increment on the prefetch executor, if any. */
+        @Nullable
+        volatile Future<?> mTask;
+
+        @Nullable
+        private volatile Result<? extends T> mResult;
+
+        @Nullable
+        private volatile Throwable mError;
+
+        Increment(int page, @Nullable String pageToken, @NonNull CancellationToken cancellationToken) {
+            mPage = page;
+            mPageToken = pageToken;
+            mCancellationToken = cancellationToken;
+        }
+
+        /** Completes the increment from the page cache, if it holds it. */
+        boolean serveFromCache() {
+            Result<? extends T> cached = cachedPage(mPage, mPageToken);
+            if (cached == null || !mCompleted.compareAndSet(false, true)) {
+                return false;
+            }
+            mResult = cached;
+            mDone.countDown();
+            return true;
+        }
+
+        /** Starts loading the increment, which completes once the source delivers its outcome. */
+        void start() {
+            try {
+                loadAsync(mPage, mPageToken, this, mCancellationToken);
+            } catch (Throwable e) {
+                onFailure(e);
+            }
+        }
+
+        @Override
+        public void onSuccess(@Nullable Result<? extends T> result) {
+            if (mCancellationToken.isCanceled() || !mCompleted.compareAndSet(false, true)) {
+                return;
+            }
+            PageCache<T> pageCache = mPageCache;
+            if (pageCache != null && result != null) {
+                pageCache.put(pageCacheKey(mPage, mPageToken), result);
+            }
+            mResult = result;
+            mDone.countDown();
+        }
+
+        @Override
+        public void onFailure(@NonNull Throwable e) {
+            if (mCancellationToken.isCanceled() || !mCompleted.compareAndSet(false, true)) {
+                return;
+            }
+            mError = e;
+            mDone.countDown();
+        }
+
+        /** Abandons the increment, interrupting its load if it's still running on the prefetch executor. */
+        void cancel() {
+            mCompleted.set(true);
+            Future<?> task = mTask;
+            if (task != null) {
+                task.cancel(true);
+            }
+        }
+
+        /** Waits for the outcome of the increment, rethrowing whatever it failed with. */
+        @Nullable
+        Result<? extends T> await() throws Throwable {
+            mDone.await();
+            Throwable error = mError;
+            if (error != null) {
+                throw error;
+            }
+            return mResult;
+        }
+    }
+
     @Getter
     @Accessors(prefix = "m")
     public static final class Result<T> {
@@ -522,9 +1034,27 @@ public abstract class IncrementalArrayData<T> extends AbstractData<T> implements
         /** Indicates how many more elements available to be loaded after this. */
         private final int mRemaining;
 
+        /** Identifies the increment following this one, for sources with keyed pagination. */
+        @Nullable
+        private final String mNextPageToken;
+
         public Result(@NonNull List<? extends T> elements, int remaining) {
+            this(elements, remaining, null);
+        }
+
+        public Result(@NonNull List<? extends T> elements, int remaining, @Nullable String nextPageToken) {
             mElements = elements;
             mRemaining = max(0, remaining);
+            mNextPageToken = nextPageToken;
+        }
+
+        /**
+         * Returns a result of keyed pagination, which has more elements remaining only if {@code nextPageToken} is
+         * specified.
+         */
+        @NonNull
+        public static <T> Result<T> nextPage(@NonNull List<? extends T> list, @Nullable String nextPageToken) {
+            return new Result<>(list, nextPageToken != null ? Integer.MAX_VALUE : 0, nextPageToken);
         }
 
         @NonNull
@@ -0,0 +1,66 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+
+/**
+ * Tracks the validity of an index that a data instance maintains into the data it presents, such as a sorted or
+ * filtered permutation. The index is only kept up to date by change notifications, which are only received while the
+ * owner has data observers of its own, so clients must be registered observers to access elements through the index.
+ * This lets the owner register with the data it presents without leaking. The index is built lazily, and rebuilt
+ * whenever observation resumes, since the presented data may have changed unnoticed in the meantime.
+ */
+abstract class IndexState {
+
+    @NonNull
+    private final AbstractData<?> mOwner;
+
+    private boolean mObserving;
+
+    private boolean mDirty = true;
+
+    /** @param owner The data instance maintaining the index, whose data observers are counted. */
+    IndexState(@NonNull AbstractData<?> owner) {
+        mOwner = owner;
+    }
+
+    /** Builds the entire index from scratch. */
+    abstract void build();
+
+    /** Indicates if the index is being kept up to date by change notifications. */
+    boolean isObserving() {
+        return mObserving;
+    }
+
+    /**
+     * Starts or stops tracking, according to whether the owner has data observers. Must be called whenever one is
+     * registered or unregistered.
+     */
+    void updateObserving() {
+        if (mObserving && mOwner.getDataObserverCount() <= 0) {
+            mObserving = false;
+        } else if (!mObserving && mOwner.getDataObserverCount() > 0) {
+            mObserving = true;
+            mDirty = true;
+            rebuildIfNeeded();
+        }
+    }
+
+    /** Builds the index if it hasn't been built since it was last invalidated. */
+    void rebuildIfNeeded() {
+        if (mDirty) {
+            mDirty = false;
+            build();
+        }
+    }
+
+    /**
+     * Ensures the index is up to date before elements are accessed through it.
+     * @throws IllegalStateException If the owner has no data observers, in which case the index may be stale.
+     */
+    void checkObserving() {
+        if (!mObserving) {
+            throw new IllegalStateException("Not registered with inner data");
+        }
+        rebuildIfNeeded();
+    }
+}
@@ -0,0 +1,137 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static java.lang.Math.min;
+
+/**
+ * Hash index from element key to position within a list. Appends and replacements are indexed immediately, so lookups
+ * cost {@code O(1)}. Insertions and removals elsewhere only invalidate the positions that follow them, which are
+ * reindexed lazily the next time such a position is looked up, so the first lookup after such a modification costs
+ * {@code O(n)} in the number of following elements, no more than the list itself spent shifting them. Keys are expected
+ * to be unique within the list. Not thread-safe.
+ */
+final class KeyIndex<T> {
+
+    @NonNull
+    private final Class<T> mElementType;
+
+    @NonNull
+    private final Function<? super T, ?> mKeyFunction;
+
+    /** Maps the key of every element to its position, which is only trusted below {@link #mValidSize}. */
+    @NonNull
+    private final HashMap<Object, Integer> mPositions = new HashMap<>();
+
+    /** The number of leading elements whose indexed positions are known to be correct. */
+    private int mValidSize;
+
+    KeyIndex(@NonNull Class<T> elementType, @NonNull Function<? super T, ?> keyFunction) {
+        mElementType = elementType;
+        mKeyFunction = keyFunction;
+    }
+
+    @NonNull
+    Object keyOf(@NonNull T element) {
+        return mKeyFunction.apply(element);
+    }
+
+    /** Returns the key of the specified object, or {@code null} if it isn't an instance of the element type. */
+    @Nullable
+    Object keyOfCandidate(@NonNull Object object) {
+        return mElementType.isInstance(object) ? keyOf(mElementType.cast(object)) : null;
+    }
+
+    /** Returns the position of the element with the specified key, or {@code -1} if there is no such element. */
+    int indexOf(@NonNull List<? extends T> data, @NonNull Object key) {
+        Integer position = mPositions.get(key);
+        if (position == null) {
+            return -1;
+        }
+        if (position < mValidSize && position < data.size() && key.equals(keyOf(data.get(position)))) {
+            return position;
+        }
+        if (position < mValidSize) {
+            // The list was modified without informing us, so nothing can be trusted.
+            rebuild(data);
+        } else {
+            reindex(data);
+        }
+        position = mPositions.get(key);
+        return position != null ? position : -1;
+    }
+
+    void inserted(@NonNull List<? extends T> data, int positionStart, int itemCount) {
+        // Positions following the insertion are now stale, unless it was an append to a fully valid index.
+        boolean append = positionStart == mValidSize && positionStart + itemCount == data.size();
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            mPositions.put(keyOf(data.get(position)), position);
+        }
+        mValidSize = append ? data.size() : min(mValidSize, positionStart);
+    }
+
+    void removed(@NonNull T t, int position) {
+        mPositions.remove(keyOf(t));
+        mValidSize = min(mValidSize, position);
+    }
+
+    void changed(@NonNull T oldElement, @NonNull T newElement, int position) {
+        mPositions.remove(keyOf(oldElement));
+        mPositions.put(keyOf(newElement), position);
+    }
+
+    /** Unindexes the elements of the specified range, which are about to be removed. */
+    void removing(@NonNull List<? extends T> data, int positionStart, int itemCount) {
+        unindex(data, positionStart, itemCount);
+        mValidSize = min(mValidSize, positionStart);
+    }
+
+    /**
+     * Unindexes the elements of the specified range, which are about to be overwritten. Must be followed by {@link
+     * #overwritten(List, int, int)}.
+     */
+    void overwriting(@NonNull List<? extends T> data, int positionStart, int itemCount) {
+        unindex(data, positionStart, itemCount);
+    }
+
+    /** Indexes the elements of the specified range, which have been overwritten. */
+    void overwritten(@NonNull List<? extends T> data, int positionStart, int itemCount) {
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            mPositions.put(keyOf(data.get(position)), position);
+        }
+    }
+
+    void rebuild(@NonNull List<? extends T> data) {
+        mPositions.clear();
+        mValidSize = 0;
+        reindex(data);
+    }
+
+    void clear() {
+        mPositions.clear();
+        mValidSize = 0;
+    }
+
+    /** Removes the keys of the elements in the specified range, unless they're indexed at other positions. */
+    private void unindex(@NonNull List<? extends T> data, int positionStart, int itemCount) {
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            Object key = keyOf(data.get(position));
+            Integer indexed = mPositions.get(key);
+            if (indexed != null && indexed == position) {
+                mPositions.remove(key);
+            }
+        }
+    }
+
+    /** Reindexes the positions following the valid prefix. */
+    private void reindex(@NonNull List<? extends T> data) {
+        for (int position = mValidSize; position < data.size(); position++) {
+            mPositions.put(keyOf(data.get(position)), position);
+        }
+        mValidSize = data.size();
+    }
+}
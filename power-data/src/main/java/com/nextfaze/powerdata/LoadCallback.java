@@ -0,0 +1,42 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+
+import java.util.Collection;
+
+/**
+ * Receives the outcome of an asynchronous load, such as one driven by a non-blocking HTTP client. Elements may be
+ * {@linkplain #emit(Collection) emitted} in chunks before the load completes. Only the first call to {@link
+ * #onSuccess(Collection)} or {@link #onFailure(Throwable)} has any effect, and calls made after the load has been
+ * abandoned are ignored. Thread-safe.
+ * @param <T> The type of element being loaded.
+ * @see ArrayData#loadAsync(LoadCallback, CancellationToken)
+ */
+public interface LoadCallback<T> extends Sink<T> {
+
+    /** Emits any final elements, then completes the load. */
+    @AnyThread
+    void onSuccess(@NonNull Collection<? extends T> elements);
+
+    /** Fails the load. The error is subject to the data's {@link RetryPolicy}. */
+    @AnyThread
+    void onFailure(@NonNull Throwable e);
+
+    /**
+     * Completes the load without touching the existing elements, because the source reported they are unchanged since
+     * the validator passed to the load, such as by an HTTP {@code 304 Not Modified} response. Must not be called after
+     * elements have been emitted.
+     * @throws IllegalStateException If elements have already been emitted.
+     */
+    @AnyThread
+    void onNotModified();
+
+    /**
+     * Sets an opaque validator identifying the version of the content being loaded, such as an HTTP {@code ETag}, which
+     * is passed to the next load once this one succeeds. Loads that succeed without setting one clear the validator.
+     */
+    @AnyThread
+    void setValidator(@Nullable String validator);
+}
@@ -0,0 +1,250 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optionally limits the number of {@link Data} loads executing at once, and decides which waiting load runs next based
+ * on the priority of the data performing it. Data that is visible on screen is loaded before data that isn't, and among
+ * data of equal priority, data whose viewport is closest to the end of its loaded elements goes first. Loads of equal
+ * priority and proximity run in the order they were requested.
+ * <p>
+ * A {@link Data} instance is considered visible while it has registered loading observers, which a {@code DataLayout}
+ * only holds while it's visible. Loading observers are propagated by wrappers, so this applies through any chain of
+ * wrapped data.
+ * </p>
+ * Loads are unbounded by default, so none ever wait; apps opt in to a cap with {@link #setMaxConcurrentLoads(int)}.
+ * Loads already executing are never preempted. A lower priority load simply waits in the queue until no higher priority
+ * load is waiting and a slot is free. Loads submitted to a pooled executor wait in the queue without occupying one of
+ * its threads.
+ */
+public final class LoadScheduler {
+
+    /** The maximum number of concurrent loads that imposes no limit. */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    @NonNull
+    private static final LoadScheduler DEFAULT = new LoadScheduler(UNBOUNDED);
+
+    @NonNull
+    private final Lock mLock = new ReentrantLock();
+
+    @NonNull
+    private final Condition mChanged = mLock.newCondition();
+
+    /** Loads waiting to execute, in the order they were requested. */
+    @NonNull
+    private final ArrayList<Waiting> mWaiting = new ArrayList<>();
+
+    private volatile int mMaxConcurrentLoads;
+
+    private int mRunningCount;
+
+    /** Returns the scheduler used by {@link ArrayData} and {@link IncrementalArrayData}. */
+    @NonNull
+    public static LoadScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    LoadScheduler(int maxConcurrentLoads) {
+        setMaxConcurrentLoads(maxConcurrentLoads);
+    }
+
+    public int getMaxConcurrentLoads() {
+        return mMaxConcurrentLoads;
+    }
+
+    /**
+     * Sets the maximum number of loads that may execute at once. Must be at least {@code 1}. Defaults to {@link
+     * #UNBOUNDED}.
+     */
+    public void setMaxConcurrentLoads(int maxConcurrentLoads) {
+        if (maxConcurrentLoads < 1) {
+            throw new IllegalArgumentException("Max concurrent loads must be at least 1");
+        }
+        mLock.lock();
+        List<Waiting> started;
+        try {
+            mMaxConcurrentLoads = maxConcurrentLoads;
+            started = startWaiting();
+        } finally {
+            mLock.unlock();
+        }
+        execute(started);
+    }
+
+    /**
+     * Blocks until the specified data is permitted to load. Must be followed by a call to {@link #release()} once the
+     * load completes. Only for threads dedicated to the data; loads run on a shared pool should use {@link
+     * #executor(AbstractData, Executor)} instead, so they don't occupy a pool thread while waiting.
+     * @throws InterruptedException If the calling thread is interrupted while waiting, in which case no slot is held.
+     */
+    @WorkerThread
+    void acquire(@NonNull AbstractData<?> data) throws InterruptedException {
+        Waiting waiting = new Waiting(data, null, null);
+        mLock.lock();
+        List<Waiting> started = null;
+        try {
+            mWaiting.add(waiting);
+            started = startWaiting();
+            while (!waiting.mStarted) {
+                mChanged.await();
+            }
+        } catch (InterruptedException e) {
+            if (waiting.mStarted) {
+                mRunningCount--;
+            } else {
+                mWaiting.remove(waiting);
+            }
+            started = startWaiting();
+            throw e;
+        } finally {
+            mLock.unlock();
+            execute(started);
+        }
+    }
+
+    /** Releases the slot held by a load that has completed. */
+    void release() {
+        mLock.lock();
+        List<Waiting> started;
+        try {
+            mRunningCount--;
+            started = startWaiting();
+        } finally {
+            mLock.unlock();
+        }
+        execute(started);
+    }
+
+    /**
+     * Returns an executor that passes loads of the specified data to {@code executor} once permitted, holding a slot
+     * until each has run. Loads wait in this scheduler's queue rather than on a thread of {@code executor}.
+     */
+    @NonNull
+    Executor executor(@NonNull final AbstractData<?> data, @NonNull final Executor executor) {
+        return new Executor() {
+            @Override
+            public void execute(@NonNull Runnable runnable) {
+                enqueue(new Waiting(data, executor, runnable));
+            }
+        };
+    }
+
+    private void enqueue(@NonNull Waiting waiting) {
+        mLock.lock();
+        List<Waiting> started;
+        try {
+            mWaiting.add(waiting);
+            started = startWaiting();
+        } finally {
+            mLock.unlock();
+        }
+        execute(started);
+    }
+
+    /**
+     * Starts the highest priority waiting loads while slots are free. Blocked threads are woken, and the queued loads
+     * are returned so they can be passed to their executors once the lock is released.
+     */
+    @Nullable
+    private List<Waiting> startWaiting() {
+        List<Waiting> started = null;
+        boolean signal = false;
+        while (mRunningCount < mMaxConcurrentLoads && !mWaiting.isEmpty()) {
+            Waiting next = mWaiting.remove(indexOfNext());
+            next.mStarted = true;
+            mRunningCount++;
+            if (next.mRunnable == null) {
+                signal = true;
+            } else {
+                if (started == null) {
+                    started = new ArrayList<>();
+                }
+                started.add(next);
+            }
+        }
+        if (signal) {
+            mChanged.signalAll();
+        }
+        return started;
+    }
+
+    private void execute(@Nullable List<Waiting> started) {
+        if (started == null) {
+            return;
+        }
+        for (final Waiting waiting : started) {
+            try {
+                //noinspection ConstantConditions
+                waiting.mExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            //noinspection ConstantConditions
+                            waiting.mRunnable.run();
+                        } finally {
+                            release();
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+    }
+
+    /** Returns the index of the waiting load that should run first. Earlier requests win ties. */
+    private int indexOfNext() {
+        int next = 0;
+        for (int i = 1; i < mWaiting.size(); i++) {
+            if (compare(mWaiting.get(i).mData, mWaiting.get(next).mData) > 0) {
+                next = i;
+            }
+        }
+        return next;
+    }
+
+    /** Compares load priority, then proximity of the viewport to the end of the loaded elements. */
+    private static int compare(@NonNull AbstractData<?> a, @NonNull AbstractData<?> b) {
+        if (a.getLoadPriority() != b.getLoadPriority()) {
+            return a.getLoadPriority() > b.getLoadPriority() ? 1 : -1;
+        }
+        if (a.getLoadDistance() != b.getLoadDistance()) {
+            return a.getLoadDistance() < b.getLoadDistance() ? 1 : -1;
+        }
+        return 0;
+    }
+
+    /**
+     * A load waiting for a slot, either on a blocked thread, or queued to be passed to an executor once permitted.
+     */
+    private static final class Waiting {
+
+        @NonNull
+        final AbstractData<?> mData;
+
+        @Nullable
+        final Executor mExecutor;
+
+        @Nullable
+        final Runnable mRunnable;
+
+        boolean mStarted;
+
+        Waiting(@NonNull AbstractData<?> data, @Nullable Executor executor, @Nullable Runnable runnable) {
+            mData = data;
+            mExecutor = executor;
+            mRunnable = runnable;
+        }
+    }
+}
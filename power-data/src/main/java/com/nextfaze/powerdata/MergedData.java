@@ -0,0 +1,428 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * Merges several data instances, each already sorted according to the same comparator, into a single sorted data
+ * instance. The merged order is maintained incrementally: each child's new elements are binary searched into the merged
+ * index, rather than re-merging all children, in {@code O(log n)} per affected element. Elements that compare equal are
+ * ordered by child, then by their position within the child.
+ */
+final class MergedData<T> extends AbstractData<T> {
+
+    @NonNull
+    private final List<Data<? extends T>> mDatas;
+
+    @NonNull
+    private final List<ChildDataObserver> mDataObservers;
+
+    @NonNull
+    private final Comparator<? super T> mComparator;
+
+    @NonNull
+    private final CompositeState mState;
+
+    /** The elements of each child, in child order. */
+    @NonNull
+    private final List<RankedList<Entry>> mChildIndexes;
+
+    /** The elements of all children, in merged order. */
+    @NonNull
+    private final RankedList<Entry> mMergedIndex = new RankedList<>();
+
+    @NonNull
+    private final Comparator<Entry> mEntryComparator = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            int result = mComparator.compare(a.mElement, b.mElement);
+            if (result != 0) {
+                return result;
+            }
+            if (a.mChild != b.mChild) {
+                return a.mChild < b.mChild ? -1 : 1;
+            }
+            int positionA = childPosition(a);
+            int positionB = childPosition(b);
+            return positionA < positionB ? -1 : positionA > positionB ? 1 : 0;
+        }
+    };
+
+    @NonNull
+    private final IndexState mIndexState = new IndexState(this) {
+        @Override
+        void build() {
+            buildCompleteIndex();
+        }
+    };
+
+    MergedData(@NonNull Comparator<? super T> comparator, @NonNull List<? extends Data<? extends T>> datas) {
+        mComparator = comparator;
+        mDatas = new ArrayList<>(datas);
+        mDataObservers = new ArrayList<>(mDatas.size());
+        mChildIndexes = new ArrayList<>(mDatas.size());
+        for (int i = 0; i < mDatas.size(); i++) {
+            mDataObservers.add(new ChildDataObserver(i));
+            mChildIndexes.add(new RankedList<Entry>());
+        }
+        mState = new CompositeState(this, mDatas);
+    }
+
+    @NonNull
+    @Override
+    public T get(int position, int flags) {
+        mIndexState.checkObserving();
+        if (position < 0 || position >= mMergedIndex.size()) {
+            throw new IndexOutOfBoundsException(format("Position %s, size %s", position, mMergedIndex.size()));
+        }
+        Entry entry = mMergedIndex.get(position).mValue;
+        return mDatas.get(entry.mChild).get(childPosition(entry), flags);
+    }
+
+    @Override
+    public int size() {
+        mIndexState.rebuildIfNeeded();
+        return mMergedIndex.size();
+    }
+
+    @Override
+    public boolean isLoading() {
+        return mState.isLoading();
+    }
+
+    @Override
+    public int available() {
+        return mState.available();
+    }
+
+    /** Returns {@code true} if an {@link IdFunction} has been set, or all children have stable IDs. */
+    @Override
+    public boolean hasStableIds() {
+        return getIdFunction() != null || childrenHaveStableIds();
+    }
+
+    /**
+     * Applies this instance's {@link IdFunction} if set, otherwise returns the ID of the corresponding child element.
+     * Child IDs must be unique across all children.
+     */
+    @Override
+    public long getItemId(int position) {
+        if (getIdFunction() != null || !childrenHaveStableIds()) {
+            return super.getItemId(position);
+        }
+        mIndexState.checkObserving();
+        Entry entry = mMergedIndex.get(position).mValue;
+        return mDatas.get(entry.mChild).getItemId(childPosition(entry));
+    }
+
+    /** Passes each child a viewport spanning its elements that are visible, which is empty if none are. */
+    @Override
+    protected void onViewportChanged(@NonNull Viewport viewport) {
+        int[] firsts = new int[mDatas.size()];
+        int[] lasts = new int[mDatas.size()];
+        Arrays.fill(firsts, Integer.MAX_VALUE);
+        Arrays.fill(lasts, -1);
+        if (mIndexState.isObserving() && !viewport.isEmpty()) {
+            mIndexState.rebuildIfNeeded();
+            int lastPosition = min(viewport.getLastPosition(), mMergedIndex.size() - 1);
+            for (int position = viewport.getFirstPosition(); position <= lastPosition; position++) {
+                Entry entry = mMergedIndex.get(position).mValue;
+                int childPosition = childPosition(entry);
+                firsts[entry.mChild] = min(firsts[entry.mChild], childPosition);
+                lasts[entry.mChild] = max(lasts[entry.mChild], childPosition);
+            }
+        }
+        for (int i = 0; i < mDatas.size(); i++) {
+            mDatas.get(i).setViewport(viewport.withRange(lasts[i] >= 0 ? firsts[i] : -1, lasts[i]));
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        for (Data<? extends T> data : mDatas) {
+            data.invalidate();
+        }
+    }
+
+    @Override
+    public void refresh() {
+        for (Data<? extends T> data : mDatas) {
+            data.refresh();
+        }
+    }
+
+    @Override
+    public void reload() {
+        for (Data<? extends T> data : mDatas) {
+            data.reload();
+        }
+    }
+
+    @Override
+    public void registerDataObserver(@NonNull DataObserver dataObserver) {
+        super.registerDataObserver(dataObserver);
+        updateDataObserver();
+    }
+
+    @Override
+    public void unregisterDataObserver(@NonNull DataObserver dataObserver) {
+        super.unregisterDataObserver(dataObserver);
+        updateDataObserver();
+    }
+
+    @Override
+    public void registerAvailableObserver(@NonNull AvailableObserver availableObserver) {
+        super.registerAvailableObserver(availableObserver);
+        mState.updateAvailableObserver();
+    }
+
+    @Override
+    public void unregisterAvailableObserver(@NonNull AvailableObserver availableObserver) {
+        super.unregisterAvailableObserver(availableObserver);
+        mState.updateAvailableObserver();
+    }
+
+    @Override
+    public void registerLoadingObserver(@NonNull LoadingObserver loadingObserver) {
+        super.registerLoadingObserver(loadingObserver);
+        mState.updateLoadingObserver();
+    }
+
+    @Override
+    public void unregisterLoadingObserver(@NonNull LoadingObserver loadingObserver) {
+        super.unregisterLoadingObserver(loadingObserver);
+        mState.updateLoadingObserver();
+    }
+
+    @Override
+    public void registerErrorObserver(@NonNull ErrorObserver errorObserver) {
+        super.registerErrorObserver(errorObserver);
+        mState.updateErrorObserver();
+    }
+
+    @Override
+    public void unregisterErrorObserver(@NonNull ErrorObserver errorObserver) {
+        super.unregisterErrorObserver(errorObserver);
+        mState.updateErrorObserver();
+    }
+
+    private void updateDataObserver() {
+        if (mIndexState.isObserving() && getDataObserverCount() <= 0) {
+            for (int i = 0; i < mDatas.size(); i++) {
+                mDatas.get(i).unregisterDataObserver(mDataObservers.get(i));
+            }
+        } else if (!mIndexState.isObserving() && getDataObserverCount() > 0) {
+            for (int i = 0; i < mDatas.size(); i++) {
+                mDatas.get(i).registerDataObserver(mDataObservers.get(i));
+            }
+        }
+        mIndexState.updateObserving();
+    }
+
+    private boolean childrenHaveStableIds() {
+        for (Data<? extends T> data : mDatas) {
+            if (!data.hasStableIds()) {
+                return false;
+            }
+        }
+        return !mDatas.isEmpty();
+    }
+
+    private void buildCompleteIndex() {
+        mMergedIndex.clear();
+        ArrayList<Entry> entries = new ArrayList<>();
+        for (int child = 0; child < mDatas.size(); child++) {
+            RankedList<Entry> childIndex = mChildIndexes.get(child);
+            childIndex.clear();
+            Data<? extends T> data = mDatas.get(child);
+            int size = data.size();
+            entries.ensureCapacity(entries.size() + size);
+            for (int position = 0; position < size; position++) {
+                Entry entry = new Entry(child, data.get(position));
+                entry.mChildNode = childIndex.add(position, entry);
+                entries.add(entry);
+            }
+        }
+        // Stable sort, so entries that compare equal stay ordered by child, then by position.
+        Collections.sort(entries, mEntryComparator);
+        for (int mergedPosition = 0; mergedPosition < entries.size(); mergedPosition++) {
+            Entry entry = entries.get(mergedPosition);
+            entry.mMergedNode = mMergedIndex.add(mergedPosition, entry);
+        }
+    }
+
+    /**
+     * Binary searches each inserted element into the merged index. Since the child is sorted, consecutive elements
+     * that land in the same gap are coalesced into a single insertion notification.
+     */
+    private void insertIndexRange(int child, int positionStart, int itemCount) {
+        RankedList<Entry> childIndex = mChildIndexes.get(child);
+        Data<? extends T> data = mDatas.get(child);
+        int insertionStart = -1;
+        int insertionCount = 0;
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            Entry entry = new Entry(child, data.get(position));
+            entry.mChildNode = childIndex.add(position, entry);
+            int mergedPosition = mMergedIndex.insertionPosition(entry, mEntryComparator);
+            if (insertionCount > 0 && mergedPosition != insertionStart + insertionCount) {
+                notifyItemRangeInserted(insertionStart, insertionCount);
+                insertionCount = 0;
+            }
+            if (insertionCount <= 0) {
+                insertionStart = mergedPosition;
+            }
+            entry.mMergedNode = mMergedIndex.add(mergedPosition, entry);
+            insertionCount++;
+        }
+        if (insertionCount > 0) {
+            notifyItemRangeInserted(insertionStart, insertionCount);
+        }
+    }
+
+    /** Removes entries, coalescing removals at adjacent merged positions into range notifications. */
+    private void removeIndexRange(int child, int positionStart, int itemCount) {
+        RankedList<Entry> childIndex = mChildIndexes.get(child);
+        itemCount = min(itemCount, childIndex.size() - positionStart);
+        int removalStart = -1;
+        int removalCount = 0;
+        for (int i = 0; i < itemCount; i++) {
+            Entry entry = childIndex.get(positionStart).mValue;
+            int mergedPosition = mMergedIndex.indexOf(entry.mMergedNode);
+            childIndex.remove(entry.mChildNode);
+            mMergedIndex.remove(entry.mMergedNode);
+            if (removalCount > 0 && mergedPosition != removalStart && mergedPosition != removalStart - 1) {
+                notifyItemRangeRemoved(removalStart, removalCount);
+                removalCount = 0;
+            }
+            if (removalCount <= 0 || mergedPosition < removalStart) {
+                removalStart = mergedPosition;
+            }
+            removalCount++;
+        }
+        if (removalCount > 0) {
+            notifyItemRangeRemoved(removalStart, removalCount);
+        }
+    }
+
+    /**
+     * Moves the entries for the specified changed elements to their new merged positions, if they have them. Entries
+     * are repositioned one at a time, and the others retain their previous elements until their turn, so the index
+     * remains ordered for the binary search.
+     */
+    private void changeIndexRange(int child, int positionStart, int itemCount, @Nullable Object payload) {
+        RankedList<Entry> childIndex = mChildIndexes.get(child);
+        Data<? extends T> data = mDatas.get(child);
+        for (int position = positionStart; position < positionStart + itemCount; position++) {
+            Entry entry = childIndex.get(position).mValue;
+            int mergedPosition = mMergedIndex.indexOf(entry.mMergedNode);
+            entry.mElement = data.get(position);
+            int newMergedPosition = mMergedIndex.reposition(entry.mMergedNode, mEntryComparator);
+            if (newMergedPosition != mergedPosition) {
+                notifyItemMoved(mergedPosition, newMergedPosition);
+            }
+            notifyItemChanged(newMergedPosition, payload);
+        }
+    }
+
+    /** Moves entries within a child, which can only reorder them relative to the equal elements they passed. */
+    private void moveIndexRange(int child, int fromPosition, int toPosition, int itemCount) {
+        RankedList<Entry> childIndex = mChildIndexes.get(child);
+        ArrayList<Entry> entries = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            Entry entry = childIndex.get(fromPosition).mValue;
+            childIndex.remove(entry.mChildNode);
+            entries.add(entry);
+        }
+        for (int i = 0; i < itemCount; i++) {
+            Entry entry = entries.get(i);
+            entry.mChildNode = childIndex.add(toPosition + i, entry);
+        }
+        // Repositioning starting from the far end of the block keeps each binary search valid while the rest are
+        // still out of place.
+        boolean forward = toPosition > fromPosition;
+        for (int i = 0; i < itemCount; i++) {
+            Entry entry = entries.get(forward ? itemCount - 1 - i : i);
+            int mergedPosition = mMergedIndex.indexOf(entry.mMergedNode);
+            int newMergedPosition = mMergedIndex.reposition(entry.mMergedNode, mEntryComparator);
+            if (newMergedPosition != mergedPosition) {
+                notifyItemMoved(mergedPosition, newMergedPosition);
+            }
+        }
+    }
+
+    private int childPosition(@NonNull Entry entry) {
+        return mChildIndexes.get(entry.mChild).indexOf(entry.mChildNode);
+    }
+
+    private final class ChildDataObserver implements PayloadDataObserver {
+
+        private final int mChild;
+
+        ChildDataObserver(int child) {
+            mChild = child;
+        }
+
+        @Override
+        public void onChange() {
+            // Decompose into fine-grained notifications, by removing all of this child's entries then inserting them
+            // again in their new merged positions.
+            removeIndexRange(mChild, 0, Integer.MAX_VALUE);
+            insertIndexRange(mChild, 0, mDatas.get(mChild).size());
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            changeIndexRange(mChild, positionStart, itemCount, null);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, @NonNull Object payload) {
+            changeIndexRange(mChild, positionStart, itemCount, payload);
+        }
+
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            insertIndexRange(mChild, positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            removeIndexRange(mChild, positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            moveIndexRange(mChild, fromPosition, toPosition, itemCount);
+        }
+    }
+
+    /** An element of a child, with the nodes locating it in each index. */
+    private final class Entry {
+
+        final int mChild;
+
+        /** The element as of the last notification, so the index order doesn't change until it's updated. */
+        @NonNull
+        T mElement;
+
+        RankedList.Node<Entry> mChildNode;
+
+        RankedList.Node<Entry> mMergedNode;
+
+        Entry(int child, @NonNull T element) {
+            mChild = child;
+            mElement = element;
+        }
+    }
+}
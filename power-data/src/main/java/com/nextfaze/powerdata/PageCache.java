@@ -0,0 +1,302 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+import com.nextfaze.powerdata.IncrementalArrayData.Result;
+import lombok.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A two-level cache of the increments loaded by an {@link IncrementalArrayData}, keyed by page index or token. The
+ * memory level is an LRU of decoded pages, and the optional disk level holds one file per page, evicting the least
+ * recently written pages once its size cap is exceeded. Entries of either level older than the time-to-live are
+ * ignored. Each instance must be dedicated to a single source of pages. Thread-safe.
+ * @param <T> The type of element in each page.
+ * @see IncrementalArrayData#setPageCache(PageCache)
+ */
+public final class PageCache<T> {
+
+    private static final String TAG = PageCache.class.getSimpleName();
+
+    /** Identifies the page file format, and is bumped whenever the format changes. */
+    private static final int MAGIC = 0x50445003;
+
+    /** The memory level, in access order. Guarded by itself. */
+    @NonNull
+    private final LinkedHashMap<String, Entry<T>> mMemory;
+
+    /** Directory holding the disk level, or {@code null} if there is no disk level. */
+    @Nullable
+    private final File mDirectory;
+
+    @Nullable
+    private final SnapshotFile.Codec<T> mCodec;
+
+    private final long mTimeToLiveMillis;
+
+    private final long mMaxDiskBytes;
+
+    /** Creates a memory-only cache. */
+    public PageCache(int maxMemoryPages, long timeToLiveMillis) {
+        this(maxMemoryPages, timeToLiveMillis, null, null, 0);
+    }
+
+    /**
+     * @param maxMemoryPages The number of pages retained in memory.
+     * @param timeToLiveMillis How long a page may be served after it was loaded.
+     * @param directory Directory dedicated to the disk level, which is created if needed, or {@code null} for none.
+     * @param codec Encodes elements in the disk level. Required if {@code directory} is specified.
+     * @param maxDiskBytes The total size of the page files, beyond which the least recently written are deleted.
+     */
+    public PageCache(int maxMemoryPages,
+                     long timeToLiveMillis,
+                     @Nullable File directory,
+                     @Nullable SnapshotFile.Codec<T> codec,
+                     long maxDiskBytes) {
+        if (maxMemoryPages < 1) {
+            throw new IllegalArgumentException("Max memory pages must be at least 1");
+        }
+        if (timeToLiveMillis < 0 || maxDiskBytes < 0) {
+            throw new IllegalArgumentException("Time to live and max disk bytes must be non-negative");
+        }
+        if (directory != null && codec == null) {
+            throw new IllegalArgumentException("A codec is required for the disk level");
+        }
+        mMemory = new LruMap<>(maxMemoryPages);
+        mDirectory = directory;
+        mCodec = codec;
+        mTimeToLiveMillis = timeToLiveMillis;
+        mMaxDiskBytes = maxDiskBytes;
+    }
+
+    /**
+     * Returns the cached page, consulting the memory level before the disk level, or {@code null} if it isn't cached
+     * or has expired. Pages read from disk are promoted to the memory level.
+     */
+    @WorkerThread
+    @Nullable
+    public Result<T> get(@NonNull String key) {
+        long now = System.currentTimeMillis();
+        Entry<T> entry;
+        synchronized (mMemory) {
+            entry = mMemory.get(key);
+        }
+        if (entry == null) {
+            entry = readFromDisk(key);
+            if (entry == null) {
+                return null;
+            }
+            synchronized (mMemory) {
+                mMemory.put(key, entry);
+            }
+        }
+        if (now - entry.mLoadedTime > mTimeToLiveMillis) {
+            remove(key);
+            return null;
+        }
+        return entry.mResult;
+    }
+
+    /** Stores a loaded page in both levels. */
+    @WorkerThread
+    public void put(@NonNull String key, @NonNull Result<? extends T> result) {
+        List<T> elements = Collections.unmodifiableList(new ArrayList<T>(result.getElements()));
+        Result<T> copy = new Result<T>(elements, result.getRemaining(), result.getNextPageToken());
+        Entry<T> entry = new Entry<>(copy, System.currentTimeMillis());
+        synchronized (mMemory) {
+            mMemory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+
+    /** Removes a page from both levels. */
+    @AnyThread
+    public void remove(@NonNull String key) {
+        synchronized (mMemory) {
+            mMemory.remove(key);
+        }
+        if (mDirectory != null) {
+            //noinspection ResultOfMethodCallIgnored
+            fileFor(key).delete();
+        }
+    }
+
+    /** Removes every page from both levels, so each page is loaded afresh. */
+    @AnyThread
+    public void clear() {
+        synchronized (mMemory) {
+            mMemory.clear();
+        }
+        File[] files = listFiles();
+        for (File file : files) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @Nullable
+    private Entry<T> readFromDisk(@NonNull String key) {
+        if (mDirectory == null || mCodec == null) {
+            return null;
+        }
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a page file");
+                }
+                long loadedTime = in.readLong();
+                int remaining = in.readInt();
+                String nextPageToken = in.readBoolean() ? in.readUTF() : null;
+                int count = in.readInt();
+                ArrayList<T> elements = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    elements.add(mCodec.read(in));
+                }
+                return new Entry<>(new Result<T>(elements, remaining, nextPageToken), loadedTime);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding invalid page file " + file, e);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeToDisk(@NonNull String key, @NonNull Entry<T> entry) {
+        if (mDirectory == null || mCodec == null) {
+            return;
+        }
+        //noinspection ResultOfMethodCallIgnored
+        mDirectory.mkdirs();
+        File file = fileFor(key);
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                List<? extends T> elements = entry.mResult.getElements();
+                out.writeInt(MAGIC);
+                out.writeLong(entry.mLoadedTime);
+                out.writeInt(entry.mResult.getRemaining());
+                String nextPageToken = entry.mResult.getNextPageToken();
+                out.writeBoolean(nextPageToken != null);
+                if (nextPageToken != null) {
+                    out.writeUTF(nextPageToken);
+                }
+                out.writeInt(elements.size());
+                for (T t : elements) {
+                    mCodec.write(out, t);
+                }
+            } finally {
+                out.close();
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Couldn't rename " + tempFile + " to " + file);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing page file " + file, e);
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            return;
+        }
+        trimDisk();
+    }
+
+    /** Deletes the least recently written page files until the disk level is within its size cap. */
+    private void trimDisk() {
+        File[] files = listFiles();
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+        if (size <= mMaxDiskBytes) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long lhs = a.lastModified();
+                long rhs = b.lastModified();
+                return lhs < rhs ? -1 : (lhs == rhs ? 0 : 1);
+            }
+        });
+        for (int i = 0; i < files.length && size > mMaxDiskBytes; i++) {
+            size -= files[i].length();
+            //noinspection ResultOfMethodCallIgnored
+            files[i].delete();
+        }
+    }
+
+    @NonNull
+    private File[] listFiles() {
+        File[] files = mDirectory != null ? mDirectory.listFiles() : null;
+        return files != null ? files : new File[0];
+    }
+
+    /** Maps a key to a file name that is safe on any file system. */
+    @NonNull
+    private File fileFor(@NonNull String key) {
+        StringBuilder name = new StringBuilder("page-");
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-') {
+                name.append(c);
+            } else {
+                name.append('_').append(Integer.toHexString(c)).append('_');
+            }
+        }
+        //noinspection ConstantConditions
+        return new File(mDirectory, name.toString());
+    }
+
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private final int mMaxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            mMaxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > mMaxSize;
+        }
+    }
+
+    private static final class Entry<T> {
+
+        @NonNull
+        final Result<T> mResult;
+
+        final long mLoadedTime;
+
+        Entry(@NonNull Result<T> result, long loadedTime) {
+            mResult = result;
+            mLoadedTime = loadedTime;
+        }
+    }
+}
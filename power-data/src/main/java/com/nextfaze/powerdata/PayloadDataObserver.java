@@ -0,0 +1,15 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+
+/**
+ * A {@link DataObserver} that also receives the optional payload describing a change, such as which part of an element
+ * changed. Changes without a payload are still delivered to {@link #onItemRangeChanged(int, int)}.
+ */
+public interface PayloadDataObserver extends DataObserver {
+    /**
+     * Called instead of {@link #onItemRangeChanged(int, int)} when a change has a payload.
+     * @param payload The payload, which is never {@code null}.
+     */
+    void onItemRangeChanged(int positionStart, int itemCount, @NonNull Object payload);
+}
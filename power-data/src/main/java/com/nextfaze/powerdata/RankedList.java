@@ -0,0 +1,226 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import static java.lang.String.format;
+
+/**
+ * A list of nodes supporting insertion, removal, positional access, and finding the position of a node, each in
+ * {@code O(log n)}. Callers hold on to the nodes of their elements, so an element can be located without a search.
+ * Implemented as a treap ordered by position, with subtree sizes and parent links.
+ * @param <E> The type of value held by each node.
+ */
+final class RankedList<E> {
+
+    @NonNull
+    private static final Random sRandom = new Random();
+
+    @Nullable
+    private Node<E> mRoot;
+
+    /** Results of the last call to {@link #split(Node, int)}. */
+    @Nullable
+    private Node<E> mSplitLeft;
+
+    @Nullable
+    private Node<E> mSplitRight;
+
+    int size() {
+        return size(mRoot);
+    }
+
+    void clear() {
+        mRoot = null;
+    }
+
+    /** Inserts a new node holding {@code value} at the specified position, and returns it. */
+    @NonNull
+    Node<E> add(int position, @NonNull E value) {
+        Node<E> node = new Node<>(value);
+        insert(position, node);
+        return node;
+    }
+
+    /** Removes the specified node, which must belong to this list. */
+    void remove(@NonNull Node<E> node) {
+        Node<E> parent = node.mParent;
+        Node<E> child = merge(node.mLeft, node.mRight);
+        if (parent == null) {
+            mRoot = child;
+        } else if (parent.mLeft == node) {
+            parent.mLeft = child;
+        } else {
+            parent.mRight = child;
+        }
+        if (child != null) {
+            child.mParent = parent;
+        }
+        for (Node<E> ancestor = parent; ancestor != null; ancestor = ancestor.mParent) {
+            ancestor.mSize--;
+        }
+        node.mLeft = null;
+        node.mRight = null;
+        node.mParent = null;
+        node.mSize = 1;
+    }
+
+    /** Returns the node at the specified position. */
+    @NonNull
+    Node<E> get(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException(format("Position %s, size %s", position, size()));
+        }
+        Node<E> node = mRoot;
+        while (true) {
+            //noinspection ConstantConditions
+            int leftSize = size(node.mLeft);
+            if (position < leftSize) {
+                node = node.mLeft;
+            } else if (position > leftSize) {
+                position -= leftSize + 1;
+                node = node.mRight;
+            } else {
+                return node;
+            }
+        }
+    }
+
+    /** Returns the position of the specified node, which must belong to this list. */
+    int indexOf(@NonNull Node<E> node) {
+        int position = size(node.mLeft);
+        for (Node<E> child = node, parent = node.mParent; parent != null; child = parent, parent = parent.mParent) {
+            if (parent.mRight == child) {
+                position += size(parent.mLeft) + 1;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns the first position at which {@code value} could be inserted without violating the order of the list,
+     * which must be ordered according to {@code comparator}.
+     */
+    int insertionPosition(@NonNull E value, @NonNull Comparator<? super E> comparator) {
+        int position = 0;
+        Node<E> node = mRoot;
+        while (node != null) {
+            if (comparator.compare(node.mValue, value) < 0) {
+                position += size(node.mLeft) + 1;
+                node = node.mRight;
+            } else {
+                node = node.mLeft;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Moves the specified node to its position according to {@code comparator}, if it's out of order relative to its
+     * neighbours. The other nodes needn't be ordered among themselves, but those comparing less than this node must all
+     * precede the rest.
+     * @return The position of the node, which is unchanged if it was already in order.
+     */
+    int reposition(@NonNull Node<E> node, @NonNull Comparator<? super E> comparator) {
+        int position = indexOf(node);
+        boolean afterPrevious = position == 0 || comparator.compare(get(position - 1).mValue, node.mValue) < 0;
+        boolean beforeNext = position == size() - 1 ||
+                comparator.compare(get(position + 1).mValue, node.mValue) > 0;
+        if (afterPrevious && beforeNext) {
+            return position;
+        }
+        remove(node);
+        int newPosition = insertionPosition(node.mValue, comparator);
+        insert(newPosition, node);
+        return newPosition;
+    }
+
+    private void insert(int position, @NonNull Node<E> node) {
+        if (position < 0 || position > size()) {
+            throw new IndexOutOfBoundsException(format("Position %s, size %s", position, size()));
+        }
+        split(mRoot, position);
+        Node<E> right = mSplitRight;
+        mRoot = merge(merge(mSplitLeft, node), right);
+        //noinspection ConstantConditions
+        mRoot.mParent = null;
+    }
+
+    /** Splits the subtree into its first {@code count} nodes and the rest, assigning them to the split fields. */
+    private void split(@Nullable Node<E> node, int count) {
+        if (node == null) {
+            mSplitLeft = null;
+            mSplitRight = null;
+        } else if (size(node.mLeft) >= count) {
+            split(node.mLeft, count);
+            node.mLeft = mSplitRight;
+            update(node);
+            mSplitRight = node;
+        } else {
+            split(node.mRight, count - size(node.mLeft) - 1);
+            node.mRight = mSplitLeft;
+            update(node);
+            mSplitLeft = node;
+        }
+    }
+
+    /** Concatenates two subtrees, returning the root of the result. */
+    @Nullable
+    private static <E> Node<E> merge(@Nullable Node<E> left, @Nullable Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.mPriority > right.mPriority) {
+            left.mRight = merge(left.mRight, right);
+            update(left);
+            return left;
+        }
+        right.mLeft = merge(left, right.mLeft);
+        update(right);
+        return right;
+    }
+
+    private static <E> void update(@NonNull Node<E> node) {
+        node.mSize = 1 + size(node.mLeft) + size(node.mRight);
+        if (node.mLeft != null) {
+            node.mLeft.mParent = node;
+        }
+        if (node.mRight != null) {
+            node.mRight.mParent = node;
+        }
+    }
+
+    private static int size(@Nullable Node<?> node) {
+        return node != null ? node.mSize : 0;
+    }
+
+    /** A member of the list. Remains valid while it's moved about, until it's removed. */
+    static final class Node<E> {
+
+        @NonNull
+        final E mValue;
+
+        private final int mPriority = sRandom.nextInt();
+
+        @Nullable
+        private Node<E> mLeft;
+
+        @Nullable
+        private Node<E> mRight;
+
+        @Nullable
+        private Node<E> mParent;
+
+        private int mSize = 1;
+
+        Node(@NonNull E value) {
+            mValue = value;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.nextfaze.powerdata;
+
+import com.android.internal.util.Predicate;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static java.lang.Math.min;
+import static java.lang.Math.pow;
+import static java.lang.Math.round;
+
+/**
+ * Determines whether, and after how long, a failed load is retried. Delays grow exponentially with each consecutive
+ * failure up to a maximum, and are randomly reduced by up to a jitter fraction, so that many clients failing at once
+ * don't retry in lockstep. Errors are only reported to observers once a load is no longer retried. Immutable.
+ */
+@Getter
+@Accessors(prefix = "m")
+public final class RetryPolicy {
+
+    /** Retries only {@link IOException}s, which are typically transient. */
+    @NonNull
+    public static final Predicate<Throwable> IO_EXCEPTIONS = new Predicate<Throwable>() {
+        @Override
+        public boolean apply(Throwable e) {
+            return e instanceof IOException;
+        }
+    };
+
+    @NonNull
+    private static final Random sRandom = new Random();
+
+    /** Never retries. */
+    @NonNull
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+
+    /** Maximum number of attempts, including the first. */
+    private final int mMaxAttempts;
+
+    /** Delay before the first retry. */
+    private final long mInitialDelayMillis;
+
+    /** Upper bound of the delay before any retry. */
+    private final long mMaxDelayMillis;
+
+    /** Factor by which the delay grows with each consecutive failure. */
+    private final double mMultiplier;
+
+    /** Fraction of each delay, between {@code 0} and {@code 1}, by which it may be randomly reduced. */
+    private final double mJitter;
+
+    @NonNull
+    private final Predicate<? super Throwable> mRetryable;
+
+    /** Creates a policy that doubles the delay after each failure, with full jitter, and retries {@link IOException}s. */
+    public RetryPolicy(int maxAttempts, long initialDelayMillis, long maxDelayMillis) {
+        this(maxAttempts, initialDelayMillis, maxDelayMillis, 2, 1, IO_EXCEPTIONS);
+    }
+
+    /**
+     * @param maxAttempts Maximum number of attempts, including the first. Must be at least {@code 1}.
+     * @param initialDelayMillis Delay before the first retry.
+     * @param maxDelayMillis Upper bound of the delay before any retry.
+     * @param multiplier Factor by which the delay grows with each consecutive failure. Must be at least {@code 1}.
+     * @param jitter Fraction of each delay by which it may be randomly reduced, between {@code 0} and {@code 1}.
+     * @param retryable Decides which errors are worth retrying.
+     */
+    public RetryPolicy(int maxAttempts,
+                       long initialDelayMillis,
+                       long maxDelayMillis,
+                       double multiplier,
+                       double jitter,
+                       @NonNull Predicate<? super Throwable> retryable) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be at least 1");
+        }
+        if (initialDelayMillis < 0 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Delays must be non-negative");
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Multiplier must be at least 1");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1");
+        }
+        mMaxAttempts = maxAttempts;
+        mInitialDelayMillis = initialDelayMillis;
+        mMaxDelayMillis = maxDelayMillis;
+        mMultiplier = multiplier;
+        mJitter = jitter;
+        mRetryable = retryable;
+    }
+
+    /**
+     * Indicates if a load should be retried.
+     * @param failedAttempts The number of consecutive failed attempts so far, including this one.
+     * @param e The error that caused the most recent attempt to fail.
+     */
+    public boolean shouldRetry(int failedAttempts, @NonNull Throwable e) {
+        return failedAttempts < mMaxAttempts && mRetryable.apply(e);
+    }
+
+    /**
+     * Returns the delay before the next retry.
+     * @param failedAttempts The number of consecutive failed attempts so far, which must be at least {@code 1}.
+     */
+    public long getDelayMillis(int failedAttempts) {
+        double delay = min(mInitialDelayMillis * pow(mMultiplier, failedAttempts - 1), mMaxDelayMillis);
+        return round(delay * (1 - mJitter * sRandom.nextDouble()));
+    }
+}
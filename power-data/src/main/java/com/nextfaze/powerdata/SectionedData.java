@@ -0,0 +1,317 @@
+package com.nextfaze.powerdata;
+
+import android.widget.SectionIndexer;
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * Groups consecutive elements of the wrapped data into sections by key, presenting the key of each section as a header
+ * element immediately before the section's first element. The section boundaries are updated incrementally from
+ * inner change notifications, and position-to-section lookups are {@code O(log n)}.
+ * <p>
+ * Implements {@link SectionIndexer}, so an adapter presenting this data can support fast scrolling by implementing
+ * {@link SectionIndexer} and delegating to this instance.
+ * </p>
+ */
+public final class SectionedData<T> extends DataWrapper<Object> implements SectionIndexer {
+
+    @NonNull
+    private final Data<? extends T> mData;
+
+    @NonNull
+    private final Function<? super T, ?> mKeyFunction;
+
+    /** Cached key of each inner element, so boundaries can be evaluated against removed or moved elements. */
+    @NonNull
+    private final ArrayList<Object> mKeys = new ArrayList<>();
+
+    /** Sorted inner positions of the first element of each section. */
+    @NonNull
+    private final ArrayList<Integer> mStarts = new ArrayList<>();
+
+    @NonNull
+    private final IndexState mIndexState = new IndexState(this) {
+        @Override
+        void build() {
+            buildCompleteIndex();
+        }
+    };
+
+    SectionedData(@NonNull Data<? extends T> data, @NonNull Function<? super T, ?> keyFunction) {
+        super(data);
+        mData = data;
+        mKeyFunction = keyFunction;
+    }
+
+    /** Returns either a section key, if the position is a header, or an element of the wrapped data. */
+    @NonNull
+    @Override
+    public Object get(int position, int flags) {
+        mIndexState.checkObserving();
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException(format("Position %s, size %s", position, size()));
+        }
+        int section = getSectionForPosition(position);
+        if (headerPosition(section) == position) {
+            return sectionKey(section);
+        }
+        return mData.get(position - section - 1, flags);
+    }
+
+    /**
+     * Headers have no inner element to take an ID from, so stable IDs are only available if an {@link IdFunction}
+     * accepting both headers and elements has been set on this instance.
+     */
+    @Override
+    public boolean hasStableIds() {
+        return getIdFunction() != null;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getIdFunction() != null ? super.getItemId(position) : position;
+    }
+
+    /** Headers map to the first element of their section. */
+    @Override
+    protected int outerToInner(int outerPosition) {
+        mIndexState.checkObserving();
+        int section = getSectionForPosition(outerPosition);
+        if (headerPosition(section) == outerPosition) {
+            return mStarts.get(section);
+        }
+        return outerPosition - section - 1;
+    }
+
+    @Override
+    public int size() {
+        mIndexState.rebuildIfNeeded();
+        return mKeys.size() + mStarts.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() <= 0;
+    }
+
+    /** Indicates if the element at the specified position is a section header. */
+    public boolean isHeader(int position) {
+        mIndexState.rebuildIfNeeded();
+        int section = getSectionForPosition(position);
+        return section >= 0 && headerPosition(section) == position;
+    }
+
+    public int getSectionCount() {
+        mIndexState.rebuildIfNeeded();
+        return mStarts.size();
+    }
+
+    /** Returns the key of each section, in order. */
+    @Override
+    public Object[] getSections() {
+        mIndexState.rebuildIfNeeded();
+        Object[] sections = new Object[mStarts.size()];
+        for (int section = 0; section < sections.length; section++) {
+            sections[section] = sectionKey(section);
+        }
+        return sections;
+    }
+
+    /** Returns the position of the header of the specified section, in {@code O(1)}. */
+    @Override
+    public int getPositionForSection(int section) {
+        mIndexState.rebuildIfNeeded();
+        if (mStarts.isEmpty()) {
+            return 0;
+        }
+        return headerPosition(max(0, min(section, mStarts.size() - 1)));
+    }
+
+    /** Returns the section containing the specified position, in {@code O(log n)}. */
+    @Override
+    public int getSectionForPosition(int position) {
+        mIndexState.rebuildIfNeeded();
+        // Binary search for the last section whose header is at or before the position.
+        int low = 0;
+        int high = mStarts.size() - 1;
+        int section = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (headerPosition(mid) <= position) {
+                section = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return section;
+    }
+
+    @Override
+    public void registerDataObserver(@NonNull DataObserver dataObserver) {
+        super.registerDataObserver(dataObserver);
+        mIndexState.updateObserving();
+    }
+
+    @Override
+    public void unregisterDataObserver(@NonNull DataObserver dataObserver) {
+        super.unregisterDataObserver(dataObserver);
+        mIndexState.updateObserving();
+    }
+
+    @Override
+    protected void forwardChanged() {
+        buildCompleteIndex();
+        notifyDataChanged();
+    }
+
+    @Override
+    protected void forwardItemRangeChanged(int innerPositionStart, int innerItemCount, @Nullable Object payload) {
+        changeIndexRange(innerPositionStart, innerItemCount, payload);
+    }
+
+    @Override
+    protected void forwardItemRangeInserted(int innerPositionStart, int innerItemCount) {
+        insertIndexRange(innerPositionStart, innerItemCount);
+    }
+
+    @Override
+    protected void forwardItemRangeRemoved(int innerPositionStart, int innerItemCount) {
+        removeIndexRange(innerPositionStart, innerItemCount);
+    }
+
+    @Override
+    protected void forwardItemRangeMoved(int innerFromPosition, int innerToPosition, int innerItemCount) {
+        // Section boundaries may be created or destroyed at both ends, so treat as a removal then an insertion.
+        removeIndexRange(innerFromPosition, innerItemCount);
+        insertIndexRange(innerToPosition, innerItemCount);
+    }
+
+    private void buildCompleteIndex() {
+        mKeys.clear();
+        mStarts.clear();
+        int size = mData.size();
+        mKeys.ensureCapacity(size);
+        for (int innerPosition = 0; innerPosition < size; innerPosition++) {
+            mKeys.add(key(innerPosition));
+            if (computeStart(innerPosition)) {
+                mStarts.add(innerPosition);
+            }
+        }
+    }
+
+    private void insertIndexRange(int innerPositionStart, int innerItemCount) {
+        int outerPositionStart = innerPositionStart + startsBefore(innerPositionStart);
+        ArrayList<Object> keys = new ArrayList<>(innerItemCount);
+        for (int innerPosition = innerPositionStart; innerPosition < innerPositionStart + innerItemCount; innerPosition++) {
+            keys.add(key(innerPosition));
+        }
+        mKeys.addAll(innerPositionStart, keys);
+        offsetStarts(innerPositionStart, innerItemCount);
+        int section = startsBefore(innerPositionStart);
+        int headerCount = 0;
+        for (int innerPosition = innerPositionStart; innerPosition < innerPositionStart + innerItemCount; innerPosition++) {
+            if (computeStart(innerPosition)) {
+                mStarts.add(section + headerCount, innerPosition);
+                headerCount++;
+            }
+        }
+        notifyItemRangeInserted(outerPositionStart, innerItemCount + headerCount);
+        // The element following the insertion may have gained or lost its header.
+        updateStart(innerPositionStart + innerItemCount, false);
+    }
+
+    private void removeIndexRange(int innerPositionStart, int innerItemCount) {
+        int innerPositionEnd = innerPositionStart + innerItemCount;
+        int sectionStart = startsBefore(innerPositionStart);
+        int sectionEnd = startsBefore(innerPositionEnd);
+        int outerPositionStart = innerPositionStart + sectionStart;
+        mStarts.subList(sectionStart, sectionEnd).clear();
+        offsetStarts(innerPositionEnd, -innerItemCount);
+        mKeys.subList(innerPositionStart, innerPositionEnd).clear();
+        notifyItemRangeRemoved(outerPositionStart, innerItemCount + sectionEnd - sectionStart);
+        // The element following the removal may have gained or lost its header.
+        updateStart(innerPositionStart, false);
+    }
+
+    private void changeIndexRange(int innerPositionStart, int innerItemCount, @Nullable Object payload) {
+        boolean[] keyChanged = new boolean[innerItemCount];
+        for (int i = 0; i < innerItemCount; i++) {
+            Object key = key(innerPositionStart + i);
+            keyChanged[i] = !key.equals(mKeys.set(innerPositionStart + i, key));
+        }
+        for (int i = 0; i < innerItemCount; i++) {
+            int innerPosition = innerPositionStart + i;
+            updateStart(innerPosition, keyChanged[i]);
+            notifyItemChanged(innerPosition + startsBefore(innerPosition + 1), payload);
+        }
+        // The element following the change may have gained or lost its header.
+        updateStart(innerPositionStart + innerItemCount, false);
+    }
+
+    /** Re-evaluates whether the element at the specified inner position starts a section, notifying of any change. */
+    private void updateStart(int innerPosition, boolean keyChanged) {
+        if (innerPosition >= mKeys.size()) {
+            return;
+        }
+        int section = startsBefore(innerPosition);
+        boolean wasStart = section < mStarts.size() && mStarts.get(section) == innerPosition;
+        boolean isStart = computeStart(innerPosition);
+        int headerPosition = innerPosition + section;
+        if (wasStart && !isStart) {
+            mStarts.remove(section);
+            notifyItemRemoved(headerPosition);
+        } else if (!wasStart && isStart) {
+            mStarts.add(section, innerPosition);
+            notifyItemInserted(headerPosition);
+        } else if (isStart && keyChanged) {
+            notifyItemChanged(headerPosition);
+        }
+    }
+
+    /** Offsets all section starts at or after {@code innerPositionStart}. */
+    private void offsetStarts(int innerPositionStart, int offset) {
+        for (int section = startsBefore(innerPositionStart); section < mStarts.size(); section++) {
+            mStarts.set(section, mStarts.get(section) + offset);
+        }
+    }
+
+    /** Returns the number of sections starting before the specified inner position, using a binary search. */
+    private int startsBefore(int innerPosition) {
+        int low = 0;
+        int high = mStarts.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mStarts.get(mid) < innerPosition) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean computeStart(int innerPosition) {
+        return innerPosition == 0 || !mKeys.get(innerPosition).equals(mKeys.get(innerPosition - 1));
+    }
+
+    private int headerPosition(int section) {
+        return mStarts.get(section) + section;
+    }
+
+    @NonNull
+    private Object sectionKey(int section) {
+        return mKeys.get(mStarts.get(section));
+    }
+
+    @NonNull
+    private Object key(int innerPosition) {
+        return mKeyFunction.apply(mData.get(innerPosition));
+    }
+}
@@ -0,0 +1,20 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.AnyThread;
+import lombok.NonNull;
+
+import java.util.Collection;
+
+/**
+ * Receives elements as they are produced, such as while a response is being parsed, so they can be presented before the
+ * whole data set is available.
+ * @param <T> The type of element.
+ */
+public interface Sink<T> {
+    /**
+     * Emits the next elements, in order. {@code null} elements are ignored.
+     * @throws java.util.concurrent.CancellationException If the operation feeding this sink has been canceled.
+     */
+    @AnyThread
+    void emit(@NonNull Collection<? extends T> elements);
+}
@@ -0,0 +1,232 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import lombok.NonNull;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Presents a window of the wrapped data, starting at {@link #getOffset()} and containing at most {@link #getLimit()}
+ * elements. The window can be moved at any time, in which case only the elements entering or leaving the window are
+ * notified. Inner notifications are translated arithmetically, without an index.
+ */
+public final class SliceData<T> extends DataWrapper<T> {
+
+    @NonNull
+    private final Data<? extends T> mData;
+
+    private int mOffset;
+    private int mLimit;
+
+    SliceData(@NonNull Data<? extends T> data, int offset, int limit) {
+        super(data);
+        mData = data;
+        mOffset = checkOffset(offset);
+        mLimit = checkLimit(limit);
+    }
+
+    @NonNull
+    @Override
+    public T get(int position, int flags) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", size: " + size());
+        }
+        return mData.get(position + mOffset, flags);
+    }
+
+    @Override
+    public int size() {
+        return windowSize(super.size());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() <= 0;
+    }
+
+    @UiThread
+    public int getOffset() {
+        return mOffset;
+    }
+
+    /** Moves the start of the window, notifying only of the elements that enter or leave it. */
+    @UiThread
+    public void setOffset(int offset) {
+        checkOffset(offset);
+        if (offset != mOffset) {
+            int innerSize = super.size();
+            int oldSize = windowSize(innerSize);
+            int delta = offset - mOffset;
+            mOffset = offset;
+            int newSize = windowSize(innerSize);
+            if (delta > 0 && delta < oldSize) {
+                // Window slid forward while still overlapping; leading elements leave, trailing elements enter.
+                notifyItemRangeRemoved(0, delta);
+                int remaining = oldSize - delta;
+                if (newSize > remaining) {
+                    notifyItemRangeInserted(remaining, newSize - remaining);
+                }
+            } else if (delta < 0 && -delta < newSize) {
+                // Window slid backward while still overlapping; leading elements enter, trailing elements leave.
+                notifyItemRangeInserted(0, -delta);
+                int shifted = oldSize - delta;
+                if (shifted > newSize) {
+                    notifyItemRangeRemoved(newSize, shifted - newSize);
+                }
+            } else {
+                // No overlap between the old and new windows.
+                notifyRangeReplaced(oldSize, newSize);
+            }
+        }
+    }
+
+    @UiThread
+    public int getLimit() {
+        return mLimit;
+    }
+
+    /** Changes the maximum size of the window, notifying only of the elements at the end that enter or leave it. */
+    @UiThread
+    public void setLimit(int limit) {
+        checkLimit(limit);
+        if (limit != mLimit) {
+            int innerSize = super.size();
+            int oldSize = windowSize(innerSize);
+            mLimit = limit;
+            int newSize = windowSize(innerSize);
+            if (newSize > oldSize) {
+                notifyItemRangeInserted(oldSize, newSize - oldSize);
+            } else if (newSize < oldSize) {
+                notifyItemRangeRemoved(newSize, oldSize - newSize);
+            }
+        }
+    }
+
+    @Override
+    protected void forwardItemRangeChanged(int innerPositionStart, int innerItemCount, @Nullable Object payload) {
+        int windowSize = size();
+        int start = max(innerPositionStart - mOffset, 0);
+        int end = min(innerPositionStart - mOffset + innerItemCount, windowSize);
+        if (end > start) {
+            notifyItemRangeChanged(start, end - start, payload);
+        }
+    }
+
+    @Override
+    protected void forwardItemRangeInserted(int innerPositionStart, int innerItemCount) {
+        int newInnerSize = super.size();
+        translateInsertion(innerPositionStart, innerItemCount, newInnerSize - innerItemCount, newInnerSize);
+    }
+
+    @Override
+    protected void forwardItemRangeRemoved(int innerPositionStart, int innerItemCount) {
+        int newInnerSize = super.size();
+        translateRemoval(innerPositionStart, innerItemCount, newInnerSize + innerItemCount, newInnerSize);
+    }
+
+    @Override
+    protected void forwardItemRangeMoved(int innerFromPosition, int innerToPosition, int innerItemCount) {
+        int innerSize = super.size();
+        int windowSize = windowSize(innerSize);
+        int lower = min(innerFromPosition, innerToPosition);
+        int upper = max(innerFromPosition, innerToPosition) + innerItemCount;
+        if (lower >= mOffset && upper <= mOffset + windowSize) {
+            // Entirely contained within the window.
+            notifyItemRangeMoved(innerFromPosition - mOffset, innerToPosition - mOffset, innerItemCount);
+        } else if (upper > mOffset && lower < mOffset + windowSize) {
+            // Straddles a window boundary, so treat it as a removal followed by an insertion.
+            // Moves entirely outside the window don't shift any of its elements, so are dropped.
+            int intermediateSize = innerSize - innerItemCount;
+            translateRemoval(innerFromPosition, innerItemCount, innerSize, intermediateSize);
+            translateInsertion(innerToPosition, innerItemCount, intermediateSize, innerSize);
+        }
+    }
+
+    @Override
+    protected int outerToInner(int outerPosition) {
+        return outerPosition + mOffset;
+    }
+
+    @Override
+    protected int innerToOuter(int innerPosition) {
+        return innerPosition - mOffset;
+    }
+
+    private void translateInsertion(int innerPositionStart, int innerItemCount, int oldInnerSize, int newInnerSize) {
+        int oldSize = windowSize(oldInnerSize);
+        int newSize = windowSize(newInnerSize);
+        int position;
+        int inserted;
+        if (innerPositionStart < mOffset) {
+            // Elements preceding the window are pushed into it from the start.
+            position = 0;
+            inserted = min(innerItemCount, newSize);
+        } else {
+            position = innerPositionStart - mOffset;
+            inserted = min(innerItemCount, max(0, mLimit - position));
+        }
+        if (inserted > 0) {
+            notifyItemRangeInserted(position, inserted);
+        }
+        // Elements pushed beyond the end of the window.
+        int overflow = oldSize + inserted - newSize;
+        if (overflow > 0) {
+            notifyItemRangeRemoved(newSize, overflow);
+        }
+    }
+
+    private void translateRemoval(int innerPositionStart, int innerItemCount, int oldInnerSize, int newInnerSize) {
+        int oldSize = windowSize(oldInnerSize);
+        int newSize = windowSize(newInnerSize);
+        int position;
+        int removed;
+        if (innerPositionStart < mOffset) {
+            // Elements at the start of the window are pulled out of it.
+            position = 0;
+            removed = min(innerItemCount, oldSize);
+        } else {
+            position = innerPositionStart - mOffset;
+            removed = max(0, min(innerItemCount, oldSize - position));
+        }
+        if (removed > 0) {
+            notifyItemRangeRemoved(position, removed);
+        }
+        // Elements pulled into the end of the window.
+        int remaining = oldSize - removed;
+        if (newSize > remaining) {
+            notifyItemRangeInserted(remaining, newSize - remaining);
+        }
+    }
+
+    private void notifyRangeReplaced(int oldSize, int newSize) {
+        int changed = min(oldSize, newSize);
+        if (changed > 0) {
+            notifyItemRangeChanged(0, changed);
+        }
+        if (newSize < oldSize) {
+            notifyItemRangeRemoved(newSize, oldSize - newSize);
+        } else if (newSize > oldSize) {
+            notifyItemRangeInserted(oldSize, newSize - oldSize);
+        }
+    }
+
+    private int windowSize(int innerSize) {
+        return max(0, min(innerSize - mOffset, mLimit));
+    }
+
+    private static int checkOffset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must be >= 0: " + offset);
+        }
+        return offset;
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must be >= 0: " + limit);
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,396 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.AnyThread;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+import lombok.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A compact binary snapshot of a list of elements, used by {@link ArrayData} and {@link IncrementalArrayData} to
+ * present the last loaded elements immediately on a cold start while they are revalidated in the background. The file
+ * holds an optional tag, such as the validator of the elements, and an offset table followed by the encoded elements,
+ * so {@link #read()} only maps the file into memory, and each element is decoded the first time it's accessed. Data
+ * restoring a snapshot copies its elements, so they are all decoded then. Saves are performed on a shared background
+ * thread, coalescing saves that arrive while one is in progress, and replace the file atomically. Thread-safe.
+ * @param <T> The type of element in the snapshot.
+ */
+public final class SnapshotFile<T> {
+
+    private static final String TAG = SnapshotFile.class.getSimpleName();
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** Identifies the file format, and is bumped whenever the format changes. */
+    private static final int MAGIC = 0x50445302;
+
+    /** The size of the magic number and tag length, which precede the tag. */
+    private static final int PREAMBLE_SIZE = 8;
+
+    /** Encodes strings in modified UTF-8. */
+    @NonNull
+    public static final Codec<String> STRING_CODEC = new Codec<String>() {
+        @Override
+        public void write(@NonNull DataOutput out, @NonNull String s) throws IOException {
+            out.writeUTF(s);
+        }
+
+        @NonNull
+        @Override
+        public String read(@NonNull DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    @NonNull
+    private static final ExecutorService sExecutor =
+            Executors.newSingleThreadExecutor(new NamedThreadFactory("Snapshot File Thread %d"));
+
+    @NonNull
+    private final File mFile;
+
+    @NonNull
+    private final Codec<T> mCodec;
+
+    /** The most recent snapshot awaiting a save, or {@code null} if no save is pending. */
+    @NonNull
+    private final AtomicReference<PendingSave<T>> mPendingSave = new AtomicReference<>();
+
+    @NonNull
+    private final Runnable mSaveRunnable = new Runnable() {
+        @Override
+        public void run() {
+            PendingSave<T> pendingSave = mPendingSave.getAndSet(null);
+            if (pendingSave == null) {
+                return;
+            }
+            try {
+                write(pendingSave.mElements, pendingSave.mTag);
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing snapshot " + mFile, e);
+            }
+        }
+    };
+
+    public SnapshotFile(@NonNull File file, @NonNull Codec<T> codec) {
+        mFile = file;
+        mCodec = codec;
+    }
+
+    @NonNull
+    public File getFile() {
+        return mFile;
+    }
+
+    /**
+     * Maps the snapshot into memory, returning an unmodifiable list that decodes each element the first time it's
+     * accessed. Returns {@code null} if there is no snapshot, or it isn't valid, in which case it is deleted.
+     * Accessing an element of the list throws an {@link IllegalStateException} if it can't be decoded.
+     */
+    @AnyThread
+    @Nullable
+    public List<T> read() {
+        Snapshot<T> snapshot = readSnapshot();
+        return snapshot != null ? snapshot.mElements : null;
+    }
+
+    /** Reads the elements as for {@link #read()}, along with the tag, from a single mapping of the file. */
+    @AnyThread
+    @Nullable
+    Snapshot<T> readSnapshot() {
+        if (!mFile.exists()) {
+            return null;
+        }
+        try {
+            MappedByteBuffer buffer = map();
+            return new Snapshot<T>(new SnapshotList(buffer), readTag(buffer));
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding invalid snapshot " + mFile, e);
+            delete();
+            return null;
+        }
+    }
+
+    /**
+     * Returns the tag saved with the snapshot, or {@code null} if there is no tag, or no valid snapshot. Only the header
+     * is read.
+     */
+    @AnyThread
+    @Nullable
+    public String readTag() {
+        if (!mFile.exists()) {
+            return null;
+        }
+        try {
+            return readTag(map());
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding invalid snapshot " + mFile, e);
+            delete();
+            return null;
+        }
+    }
+
+    /** Saves a copy of {@code elements} in the background, without a tag. */
+    @AnyThread
+    public void save(@NonNull List<? extends T> elements) {
+        save(elements, null);
+    }
+
+    /**
+     * Saves a copy of {@code elements} and the specified tag in the background, superseding any save that hasn't
+     * started yet. Errors are logged, leaving the previous snapshot in place.
+     */
+    @AnyThread
+    public void save(@NonNull List<? extends T> elements, @Nullable String tag) {
+        if (mPendingSave.getAndSet(new PendingSave<T>(new ArrayList<T>(elements), tag)) == null) {
+            sExecutor.execute(mSaveRunnable);
+        }
+    }
+
+    /** Deletes the snapshot, if present. */
+    @AnyThread
+    public void delete() {
+        //noinspection ResultOfMethodCallIgnored
+        mFile.delete();
+    }
+
+    /** Writes the snapshot synchronously, replacing the file atomically. */
+    @WorkerThread
+    void write(@NonNull List<? extends T> elements, @Nullable String tag) throws IOException {
+        int count = elements.size();
+        int[] offsets = new int[count + 1];
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        for (int i = 0; i < count; i++) {
+            mCodec.write(bodyOut, elements.get(i));
+            offsets[i + 1] = bodyOut.size();
+        }
+        File tempFile = new File(mFile.getPath() + ".tmp");
+        FileOutputStream fileOut = new FileOutputStream(tempFile);
+        try {
+            DataOutputStream out = new DataOutputStream(fileOut);
+            out.writeInt(MAGIC);
+            if (tag != null) {
+                byte[] tagBytes = tag.getBytes(UTF_8);
+                out.writeInt(tagBytes.length);
+                out.write(tagBytes);
+            } else {
+                out.writeInt(-1);
+            }
+            out.writeInt(count);
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            body.writeTo(out);
+            out.flush();
+            fileOut.getFD().sync();
+        } finally {
+            fileOut.close();
+        }
+        if (!tempFile.renameTo(mFile)) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            throw new IOException("Couldn't rename " + tempFile + " to " + mFile);
+        }
+    }
+
+    @NonNull
+    private MappedByteBuffer map() throws IOException {
+        RandomAccessFile file = new RandomAccessFile(mFile, "r");
+        try {
+            // The mapping remains valid after the channel is closed.
+            return file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        } finally {
+            file.close();
+        }
+    }
+
+    /** Returns the length of the tag, or {@code -1} if there is none, after validating the preamble. */
+    private static int tagLength(@NonNull ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < PREAMBLE_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a snapshot");
+        }
+        int tagLength = buffer.getInt(4);
+        if (tagLength < -1 || (long) PREAMBLE_SIZE + tagLength + 4 > buffer.capacity()) {
+            throw new IOException("Invalid tag length");
+        }
+        return tagLength;
+    }
+
+    @Nullable
+    private static String readTag(@NonNull ByteBuffer buffer) throws IOException {
+        int tagLength = tagLength(buffer);
+        if (tagLength == -1) {
+            return null;
+        }
+        byte[] tagBytes = new byte[tagLength];
+        ByteBuffer tagBuffer = buffer.duplicate();
+        tagBuffer.position(PREAMBLE_SIZE);
+        tagBuffer.get(tagBytes);
+        return new String(tagBytes, UTF_8);
+    }
+
+    /** Encodes and decodes elements of a snapshot. Implementations must be thread-safe. */
+    public interface Codec<T> {
+
+        void write(@NonNull DataOutput out, @NonNull T t) throws IOException;
+
+        @NonNull
+        T read(@NonNull DataInput in) throws IOException;
+    }
+
+    /** Decodes elements from the mapped file on demand, retaining them once decoded. */
+    private final class SnapshotList extends AbstractList<T> implements RandomAccess {
+
+        @NonNull
+        private final ByteBuffer mBuffer;
+
+        @NonNull
+        private final Object[] mElements;
+
+        /** The position of the offset table in the buffer. */
+        private final int mOffsetsStart;
+
+        /** The position of the first encoded element in the buffer. */
+        private final int mBodyStart;
+
+        SnapshotList(@NonNull ByteBuffer buffer) throws IOException {
+            int countStart = PREAMBLE_SIZE + max(0, tagLength(buffer));
+            int count = buffer.getInt(countStart);
+            long bodyStart = countStart + 4 + 4L * (count + 1);
+            if (count < 0 || bodyStart > buffer.capacity()) {
+                throw new IOException("Truncated offset table");
+            }
+            mBuffer = buffer;
+            mElements = new Object[count];
+            mOffsetsStart = countStart + 4;
+            mBodyStart = (int) bodyStart;
+            if (mBodyStart + offset(count) > buffer.capacity()) {
+                throw new IOException("Truncated body");
+            }
+        }
+
+        @Override
+        public int size() {
+            return mElements.length;
+        }
+
+        @Override
+        public T get(int index) {
+            synchronized (mElements) {
+                @SuppressWarnings("unchecked")
+                T t = (T) mElements[index];
+                if (t == null) {
+                    t = decode(index);
+                    mElements[index] = t;
+                }
+                return t;
+            }
+        }
+
+        @NonNull
+        private T decode(int index) {
+            int start = offset(index);
+            int end = offset(index + 1);
+            if (start < 0 || end < start || mBodyStart + end > mBuffer.capacity()) {
+                throw new IllegalStateException("Invalid offset for element " + index + " of " + mFile);
+            }
+            ByteBuffer buffer = mBuffer.duplicate();
+            buffer.limit(mBodyStart + end);
+            buffer.position(mBodyStart + start);
+            try {
+                return mCodec.read(new DataInputStream(new ByteBufferInputStream(buffer)));
+            } catch (IOException e) {
+                throw new IllegalStateException("Error decoding element " + index + " of " + mFile, e);
+            }
+        }
+
+        private int offset(int index) {
+            return mBuffer.getInt(mOffsetsStart + 4 * index);
+        }
+    }
+
+    /** The elements of a snapshot, and the tag saved with them. */
+    static final class Snapshot<T> {
+
+        @NonNull
+        final List<T> mElements;
+
+        @Nullable
+        final String mTag;
+
+        Snapshot(@NonNull List<T> elements, @Nullable String tag) {
+            mElements = elements;
+            mTag = tag;
+        }
+    }
+
+    private static final class PendingSave<T> {
+
+        @NonNull
+        final List<T> mElements;
+
+        @Nullable
+        final String mTag;
+
+        PendingSave(@NonNull List<T> elements, @Nullable String tag) {
+            mElements = elements;
+            mTag = tag;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        @NonNull
+        private final ByteBuffer mBuffer;
+
+        ByteBufferInputStream(@NonNull ByteBuffer buffer) {
+            mBuffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return mBuffer.hasRemaining() ? mBuffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(@NonNull byte[] bytes, int offset, int length) {
+            if (!mBuffer.hasRemaining()) {
+                return -1;
+            }
+            int count = min(length, mBuffer.remaining());
+            mBuffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return mBuffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+import static java.lang.String.format;
+
+/**
+ * Maintains a sorted permutation index into the wrapped data instance. The index is built once, then updated
+ * incrementally from inner change notifications, in {@code O(log n)} per affected element. Elements that compare equal
+ * are ordered by inner position, so they retain their relative inner order.
+ */
+final class SortedData<T> extends DataWrapper<T> {
+
+    @NonNull
+    private final Data<? extends T> mData;
+
+    @NonNull
+    private final Comparator<? super T> mComparator;
+
+    /** The elements in inner order. */
+    @NonNull
+    private final RankedList<Item> mInnerIndex = new RankedList<>();
+
+    /** The elements in sorted order. */
+    @NonNull
+    private final RankedList<Item> mSortedIndex = new RankedList<>();
+
+    @NonNull
+    private final Comparator<Item> mItemComparator = new Comparator<Item>() {
+        @Override
+        public int compare(Item a, Item b) {
+            int result = mComparator.compare(a.mElement, b.mElement);
+            if (result != 0) {
+                return result;
+            }
+            int innerPositionA = mInnerIndex.indexOf(a.mInnerNode);
+            int innerPositionB = mInnerIndex.indexOf(b.mInnerNode);
+            return innerPositionA < innerPositionB ? -1 : (innerPositionA == innerPositionB ? 0 : 1);
+        }
+    };
+
+    @NonNull
+    private final IndexState mIndexState = new IndexState(this) {
+        @Override
+        void build() {
+            buildCompleteIndex();
+        }
+    };
+
+    SortedData(@NonNull Data<? extends T> data, @NonNull Comparator<? super T> comparator) {
+        super(data);
+        mData = data;
+        mComparator = comparator;
+    }
+
+    @NonNull
+    @Override
+    public T get(int position, int flags) {
+        mIndexState.checkObserving();
+        if (position < 0 || position >= mSortedIndex.size()) {
+            throw new IndexOutOfBoundsException(format("Position %s, size %s", position, mSortedIndex.size()));
+        }
+        return mData.get(innerPosition(position), flags);
+    }
+
+    @Override
+    protected int outerToInner(int outerPosition) {
+        mIndexState.checkObserving();
+        return innerPosition(outerPosition);
+    }
+
+    @Override
+    public int size() {
+        mIndexState.rebuildIfNeeded();
+        return mSortedIndex.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() <= 0;
+    }
+
+    @Override
+    public void registerDataObserver(@NonNull DataObserver dataObserver) {
+        super.registerDataObserver(dataObserver);
+        mIndexState.updateObserving();
+    }
+
+    @Override
+    public void unregisterDataObserver(@NonNull DataObserver dataObserver) {
+        super.unregisterDataObserver(dataObserver);
+        mIndexState.updateObserving();
+    }
+
+    @Override
+    protected void forwardChanged() {
+        buildCompleteIndex();
+        notifyDataChanged();
+    }
+
+    @Override
+    protected void forwardItemRangeChanged(int innerPositionStart, int innerItemCount, @Nullable Object payload) {
+        // Reposition one element at a time. The others retain their previous elements until their turn, so the index
+        // remains ordered for the binary search.
+        for (int innerPosition = innerPositionStart; innerPosition < innerPositionStart + innerItemCount; innerPosition++) {
+            Item item = mInnerIndex.get(innerPosition).mValue;
+            int outerPosition = mSortedIndex.indexOf(item.mSortedNode);
+            item.mElement = mData.get(innerPosition);
+            int newOuterPosition = mSortedIndex.reposition(item.mSortedNode, mItemComparator);
+            if (newOuterPosition != outerPosition) {
+                notifyItemMoved(outerPosition, newOuterPosition);
+            }
+            notifyItemChanged(newOuterPosition, payload);
+        }
+    }
+
+    @Override
+    protected void forwardItemRangeInserted(int innerPositionStart, int innerItemCount) {
+        insertIndexRange(innerPositionStart, innerItemCount);
+    }
+
+    @Override
+    protected void forwardItemRangeRemoved(int innerPositionStart, int innerItemCount) {
+        removeIndexRange(innerPositionStart, innerItemCount);
+    }
+
+    @Override
+    protected void forwardItemRangeMoved(int innerFromPosition, int innerToPosition, int innerItemCount) {
+        // Inner moves don't affect the comparator order, so only equal elements may need reordering.
+        ArrayList<Item> items = new ArrayList<>(innerItemCount);
+        for (int i = 0; i < innerItemCount; i++) {
+            Item item = mInnerIndex.get(innerFromPosition).mValue;
+            mInnerIndex.remove(item.mInnerNode);
+            items.add(item);
+        }
+        for (int i = 0; i < innerItemCount; i++) {
+            Item item = items.get(i);
+            item.mInnerNode = mInnerIndex.add(innerToPosition + i, item);
+        }
+        // The moved elements now precede or follow the equal elements they passed. Repositioning them starting from
+        // the far end of the block keeps each binary search valid while the rest are still out of place.
+        boolean forward = innerToPosition > innerFromPosition;
+        for (int i = 0; i < innerItemCount; i++) {
+            Item item = items.get(forward ? innerItemCount - 1 - i : i);
+            int outerPosition = mSortedIndex.indexOf(item.mSortedNode);
+            int newOuterPosition = mSortedIndex.reposition(item.mSortedNode, mItemComparator);
+            if (newOuterPosition != outerPosition) {
+                notifyItemMoved(outerPosition, newOuterPosition);
+            }
+        }
+    }
+
+    private void buildCompleteIndex() {
+        mInnerIndex.clear();
+        mSortedIndex.clear();
+        int size = mData.size();
+        ArrayList<Item> items = new ArrayList<>(size);
+        for (int innerPosition = 0; innerPosition < size; innerPosition++) {
+            Item item = new Item(mData.get(innerPosition));
+            item.mInnerNode = mInnerIndex.add(innerPosition, item);
+            items.add(item);
+        }
+        // Stable sort, so equal elements remain ordered by inner position.
+        Collections.sort(items, mItemComparator);
+        for (int outerPosition = 0; outerPosition < size; outerPosition++) {
+            Item item = items.get(outerPosition);
+            item.mSortedNode = mSortedIndex.add(outerPosition, item);
+        }
+    }
+
+    /** Inserts elements, coalescing insertions at adjacent outer positions into range notifications. */
+    private void insertIndexRange(int innerPositionStart, int innerItemCount) {
+        int insertionStart = -1;
+        int insertionCount = 0;
+        for (int innerPosition = innerPositionStart; innerPosition < innerPositionStart + innerItemCount; innerPosition++) {
+            Item item = new Item(mData.get(innerPosition));
+            item.mInnerNode = mInnerIndex.add(innerPosition, item);
+            int outerPosition = mSortedIndex.insertionPosition(item, mItemComparator);
+            if (insertionCount > 0 && (outerPosition < insertionStart || outerPosition > insertionStart + insertionCount)) {
+                notifyItemRangeInserted(insertionStart, insertionCount);
+                insertionCount = 0;
+            }
+            if (insertionCount <= 0) {
+                insertionStart = outerPosition;
+            }
+            item.mSortedNode = mSortedIndex.add(outerPosition, item);
+            insertionCount++;
+        }
+        if (insertionCount > 0) {
+            notifyItemRangeInserted(insertionStart, insertionCount);
+        }
+    }
+
+    /** Removes elements, coalescing removals at adjacent outer positions into range notifications. */
+    private void removeIndexRange(int innerPositionStart, int innerItemCount) {
+        int removalStart = -1;
+        int removalCount = 0;
+        for (int i = 0; i < innerItemCount; i++) {
+            Item item = mInnerIndex.get(innerPositionStart).mValue;
+            int outerPosition = mSortedIndex.indexOf(item.mSortedNode);
+            mInnerIndex.remove(item.mInnerNode);
+            mSortedIndex.remove(item.mSortedNode);
+            if (removalCount > 0 && outerPosition != removalStart && outerPosition != removalStart - 1) {
+                notifyItemRangeRemoved(removalStart, removalCount);
+                removalCount = 0;
+            }
+            if (removalCount <= 0 || outerPosition < removalStart) {
+                removalStart = outerPosition;
+            }
+            removalCount++;
+        }
+        if (removalCount > 0) {
+            notifyItemRangeRemoved(removalStart, removalCount);
+        }
+    }
+
+    private int innerPosition(int outerPosition) {
+        return mInnerIndex.indexOf(mSortedIndex.get(outerPosition).mValue.mInnerNode);
+    }
+
+    /** An inner element, with the nodes locating it in each index. */
+    private final class Item {
+
+        /** The element as of the last notification, so the index order doesn't change until it's updated. */
+        @NonNull
+        T mElement;
+
+        RankedList.Node<Item> mInnerNode;
+
+        RankedList.Node<Item> mSortedNode;
+
+        Item(@NonNull T element) {
+            mElement = element;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.nextfaze.powerdata;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.experimental.Accessors;
+
+import static java.lang.Math.max;
+
+/**
+ * Describes the range of positions currently visible in a view presenting a {@link Data} instance, along with the
+ * direction and speed at which that range is moving. Data implementations use this to decide what to load next.
+ * @see Data#setViewport(Viewport)
+ */
+@Getter
+@EqualsAndHashCode(doNotUseGetters = true)
+@Accessors(prefix = "m")
+public final class Viewport {
+
+    /** A viewport in which nothing is visible. */
+    @NonNull
+    public static final Viewport EMPTY = new Viewport(-1, -1, Direction.NONE, 0);
+
+    /** The first visible position, inclusive, or {@code -1} if nothing is visible. */
+    private final int mFirstPosition;
+
+    /** The last visible position, inclusive, or {@code -1} if nothing is visible. */
+    private final int mLastPosition;
+
+    /** The direction in which the visible range is moving. */
+    @NonNull
+    private final Direction mDirection;
+
+    /** The speed at which the visible range is moving, in positions per second. Always {@code >= 0}. */
+    private final float mVelocity;
+
+    public Viewport(int firstPosition, int lastPosition, @NonNull Direction direction, float velocity) {
+        if (firstPosition < 0 || lastPosition < firstPosition) {
+            firstPosition = -1;
+            lastPosition = -1;
+        }
+        mFirstPosition = firstPosition;
+        mLastPosition = lastPosition;
+        mDirection = direction;
+        mVelocity = max(0, velocity);
+    }
+
+    /** Indicates if no positions are visible. */
+    public boolean isEmpty() {
+        return mFirstPosition < 0;
+    }
+
+    /** Returns the number of visible positions. */
+    public int getItemCount() {
+        return isEmpty() ? 0 : mLastPosition - mFirstPosition + 1;
+    }
+
+    /** Returns a viewport covering a different range, but moving in the same direction at the same speed. */
+    @NonNull
+    public Viewport withRange(int firstPosition, int lastPosition) {
+        return new Viewport(firstPosition, lastPosition, mDirection, mVelocity);
+    }
+
+    @Override
+    public String toString() {
+        return "Viewport [" + mFirstPosition + ", " + mLastPosition + "] " + mDirection + " " + mVelocity + "/s";
+    }
+
+    /** The direction of travel through the data. */
+    public enum Direction {
+        /** Towards higher positions. */
+        FORWARD,
+        /** Towards lower positions. */
+        BACKWARD,
+        /** Stationary. */
+        NONE
+    }
+}
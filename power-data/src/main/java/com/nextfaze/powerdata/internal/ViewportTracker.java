@@ -0,0 +1,66 @@
+package com.nextfaze.powerdata.internal;
+
+import android.os.SystemClock;
+import android.support.annotation.UiThread;
+import com.nextfaze.powerdata.Data;
+import com.nextfaze.powerdata.Viewport;
+import lombok.NonNull;
+
+import static java.lang.Math.abs;
+
+/**
+ * Derives a {@link Viewport} from successive visible ranges reported by a scrolling view, and forwards it to a
+ * {@link Data} instance. Direction and velocity are estimated from how far the range moved since it was last reported.
+ */
+public final class ViewportTracker {
+
+    @NonNull
+    private final Data<?> mData;
+
+    private int mFirstPosition = -1;
+    private int mLastPosition = -1;
+    private long mUpdateTime;
+
+    @NonNull
+    private Viewport.Direction mDirection = Viewport.Direction.NONE;
+
+    private float mVelocity;
+
+    public ViewportTracker(@NonNull Data<?> data) {
+        mData = data;
+    }
+
+    /** Reports the currently visible range, inclusive. A negative first position indicates nothing is visible. */
+    @UiThread
+    public void onVisibleRangeChanged(int firstPosition, int lastPosition) {
+        if (firstPosition == mFirstPosition && lastPosition == mLastPosition) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (mFirstPosition >= 0 && firstPosition >= 0) {
+            // Track the leading edge in the direction of travel.
+            int delta = firstPosition != mFirstPosition ? firstPosition - mFirstPosition : lastPosition - mLastPosition;
+            long elapsed = now - mUpdateTime;
+            if (delta != 0) {
+                mDirection = delta > 0 ? Viewport.Direction.FORWARD : Viewport.Direction.BACKWARD;
+                mVelocity = elapsed > 0 ? abs(delta) * 1000f / elapsed : mVelocity;
+            }
+        }
+        mFirstPosition = firstPosition;
+        mLastPosition = lastPosition;
+        mUpdateTime = now;
+        dispatch();
+    }
+
+    /** Reports that scrolling has stopped. */
+    @UiThread
+    public void onIdle() {
+        mDirection = Viewport.Direction.NONE;
+        mVelocity = 0;
+        dispatch();
+    }
+
+    private void dispatch() {
+        mData.setViewport(new Viewport(mFirstPosition, mLastPosition, mDirection, mVelocity));
+    }
+}
@@ -574,7 +574,10 @@ public class DataLayout extends RelativeLayout {
         }
     }
 
-    /** Indicates if this view is visible. The {@link Data} instances are observed while visible. */
+    /**
+     * Indicates if this view is visible. The {@link Data} instances are observed while visible, which also causes their
+     * loads to be prioritized by the {@link com.nextfaze.powerdata.LoadScheduler}.
+     */
     public final boolean isVisible() {
         return mVisible;
     }
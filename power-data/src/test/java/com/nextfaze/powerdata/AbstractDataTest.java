@@ -46,6 +46,12 @@ public final class AbstractDataTest {
         assertThat(mData.available()).isEqualTo(Data.UNKNOWN);
     }
 
+    @Test
+    public void itemIdDefaultPosition() {
+        assertThat(mData.hasStableIds()).isFalse();
+        assertThat(mData.getItemId(3)).isEqualTo(3);
+    }
+
     @Test
     public void emptyDefaultBasedOnSize() {
         assertThat(mData.isEmpty()).isTrue();
@@ -243,4 +249,13 @@ public final class AbstractDataTest {
         when(mData.get(eq(2), anyInt())).thenReturn("c");
         assertThat(mData).containsExactly("a", "b", "c").inOrder();
     }
+
+    @Test
+    public void viewportChangeNotifiedOnlyWhenDifferent() {
+        Viewport viewport = new Viewport(2, 5, Viewport.Direction.FORWARD, 10);
+        mData.setViewport(viewport);
+        mData.setViewport(new Viewport(2, 5, Viewport.Direction.FORWARD, 10));
+        assertThat(mData.getViewport()).isEqualTo(viewport);
+        verify(mData).onViewportChanged(viewport);
+    }
 }
@@ -0,0 +1,152 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Collections.addAll;
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class ArrayDataTest {
+
+    private ArrayData<String> mData;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new KeyedArrayData();
+        addAll(mData, "a1", "b1", "c1", "d1");
+    }
+
+    @Test
+    public void indexOfKeyFindsElement() {
+        assertEquals(2, mData.indexOfKey("c"));
+        assertTrue(mData.containsKey("a"));
+        assertFalse(mData.containsKey("z"));
+    }
+
+    @Test
+    public void indexOfKeyAfterAppend() {
+        mData.addAll(newArrayList("e1", "f1"));
+        assertEquals(5, mData.indexOfKey("f"));
+    }
+
+    @Test
+    public void indexOfKeyAfterInsertion() {
+        mData.add(1, "z1");
+        assertEquals(0, mData.indexOfKey("a"));
+        assertEquals(1, mData.indexOfKey("z"));
+        assertEquals(4, mData.indexOfKey("d"));
+    }
+
+    @Test
+    public void indexOfKeyAfterRemoval() {
+        mData.remove(1);
+        assertEquals(-1, mData.indexOfKey("b"));
+        assertEquals(1, mData.indexOfKey("c"));
+        assertEquals(2, mData.indexOfKey("d"));
+    }
+
+    @Test
+    public void indexOfRequiresEqualElement() {
+        assertEquals(1, mData.indexOf("b1"));
+        assertEquals(-1, mData.indexOf("b2"));
+        assertTrue(mData.contains("d1"));
+        assertFalse(mData.contains("d2"));
+    }
+
+    @Test
+    public void indexOfOtherTypeNotFound() {
+        Object other = 1;
+        assertEquals(-1, mData.indexOf(other));
+        assertFalse(mData.contains(other));
+        assertFalse(mData.remove(other));
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void keyFunctionExceptionPropagates() {
+        new ArrayData<String>(String.class, new Function<String, Object>() {
+            @NonNull
+            @Override
+            public Object apply(@NonNull String s) {
+                throw new ClassCastException();
+            }
+        }) {
+            @NonNull
+            @Override
+            protected List<? extends String> load(@NonNull CancellationToken cancellationToken) {
+                return Collections.emptyList();
+            }
+        }.indexOf("a");
+    }
+
+    @Test
+    public void updateByKeyReplacesElement() {
+        assertTrue(mData.updateByKey("c2"));
+        assertFalse(mData.updateByKey("z1"));
+        assertThat(mData).containsExactly("a1", "b1", "c2", "d1").inOrder();
+        assertEquals(2, mData.indexOf("c2"));
+    }
+
+    @Test
+    public void removeByKeyRemovesElement() {
+        assertEquals("b1", mData.removeByKey("b"));
+        assertNull(mData.removeByKey("b"));
+        assertThat(mData).containsExactly("a1", "c1", "d1").inOrder();
+        assertEquals(2, mData.indexOfKey("d"));
+    }
+
+    @Test
+    public void removeObjectUsesIndex() {
+        assertTrue(mData.remove((Object) "c1"));
+        assertFalse(mData.remove((Object) "c1"));
+        assertThat(mData).containsExactly("a1", "b1", "d1").inOrder();
+    }
+
+    @Test
+    public void indexRebuiltAfterBulkRemoval() {
+        mData.removeAll(newArrayList("a1", "c1"));
+        assertEquals(0, mData.indexOfKey("b"));
+        assertEquals(1, mData.indexOfKey("d"));
+        assertEquals(-1, mData.indexOfKey("a"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void indexOfKeyWithoutKeyFunctionThrows() {
+        new ArrayData<String>() {
+            @NonNull
+            @Override
+            protected List<? extends String> load(@NonNull CancellationToken cancellationToken) {
+                return Collections.emptyList();
+            }
+        }.indexOfKey("a");
+    }
+
+    private static final class KeyedArrayData extends ArrayData<String> {
+
+        KeyedArrayData() {
+            super(String.class, new Function<String, Object>() {
+                @NonNull
+                @Override
+                public Object apply(@NonNull String s) {
+                    return s.substring(0, 1);
+                }
+            });
+        }
+
+        @NonNull
+        @Override
+        protected List<? extends String> load(@NonNull CancellationToken cancellationToken) {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.nextfaze.powerdata;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class CancellationTokenTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    private CancellationToken mCancellationToken;
+
+    @Mock
+    private Runnable mCallback;
+
+    @Before
+    public void setUp() throws Exception {
+        mCancellationToken = new CancellationToken();
+    }
+
+    @Test
+    public void notCanceledInitially() {
+        assertFalse(mCancellationToken.isCanceled());
+        mCancellationToken.throwIfCanceled();
+    }
+
+    @Test(expected = CancellationException.class)
+    public void throwIfCanceledThrowsOnceCanceled() {
+        mCancellationToken.cancel();
+        assertTrue(mCancellationToken.isCanceled());
+        mCancellationToken.throwIfCanceled();
+    }
+
+    @Test
+    public void callbackRunOnceWhenCanceled() {
+        mCancellationToken.registerCallback(mCallback);
+        verifyZeroInteractions(mCallback);
+        mCancellationToken.cancel();
+        mCancellationToken.cancel();
+        verify(mCallback).run();
+        verifyNoMoreInteractions(mCallback);
+    }
+
+    @Test
+    public void callbackRunImmediatelyIfAlreadyCanceled() {
+        mCancellationToken.cancel();
+        mCancellationToken.registerCallback(mCallback);
+        verify(mCallback).run();
+    }
+
+    @Test
+    public void unregisteredCallbackNotRun() {
+        mCancellationToken.registerCallback(mCallback);
+        mCancellationToken.unregisterCallback(mCallback);
+        mCancellationToken.cancel();
+        verifyZeroInteractions(mCallback);
+    }
+}
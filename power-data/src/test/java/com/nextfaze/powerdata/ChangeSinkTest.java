@@ -0,0 +1,128 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Collections.addAll;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class ChangeSinkTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    private KeyedArrayData mData;
+
+    private ChangeSink<String> mChangeSink;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new KeyedArrayData();
+        addAll(mData, "a1", "b1", "c1");
+        mChangeSink = mData.getChangeSink();
+        mData.registerDataObserver(mDataObserver);
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @Test
+    public void changesDeferredUntilFrame() {
+        mChangeSink.upsert("b2");
+        assertThat(mData).containsExactly("a1", "b1", "c1").inOrder();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("a1", "b2", "c1").inOrder();
+        verify(mDataObserver).onItemRangeChanged(1, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void burstMergedIntoRangeNotifications() {
+        for (int i = 2; i < 100; i++) {
+            mChangeSink.upsert("a" + i);
+            mChangeSink.upsert("b" + i);
+        }
+        mChangeSink.upsert("d1");
+        mChangeSink.upsert("e1");
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("a99", "b99", "c1", "d1", "e1").inOrder();
+        verify(mDataObserver).onItemRangeChanged(0, 2);
+        verify(mDataObserver).onItemRangeInserted(3, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void lastChangeToKeyWins() {
+        mChangeSink.upsert("b2");
+        mChangeSink.delete("b");
+        mChangeSink.delete("c");
+        mChangeSink.upsert("c2");
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("a1", "c2").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(1, 1);
+        verify(mDataObserver).onItemRangeChanged(1, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changesPushedFromBackgroundThreads() throws Exception {
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int thread = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 100; j++) {
+                        mChangeSink.upsert("t" + thread + "-" + j);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).hasSize(7);
+    }
+
+    private static final class KeyedArrayData extends ArrayData<String> {
+
+        KeyedArrayData() {
+            super(String.class, new Function<String, Object>() {
+                @NonNull
+                @Override
+                public Object apply(@NonNull String s) {
+                    return s.substring(0, s.indexOf('-') != -1 ? s.indexOf('-') : 1);
+                }
+            });
+        }
+
+        /** Never completes, so loading doesn't replace the pushed changes. */
+        @Override
+        protected void loadAsync(@NonNull LoadCallback<? super String> callback,
+                                 @NonNull CancellationToken cancellationToken) {
+        }
+
+        @NonNull
+        @Override
+        protected List<? extends String> load(@NonNull CancellationToken cancellationToken) {
+            throw new AssertionError("Loads are asynchronous");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.nextfaze.powerdata;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Collections.addAll;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class ConcatDataTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    private FakeData<String> mFirst;
+    private FakeData<String> mEmpty;
+    private FakeData<String> mSecond;
+    private Data<String> mConcatData;
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    @Mock
+    private LoadingObserver mLoadingObserver;
+
+    @Mock
+    private ErrorObserver mErrorObserver;
+
+    @Before
+    public void setUp() throws Exception {
+        mFirst = new FakeData<>();
+        mEmpty = new FakeData<>();
+        mSecond = new FakeData<>();
+        addAll(mFirst, "a", "b", "c");
+        addAll(mSecond, "x", "y");
+        mConcatData = Datas.concat(mFirst, mEmpty, mSecond);
+        mConcatData.registerDataObserver(mDataObserver);
+        mConcatData.registerLoadingObserver(mLoadingObserver);
+        mConcatData.registerErrorObserver(mErrorObserver);
+    }
+
+    @Test
+    public void elementsConcatenated() {
+        assertThat(mConcatData).containsExactly("a", "b", "c", "x", "y").inOrder();
+    }
+
+    @Test
+    public void elementsConcatenatedWithoutObservers() {
+        Data<String> data = Datas.concat(mFirst, mEmpty, mSecond);
+        assertThat(data).containsExactly("a", "b", "c", "x", "y").inOrder();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfBoundsThrows() {
+        mConcatData.get(5);
+    }
+
+    @Test
+    public void insertionShiftedByPrecedingSizes() {
+        mSecond.add(1, "z");
+        assertThat(mConcatData).containsExactly("a", "b", "c", "x", "z", "y").inOrder();
+        verify(mDataObserver).onItemRangeInserted(4, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertionIntoEmptyChild() {
+        mEmpty.addAll(newArrayList("m", "n"));
+        assertThat(mConcatData).containsExactly("a", "b", "c", "m", "n", "x", "y").inOrder();
+        verify(mDataObserver).onItemRangeInserted(3, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removalShiftedByPrecedingSizes() {
+        mSecond.remove("x");
+        assertThat(mConcatData).containsExactly("a", "b", "c", "y").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(3, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeShiftedByPrecedingSizes() {
+        mSecond.set(1, "w");
+        verify(mDataObserver).onItemRangeChanged(4, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changePayloadShiftedByPrecedingSizes() {
+        PayloadDataObserver payloadDataObserver = mock(PayloadDataObserver.class);
+        mConcatData.registerDataObserver(payloadDataObserver);
+        Object payload = new Object();
+        mSecond.notifyItemRangeChanged(1, 1, payload);
+        verify(payloadDataObserver).onItemRangeChanged(4, 1, payload);
+        verifyNoMoreInteractions(payloadDataObserver);
+    }
+
+    @Test
+    public void moveShiftedByPrecedingSizes() {
+        mSecond.move(0, 1, 1);
+        assertThat(mConcatData).containsExactly("a", "b", "c", "y", "x").inOrder();
+        verify(mDataObserver).onItemRangeMoved(3, 4, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void coarseGrainedChangeConfinedToChild() {
+        mFirst.setNotificationsEnabled(false);
+        mFirst.add("d");
+        mFirst.notifyDataChanged();
+        assertThat(mConcatData).containsExactly("a", "b", "c", "d", "x", "y").inOrder();
+        verify(mDataObserver).onItemRangeChanged(0, 3);
+        verify(mDataObserver).onItemRangeInserted(3, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void loadingIfAnyChildLoading() {
+        mSecond.setLoading(true);
+        assertTrue(mConcatData.isLoading());
+        mFirst.setLoading(true);
+        mSecond.setLoading(false);
+        assertTrue(mConcatData.isLoading());
+        mFirst.setLoading(false);
+        assertFalse(mConcatData.isLoading());
+        verify(mLoadingObserver, times(2)).onLoadingChange();
+        verifyNoMoreInteractions(mLoadingObserver);
+    }
+
+    @Test
+    public void errorsPropagated() {
+        RuntimeException exception = new RuntimeException();
+        mSecond.notifyError(exception);
+        verify(mErrorObserver).onError(exception);
+        verifyNoMoreInteractions(mErrorObserver);
+    }
+
+    @Test
+    public void viewportSplitAcrossChildren() {
+        mConcatData.setViewport(new Viewport(2, 3, Viewport.Direction.FORWARD, 1));
+        assertThat(mFirst.getViewport()).isEqualTo(new Viewport(2, 2, Viewport.Direction.FORWARD, 1));
+        assertThat(mEmpty.getViewport().isEmpty()).isTrue();
+        assertThat(mSecond.getViewport()).isEqualTo(new Viewport(0, 0, Viewport.Direction.FORWARD, 1));
+    }
+}
@@ -0,0 +1,91 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.Closeable;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class DataRegistryTest {
+
+    private DataRegistry mRegistry;
+
+    private int mCreatedCount;
+
+    @Before
+    public void setUp() throws Exception {
+        mRegistry = new DataRegistry();
+    }
+
+    @Test
+    public void sameKeySharesInstance() {
+        ClosableData first = mRegistry.acquire("feed", factory());
+        ClosableData second = mRegistry.acquire("feed", factory());
+        assertSame(first, second);
+        assertEquals(1, mCreatedCount);
+        assertEquals(2, mRegistry.getReferenceCount("feed"));
+    }
+
+    @Test
+    public void differentKeysCreateSeparateInstances() {
+        ClosableData first = mRegistry.acquire("feed", factory());
+        ClosableData second = mRegistry.acquire("news", factory());
+        assertNotSame(first, second);
+        assertEquals(2, mCreatedCount);
+    }
+
+    @Test
+    public void closedWhenLastReferenceReleased() {
+        ClosableData data = mRegistry.acquire("feed", factory());
+        mRegistry.acquire("feed", factory());
+        mRegistry.release(data);
+        assertFalse(data.mClosed);
+        mRegistry.release(data);
+        assertTrue(data.mClosed);
+        assertEquals(0, mRegistry.getReferenceCount("feed"));
+    }
+
+    @Test
+    public void acquireAfterFullReleaseCreatesNewInstance() {
+        ClosableData first = mRegistry.acquire("feed", factory());
+        mRegistry.release(first);
+        ClosableData second = mRegistry.acquire("feed", factory());
+        assertNotSame(first, second);
+        assertThat(mCreatedCount).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void releaseUnregisteredThrows() {
+        mRegistry.release(new FakeData<String>());
+    }
+
+    @NonNull
+    private Function<String, ClosableData> factory() {
+        return new Function<String, ClosableData>() {
+            @NonNull
+            @Override
+            public ClosableData apply(@NonNull String key) {
+                mCreatedCount++;
+                return new ClosableData();
+            }
+        };
+    }
+
+    static final class ClosableData extends FakeData<String> implements Closeable {
+
+        boolean mClosed;
+
+        @Override
+        public void close() {
+            mClosed = true;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class DeltaDataTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    private FakeDeltaData mData;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new FakeDeltaData();
+    }
+
+    @Test
+    public void resetReplacesElements() {
+        mData.mDeltas.add(DeltaData.Delta.reset(newArrayList("a1", "b1", "c1"), "1"));
+        mData.registerDataObserver(mDataObserver);
+        assertThat(mData).containsExactly("a1", "b1", "c1").inOrder();
+        assertEquals("1", mData.getValidator());
+        assertThat(mData.mCursors).containsExactly((String) null);
+    }
+
+    @Test
+    public void changesAppliedInPlace() {
+        mData.mDeltas.add(DeltaData.Delta.reset(newArrayList("a1", "b1", "c1"), "1"));
+        mData.mDeltas.add(new DeltaData.Delta<>(newArrayList("b2", "d1"), newArrayList("a"), "2"));
+        mData.registerDataObserver(mDataObserver);
+        reset(mDataObserver);
+        mData.refresh();
+        assertThat(mData).containsExactly("b2", "c1", "d1").inOrder();
+        assertEquals("2", mData.getValidator());
+        assertThat(mData.mCursors).containsExactly(null, "1").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(0, 1);
+        verify(mDataObserver).onItemRangeChanged(0, 1);
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void adjacentChangesCoalesced() {
+        mData.mDeltas.add(DeltaData.Delta.reset(newArrayList("a1", "b1", "c1", "d1", "e1"), "1"));
+        mData.mDeltas.add(new DeltaData.Delta<>(newArrayList("e2", "d2"), newArrayList("b", "a"), "2"));
+        mData.registerDataObserver(mDataObserver);
+        reset(mDataObserver);
+        mData.refresh();
+        assertThat(mData).containsExactly("c1", "d2", "e2").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(0, 2);
+        verify(mDataObserver).onItemRangeChanged(1, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void repeatedDeletedKeyRemovedOnce() {
+        mData.mDeltas.add(DeltaData.Delta.reset(newArrayList("a1", "b1", "c1"), "1"));
+        mData.mDeltas.add(new DeltaData.Delta<>(Collections.<String>emptyList(), newArrayList("b", "b"), "2"));
+        mData.registerDataObserver(mDataObserver);
+        reset(mDataObserver);
+        mData.refresh();
+        assertThat(mData).containsExactly("a1", "c1").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(1, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void repeatedUpsertedKeyChangedOnce() {
+        mData.mDeltas.add(DeltaData.Delta.reset(newArrayList("a1", "b1", "c1"), "1"));
+        mData.mDeltas.add(new DeltaData.Delta<>(newArrayList("b2", "b3", "c2"), Collections.emptyList(), "2"));
+        mData.registerDataObserver(mDataObserver);
+        reset(mDataObserver);
+        mData.refresh();
+        assertThat(mData).containsExactly("a1", "b3", "c2").inOrder();
+        verify(mDataObserver).onItemRangeChanged(1, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void unchangedUpsertsNotNotified() {
+        mData.mDeltas.add(DeltaData.Delta.reset(newArrayList("a1", "b1"), "1"));
+        mData.mDeltas.add(new DeltaData.Delta<>(newArrayList("a1"), Collections.emptyList(), "2"));
+        mData.registerDataObserver(mDataObserver);
+        reset(mDataObserver);
+        mData.refresh();
+        assertThat(mData).containsExactly("a1", "b1").inOrder();
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test
+    public void keysFollowElementsOverwrittenByReset() {
+        mData.mDeltas.add(DeltaData.Delta.reset(newArrayList("a1", "b1", "c1"), "1"));
+        mData.mDeltas.add(DeltaData.Delta.reset(newArrayList("c1", "a1"), "2"));
+        mData.mDeltas.add(new DeltaData.Delta<>(newArrayList("a2"), newArrayList("c"), "3"));
+        mData.registerDataObserver(mDataObserver);
+        mData.refresh();
+        assertThat(mData).containsExactly("c1", "a1").inOrder();
+        mData.refresh();
+        assertThat(mData).containsExactly("a2");
+    }
+
+    @Test
+    public void cursorRestoredFromSnapshot() throws Exception {
+        SnapshotFile<String> snapshotFile =
+                new SnapshotFile<>(new File(mFolder.getRoot(), "snapshot"), SnapshotFile.STRING_CODEC);
+        snapshotFile.write(newArrayList("a1", "b1"), "7");
+        mData.setSnapshotFile(snapshotFile);
+        assertEquals("7", mData.getValidator());
+        mData.mDeltas.add(new DeltaData.Delta<>(newArrayList("c1"), Collections.emptyList(), "8"));
+        mData.registerDataObserver(mDataObserver);
+        assertThat(mData).containsExactly("a1", "b1", "c1").inOrder();
+        assertThat(mData.mCursors).containsExactly("7");
+    }
+
+    private static final class FakeDeltaData extends DeltaData<String> {
+
+        final Queue<Delta<String>> mDeltas = new LinkedList<>();
+
+        final List<String> mCursors = new ArrayList<>();
+
+        FakeDeltaData() {
+            super(String.class, new Function<String, Object>() {
+                @NonNull
+                @Override
+                public Object apply(@NonNull String s) {
+                    return s.substring(0, 1);
+                }
+            });
+        }
+
+        @NonNull
+        @Override
+        protected Delta<? extends String> loadDelta(@Nullable String cursor,
+                                                    @NonNull CancellationToken cancellationToken) {
+            mCursors.add(cursor);
+            return mDeltas.remove();
+        }
+
+        /** Loads synchronously, in the same way as the default background load. */
+        @Override
+        protected void loadAsync(@NonNull LoadCallback<? super String> callback,
+                                 @NonNull CancellationToken cancellationToken) {
+            try {
+                load(callback, getValidator(), cancellationToken);
+                callback.onSuccess(Collections.<String>emptyList());
+            } catch (Throwable e) {
+                callback.onFailure(e);
+            }
+        }
+    }
+}
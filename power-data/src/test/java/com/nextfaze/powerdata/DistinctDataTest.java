@@ -0,0 +1,142 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Collections.addAll;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class DistinctDataTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    private FakeData<String> mData;
+    private Data<String> mDistinctData;
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new FakeData<>();
+        addAll(mData, "a1", "b1", "a2", "c1", "b2");
+        mDistinctData = new DistinctData<>(mData, firstLetter());
+        mDistinctData.registerDataObserver(mDataObserver);
+    }
+
+    @Test
+    public void firstOccurrencesPresent() {
+        assertThat(mDistinctData).containsExactly("a1", "b1", "c1").inOrder();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getWithoutObservingDataThrows() {
+        new DistinctData<>(mData, firstLetter()).get(0);
+    }
+
+    @Test
+    public void appendedDuplicatesSuppressed() {
+        mData.addAll(newArrayList("c2", "d1", "a3", "e1"));
+        assertThat(mDistinctData).containsExactly("a1", "b1", "c1", "d1", "e1").inOrder();
+        verify(mDataObserver).onItemRangeInserted(3, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void appendedDuplicatesOnlyNotNotified() {
+        mData.addAll(newArrayList("c2", "a3"));
+        assertThat(mDistinctData).containsExactly("a1", "b1", "c1").inOrder();
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertionBeforeIncludedOccurrenceSupersedesIt() {
+        mData.add(0, "c0");
+        assertThat(mDistinctData).containsExactly("c0", "a1", "b1").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(2, 1);
+        verify(mDataObserver).onItemRangeInserted(0, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removalOfDuplicateNotNotified() {
+        mData.remove("a2");
+        assertThat(mDistinctData).containsExactly("a1", "b1", "c1").inOrder();
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removalOfIncludedOccurrencePromotesNext() {
+        mData.remove("b1");
+        assertThat(mDistinctData).containsExactly("a1", "c1", "b2").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(1, 1);
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removalShiftsFollowingOccurrences() {
+        mData.remove("a2");
+        mData.remove("b1");
+        assertThat(mDistinctData).containsExactly("a1", "c1", "b2").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(1, 1);
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeWithSameKeyNotifiesChange() {
+        mData.set(1, "b0");
+        assertThat(mDistinctData).containsExactly("a1", "b0", "c1").inOrder();
+        verify(mDataObserver).onItemRangeChanged(1, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeOfDuplicateToNewKeyIncludesIt() {
+        mData.set(2, "d1");
+        assertThat(mDistinctData).containsExactly("a1", "b1", "d1", "c1").inOrder();
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeOfIncludedKeyPromotesNext() {
+        mData.set(0, "c0");
+        assertThat(mDistinctData).containsExactly("c0", "b1", "a2").inOrder();
+        verify(mDataObserver).onItemRangeChanged(0, 1);
+        verify(mDataObserver).onItemRangeRemoved(2, 1);
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void moveReordersFirstOccurrences() {
+        mData.move(2, 0, 1);
+        assertThat(mDistinctData).containsExactly("a2", "b1", "c1").inOrder();
+    }
+
+    @NonNull
+    private static Function<String, Object> firstLetter() {
+        return new Function<String, Object>() {
+            @NonNull
+            @Override
+            public Object apply(@NonNull String s) {
+                return s.substring(0, 1);
+            }
+        };
+    }
+}
@@ -183,6 +183,36 @@ public final class FilterDataTest {
         verifyNoMoreObserverInteractions();
     }
 
+    @Test
+    public void changePayloadForwarded() {
+        PayloadDataObserver payloadDataObserver = mock(PayloadDataObserver.class);
+        mFilterData.registerDataObserver(payloadDataObserver);
+        Object payload = new Object();
+        mData.notifyItemRangeChanged(3, 1, payload);
+        verify(payloadDataObserver).onItemRangeChanged(1, 1, payload);
+        verify(mFilterDataObserver).onItemRangeChanged(1, 1);
+        verifyNoMoreInteractions(payloadDataObserver);
+        verifyNoMoreObserverInteractions();
+    }
+
+    @Test
+    public void itemIdsOfInnerElements() {
+        mData.setIdFunction(new IdFunction<String>() {
+            @Override
+            public long apply(@NonNull String s) {
+                return s.hashCode();
+            }
+        });
+        assertThat(mFilterData.hasStableIds()).isTrue();
+        assertThat(mFilterData.getItemId(1)).isEqualTo((long) "bar".hashCode());
+    }
+
+    @Test
+    public void itemIdsNotStableByDefault() {
+        assertThat(mFilterData.hasStableIds()).isFalse();
+        assertThat(mFilterData.getItemId(1)).isEqualTo(1);
+    }
+
     private void verifyNoMoreObserverInteractions() {
         verifyNoMoreInteractions(mFilterDataObserver);
         verifyNoMoreInteractions(mFilterLoadingObserver);
@@ -209,4 +239,10 @@ public final class FilterDataTest {
             }
         };
     }
+
+    @Test
+    public void viewportTranslatedToInnerPositions() {
+        mFilterData.setViewport(new Viewport(1, 2, Viewport.Direction.FORWARD, 10));
+        assertThat(mData.getViewport()).isEqualTo(new Viewport(3, 4, Viewport.Direction.FORWARD, 10));
+    }
 }
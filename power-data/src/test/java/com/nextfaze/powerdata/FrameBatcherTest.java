@@ -0,0 +1,67 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Arrays.asList;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class FrameBatcherTest {
+
+    private final List<List<String>> mBatches = new ArrayList<>();
+
+    private FrameBatcher<String> mBatcher;
+
+    @Before
+    public void setUp() throws Exception {
+        ShadowLooper.pauseMainLooper();
+        mBatcher = new FrameBatcher<String>() {
+            @Override
+            protected void onFlush(@NonNull List<String> elements) {
+                mBatches.add(elements);
+            }
+        };
+    }
+
+    @Test
+    public void chunksWithinFrameCoalesced() {
+        mBatcher.add(newArrayList("a", "b"));
+        mBatcher.add(newArrayList("c"));
+        assertThat(mBatches).isEmpty();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mBatches).containsExactly(asList("a", "b", "c"));
+    }
+
+    @Test
+    public void nullElementsIgnored() {
+        mBatcher.add(asList("a", null, "b"));
+        mBatcher.flush();
+        assertThat(mBatches).containsExactly(asList("a", "b"));
+    }
+
+    @Test
+    public void emptyBatchNotFlushed() {
+        mBatcher.add(new ArrayList<String>());
+        mBatcher.flush();
+        assertThat(mBatches).isEmpty();
+    }
+
+    @Test
+    public void cancelDiscardsPendingElements() {
+        mBatcher.add(newArrayList("a"));
+        mBatcher.cancel();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mBatches).isEmpty();
+    }
+}
@@ -0,0 +1,563 @@
+package com.nextfaze.powerdata;
+
+import android.support.annotation.Nullable;
+import com.nextfaze.powerdata.IncrementalArrayData.Result;
+import lombok.NonNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class IncrementalArrayDataTest {
+
+    private static final long TIMEOUT = 5000;
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    private RecordingThreadFactory mThreadFactory;
+
+    private PagedData mData;
+
+    @Before
+    public void setUp() throws Exception {
+        ShadowLooper.pauseMainLooper();
+        mThreadFactory = new RecordingThreadFactory();
+        mData = new PagedData(mThreadFactory);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mData.close();
+    }
+
+    @Test
+    public void viewportNearEndLoadsNextIncrement() throws Exception {
+        loadFirstPage(20);
+        mData.setViewport(new Viewport(0, 9, Viewport.Direction.FORWARD, 0));
+        assertNoRequest();
+        mData.setViewport(new Viewport(5, 14, Viewport.Direction.FORWARD, 0));
+        assertEquals(1, nextRequest().mPage);
+    }
+
+    @Test
+    public void velocityExtendsLookAhead() throws Exception {
+        loadFirstPage(20);
+        mData.setViewport(new Viewport(0, 9, Viewport.Direction.FORWARD, 10));
+        assertEquals(1, nextRequest().mPage);
+    }
+
+    @Test
+    public void backwardViewportDoesNotLoad() throws Exception {
+        loadFirstPage(20);
+        mData.setViewport(new Viewport(10, 19, Viewport.Direction.BACKWARD, 100));
+        assertNoRequest();
+    }
+
+    @Test
+    public void snapshotRestoredAndRevalidated() throws Exception {
+        SnapshotFile<String> snapshotFile =
+                new SnapshotFile<>(new File(mFolder.getRoot(), "snapshot"), SnapshotFile.STRING_CODEC);
+        snapshotFile.write(newArrayList("a", "b", "c"), "token-1");
+        mData.setSnapshotFile(snapshotFile);
+        assertThat(mData).containsExactly("a", "b", "c").inOrder();
+        assertEquals("token-1", mData.getNextPageToken());
+        mData.registerDataObserver(mDataObserver);
+        Request request = nextRequest();
+        assertNull(request.mPageToken);
+        request.complete(Result.nextPage(newArrayList("a", "x", "c", "d"), "token-2"));
+        awaitIdle();
+        assertThat(mData).containsExactly("a", "x", "c", "d").inOrder();
+        assertEquals("token-2", mData.getNextPageToken());
+        verify(mDataObserver).onItemRangeChanged(1, 1);
+        verify(mDataObserver).onItemRangeInserted(3, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void unchangedSnapshotRevalidatedWithoutClearing() throws Exception {
+        SnapshotFile<String> snapshotFile =
+                new SnapshotFile<>(new File(mFolder.getRoot(), "snapshot"), SnapshotFile.STRING_CODEC);
+        snapshotFile.write(newArrayList("a", "b", "c"), "token-1");
+        mData.setSnapshotFile(snapshotFile);
+        mData.registerDataObserver(mDataObserver);
+        nextRequest().complete(Result.nextPage(newArrayList("a", "b", "c"), "token-1"));
+        awaitIdle();
+        assertThat(mData).containsExactly("a", "b", "c").inOrder();
+        assertEquals(0, mData.mClearCount);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void seamDuplicatesDropped() throws Exception {
+        mData.close();
+        mData = new PagedData(mThreadFactory, new Function<String, Object>() {
+            @NonNull
+            @Override
+            public Object apply(@NonNull String s) {
+                return s.substring(0, 1);
+            }
+        });
+        loadFirstPage(Result.moreRemaining(newArrayList("a1", "b1", "c1")));
+        mData.setViewport(new Viewport(0, 2, Viewport.Direction.FORWARD, 0));
+        nextRequest().complete(Result.moreRemaining(newArrayList("c2", "d1", "e1")));
+        awaitIdle();
+        assertThat(mData).containsExactly("a1", "b1", "c1", "d1", "e1").inOrder();
+        verify(mDataObserver).onItemRangeInserted(3, 2);
+    }
+
+    @Test
+    public void nextPageTokenPassedToFollowingIncrement() throws Exception {
+        loadFirstPage(Result.nextPage(elements("a", 2), "token-1"));
+        assertEquals("token-1", mData.getNextPageToken());
+        mData.setViewport(new Viewport(0, 1, Viewport.Direction.FORWARD, 0));
+        Request request = nextRequest();
+        assertEquals(1, request.mPage);
+        assertEquals("token-1", request.mPageToken);
+        request.complete(Result.nextPage(elements("b", 2), null));
+        awaitIdle();
+        assertNull(mData.getNextPageToken());
+        assertEquals(0, mData.available());
+    }
+
+    @Test
+    public void nextPageTokenSavedWithSnapshot() throws Exception {
+        SnapshotFile<String> snapshotFile =
+                new SnapshotFile<>(new File(mFolder.getRoot(), "snapshot"), SnapshotFile.STRING_CODEC);
+        mData.setSnapshotFile(snapshotFile);
+        loadFirstPage(Result.nextPage(elements("a", 2), "token-1"));
+        long deadline = currentTimeMillis() + TIMEOUT;
+        SnapshotFile.Snapshot<String> snapshot;
+        while ((snapshot = snapshotFile.readSnapshot()) == null) {
+            assertTrue("Timed out waiting for snapshot", currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        assertThat(snapshot.mElements).containsExactly("a0", "a1").inOrder();
+        assertEquals("token-1", snapshot.mTag);
+    }
+
+    @Test
+    public void resumeAppendsFromToken() throws Exception {
+        SnapshotFile<String> snapshotFile =
+                new SnapshotFile<>(new File(mFolder.getRoot(), "snapshot"), SnapshotFile.STRING_CODEC);
+        snapshotFile.write(newArrayList("a", "b"), "token-1");
+        mData.setSnapshotFile(snapshotFile);
+        mData.resume(mData.getNextPageToken());
+        mData.registerDataObserver(mDataObserver);
+        Request request = nextRequest();
+        assertEquals("token-1", request.mPageToken);
+        request.complete(Result.nextPage(newArrayList("c"), "token-2"));
+        awaitIdle();
+        assertThat(mData).containsExactly("a", "b", "c").inOrder();
+        assertEquals("token-2", mData.getNextPageToken());
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void resumeAfterLoadingBeganThrows() throws Exception {
+        loadFirstPage(2);
+        mData.resume("token-1");
+    }
+
+    @Test
+    public void outOfOrderPrefetchesSplicedInOrder() throws Exception {
+        mData.setParallelism(3);
+        loadFirstPage(new Result<>(elements("a", 2), 6));
+        mData.setViewport(new Viewport(0, 1, Viewport.Direction.FORWARD, 0));
+        SortedMap<Integer, Request> requests = nextRequests(3);
+        assertThat(requests.keySet()).containsExactly(1, 2, 3).inOrder();
+        requests.get(3).complete(new Result<>(elements("d", 2), 2));
+        requests.get(2).complete(new Result<>(elements("c", 2), 4));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).hasSize(2);
+        requests.get(1).complete(new Result<>(elements("b", 2), 6));
+        awaitIdle();
+        assertThat(mData).containsExactly("a0", "a1", "b0", "b1", "c0", "c1", "d0", "d1").inOrder();
+        assertEquals(2, mData.available());
+    }
+
+    @Test
+    public void unsplicedPrefetchesCancelledAfterFailure() throws Exception {
+        mData.setParallelism(3);
+        loadFirstPage(new Result<>(elements("a", 2), 6));
+        mData.setViewport(new Viewport(0, 1, Viewport.Direction.FORWARD, 0));
+        SortedMap<Integer, Request> requests = nextRequests(3);
+        requests.get(1).fail(new IOException());
+        assertTrue(requests.get(2).mInterrupted.await(TIMEOUT, MILLISECONDS));
+        assertTrue(requests.get(3).mInterrupted.await(TIMEOUT, MILLISECONDS));
+        awaitIdle();
+        assertThat(mData).containsExactly("a0", "a1").inOrder();
+        assertNoRequest();
+    }
+
+    @Test
+    public void retryResumesAtFailedPage() throws Exception {
+        mData.setParallelism(3);
+        mData.setRetryPolicy(new RetryPolicy(2, 0, 0));
+        loadFirstPage(new Result<>(elements("a", 2), 6));
+        mData.setViewport(new Viewport(0, 1, Viewport.Direction.FORWARD, 0));
+        SortedMap<Integer, Request> requests = nextRequests(3);
+        requests.get(1).complete(new Result<>(elements("b", 2), 4));
+        requests.get(2).fail(new IOException());
+        assertTrue(requests.get(3).mInterrupted.await(TIMEOUT, MILLISECONDS));
+        SortedMap<Integer, Request> retried = nextRequests(2);
+        assertThat(retried.keySet()).containsExactly(2, 3).inOrder();
+        retried.get(3).complete(new Result<>(elements("d", 2), 0));
+        retried.get(2).complete(new Result<>(elements("c", 2), 2));
+        awaitIdle();
+        assertThat(mData).containsExactly("a0", "a1", "b0", "b1", "c0", "c1", "d0", "d1").inOrder();
+    }
+
+    @Test
+    public void cachedPageServedWithoutLoading() throws Exception {
+        PageCache<String> pageCache = new PageCache<>(4, 60000);
+        pageCache.put("1", Result.moreRemaining(elements("b", 2)));
+        mData.setPageCache(pageCache);
+        loadFirstPage(2);
+        mData.setViewport(new Viewport(0, 1, Viewport.Direction.FORWARD, 0));
+        awaitSize(4);
+        assertThat(mData).containsExactly("a0", "a1", "b0", "b1").inOrder();
+        mData.setViewport(new Viewport(0, 3, Viewport.Direction.FORWARD, 0));
+        assertEquals(2, nextRequest().mPage);
+    }
+
+    @Test
+    public void asyncIncrementsCompletedFromAnyThread() throws Exception {
+        AsyncPagedData data = new AsyncPagedData(mThreadFactory);
+        try {
+            data.registerDataObserver(mDataObserver);
+            final AsyncRequest first = data.nextRequest();
+            assertEquals(0, first.mPage);
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    first.mCallback.onSuccess(Result.moreRemaining(elements("a", 2)));
+                }
+            });
+            thread.start();
+            thread.join();
+            awaitIdle(data);
+            data.setViewport(new Viewport(0, 1, Viewport.Direction.FORWARD, 0));
+            AsyncRequest second = data.nextRequest();
+            assertEquals(1, second.mPage);
+            second.mCallback.onSuccess(new Result<>(elements("b", 2), 0));
+            awaitIdle(data);
+            assertThat(data).containsExactly("a0", "a1", "b0", "b1").inOrder();
+        } finally {
+            data.close();
+        }
+    }
+
+    @Test
+    public void asyncPrefetchesSplicedInOrder() throws Exception {
+        AsyncPagedData data = new AsyncPagedData(mThreadFactory);
+        try {
+            data.setParallelism(3);
+            data.registerDataObserver(mDataObserver);
+            data.nextRequest().mCallback.onSuccess(new Result<>(elements("a", 2), 6));
+            awaitIdle(data);
+            data.setViewport(new Viewport(0, 1, Viewport.Direction.FORWARD, 0));
+            SortedMap<Integer, AsyncRequest> requests = new TreeMap<>();
+            for (int i = 0; i < 3; i++) {
+                AsyncRequest request = data.nextRequest();
+                requests.put(request.mPage, request);
+            }
+            assertThat(requests.keySet()).containsExactly(1, 2, 3).inOrder();
+            requests.get(3).mCallback.onSuccess(new Result<>(elements("d", 2), 0));
+            requests.get(2).mCallback.onSuccess(new Result<>(elements("c", 2), 2));
+            requests.get(1).mCallback.onSuccess(new Result<>(elements("b", 2), 4));
+            awaitIdle(data);
+            assertThat(data).containsExactly("a0", "a1", "b0", "b1", "c0", "c1", "d0", "d1").inOrder();
+        } finally {
+            data.close();
+        }
+    }
+
+    @Test
+    public void asyncFailureNotifiesErrorAndLaterOutcomesIgnored() throws Exception {
+        AsyncPagedData data = new AsyncPagedData(mThreadFactory);
+        try {
+            ErrorObserver errorObserver = mock(ErrorObserver.class);
+            data.registerErrorObserver(errorObserver);
+            data.registerDataObserver(mDataObserver);
+            IncrementCallback<String> callback = data.nextRequest().mCallback;
+            IOException e = new IOException();
+            callback.onFailure(e);
+            callback.onSuccess(Result.moreRemaining(elements("a", 2)));
+            awaitIdle(data);
+            verify(errorObserver).onError(e);
+            assertThat(data).isEmpty();
+        } finally {
+            data.close();
+        }
+    }
+
+    @Test
+    public void asyncOutcomeAfterRefreshIgnored() throws Exception {
+        AsyncPagedData data = new AsyncPagedData(mThreadFactory);
+        try {
+            data.registerDataObserver(mDataObserver);
+            AsyncRequest abandoned = data.nextRequest();
+            data.refresh();
+            AsyncRequest current = data.nextRequest();
+            assertEquals(0, current.mPage);
+            abandoned.mCallback.onSuccess(Result.moreRemaining(elements("x", 2)));
+            current.mCallback.onSuccess(Result.moreRemaining(elements("a", 2)));
+            awaitSize(data, 2);
+            assertThat(data).containsExactly("a0", "a1").inOrder();
+        } finally {
+            data.close();
+        }
+    }
+
+    private void loadFirstPage(int count) throws InterruptedException {
+        loadFirstPage(Result.moreRemaining(elements("a", count)));
+    }
+
+    private void loadFirstPage(@NonNull Result<String> result) throws InterruptedException {
+        mData.registerDataObserver(mDataObserver);
+        nextRequest().complete(result);
+        awaitIdle();
+        assertThat(mData).hasSize(result.getElements().size());
+    }
+
+    @NonNull
+    private Request nextRequest() throws InterruptedException {
+        Request request = mData.mRequests.poll(TIMEOUT, MILLISECONDS);
+        assertNotNull("No increment requested", request);
+        return request;
+    }
+
+    /** Returns the next {@code count} increments requested, which are requested concurrently, keyed by page. */
+    @NonNull
+    private SortedMap<Integer, Request> nextRequests(int count) throws InterruptedException {
+        SortedMap<Integer, Request> requests = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            Request request = nextRequest();
+            requests.put(request.mPage, request);
+        }
+        return requests;
+    }
+
+    private void assertNoRequest() throws InterruptedException {
+        assertNull(mData.mRequests.poll(100, MILLISECONDS));
+    }
+
+    private void awaitSize(int size) throws InterruptedException {
+        awaitSize(mData, size);
+    }
+
+    private void awaitSize(@NonNull Data<?> data, int size) throws InterruptedException {
+        long deadline = currentTimeMillis() + TIMEOUT;
+        while (true) {
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+            if (data.size() >= size) {
+                return;
+            }
+            assertTrue("Timed out waiting for elements", currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /** Waits until the loading thread has applied what it loaded, and is waiting to be told to proceed. */
+    private void awaitIdle() throws InterruptedException {
+        awaitIdle(mData);
+    }
+
+    private void awaitIdle(@NonNull Data<?> data) throws InterruptedException {
+        long deadline = currentTimeMillis() + TIMEOUT;
+        while (true) {
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+            // Loading is only reported finished before the thread blocks, which is the only place it then waits.
+            if (!data.isLoading() && mThreadFactory.mThread.getState() == Thread.State.WAITING) {
+                return;
+            }
+            assertTrue("Timed out waiting for loading to finish", currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @NonNull
+    private static List<String> elements(@NonNull String prefix, int count) {
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            elements.add(prefix + i);
+        }
+        return elements;
+    }
+
+    private static final class RecordingThreadFactory implements ThreadFactory {
+
+        @Nullable
+        volatile Thread mThread;
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable);
+            mThread = thread;
+            return thread;
+        }
+    }
+
+    /** An increment requested by the data, which blocks the loading thread until the test completes it. */
+    private static final class Request {
+
+        final int mPage;
+
+        @Nullable
+        final String mPageToken;
+
+        /** Counted down if the load is interrupted while waiting to be completed, as when its result is discarded. */
+        @NonNull
+        final CountDownLatch mInterrupted = new CountDownLatch(1);
+
+        @NonNull
+        private final CountDownLatch mCompleted = new CountDownLatch(1);
+
+        @Nullable
+        private volatile Result<String> mResult;
+
+        @Nullable
+        private volatile Throwable mError;
+
+        Request(int page, @Nullable String pageToken) {
+            mPage = page;
+            mPageToken = pageToken;
+        }
+
+        void complete(@Nullable Result<String> result) {
+            mResult = result;
+            mCompleted.countDown();
+        }
+
+        void fail(@NonNull Throwable e) {
+            mError = e;
+            mCompleted.countDown();
+        }
+
+        @Nullable
+        Result<String> await() throws Throwable {
+            try {
+                mCompleted.await();
+            } catch (InterruptedException e) {
+                mInterrupted.countDown();
+                throw e;
+            }
+            if (mError != null) {
+                throw mError;
+            }
+            return mResult;
+        }
+    }
+
+    private static final class PagedData extends IncrementalArrayData<String> {
+
+        final BlockingQueue<Request> mRequests = new LinkedBlockingQueue<>();
+
+        int mClearCount;
+
+        PagedData(@NonNull ThreadFactory threadFactory) {
+            super(threadFactory);
+        }
+
+        PagedData(@NonNull ThreadFactory threadFactory, @NonNull Function<? super String, ?> keyFunction) {
+            super(threadFactory, keyFunction);
+        }
+
+        @Nullable
+        @Override
+        protected Result<? extends String> load(int page,
+                                                @Nullable String pageToken,
+                                                @NonNull CancellationToken cancellationToken) throws Throwable {
+            Request request = new Request(page, pageToken);
+            mRequests.add(request);
+            return request.await();
+        }
+
+        @Override
+        protected void onClear() {
+            mClearCount++;
+        }
+    }
+
+    /** An increment requested by {@link AsyncPagedData}, which the test completes through its callback. */
+    private static final class AsyncRequest {
+
+        final int mPage;
+
+        @NonNull
+        final IncrementCallback<String> mCallback;
+
+        AsyncRequest(int page, @NonNull IncrementCallback<String> callback) {
+            mPage = page;
+            mCallback = callback;
+        }
+    }
+
+    private static final class AsyncPagedData extends IncrementalArrayData<String> {
+
+        final BlockingQueue<AsyncRequest> mRequests = new LinkedBlockingQueue<>();
+
+        AsyncPagedData(@NonNull ThreadFactory threadFactory) {
+            super(threadFactory);
+        }
+
+        @NonNull
+        AsyncRequest nextRequest() throws InterruptedException {
+            AsyncRequest request = mRequests.poll(TIMEOUT, MILLISECONDS);
+            assertNotNull("No increment requested", request);
+            return request;
+        }
+
+        @Override
+        protected void loadAsync(int page,
+                                 @Nullable String pageToken,
+                                 @NonNull IncrementCallback<String> callback,
+                                 @NonNull CancellationToken cancellationToken) {
+            mRequests.add(new AsyncRequest(page, callback));
+        }
+
+        @Nullable
+        @Override
+        protected Result<? extends String> load(int page,
+                                                @Nullable String pageToken,
+                                                @NonNull CancellationToken cancellationToken) {
+            throw new AssertionError("Increments are loaded asynchronously");
+        }
+    }
+}
@@ -33,7 +33,7 @@ public final class LimitDataTest {
         mData = new FakeData<>();
         //noinspection SpellCheckingInspection
         addAll(mData, "a", "bc", "def", "ghij", "klmno", "pqrstu", "vwxyz12");
-        mLimitedData = new LimitData<>(mData, 5);
+        mLimitedData = Datas.limit(mData, 5);
         mLimitedData.registerDataObserver(mDataObserver);
     }
 
@@ -52,6 +52,16 @@ public final class LimitDataTest {
         mLimitedData.get(7);
     }
 
+    @Test
+    public void changePayloadClippedAndForwarded() {
+        PayloadDataObserver payloadDataObserver = mock(PayloadDataObserver.class);
+        mLimitedData.registerDataObserver(payloadDataObserver);
+        Object payload = new Object();
+        mData.notifyItemRangeChanged(3, 3, payload);
+        verify(payloadDataObserver).onItemRangeChanged(3, 2, payload);
+        verifyNoMoreInteractions(payloadDataObserver);
+    }
+
     @Test
     public void outOfBoundsChangeDropped() {
         mData.remove(5);
@@ -89,9 +99,61 @@ public final class LimitDataTest {
         mData.addAll(2, newArrayList("x", "y", "z", "w"));
         assertThat(mLimitedData).containsExactly("a", "bc", "x", "y", "z").inOrder();
         verify(mDataObserver).onItemRangeInserted(2, 3);
+        verify(mDataObserver).onItemRangeRemoved(5, 3);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertBelowLimitPushesElementOut() {
+        mData.add(0, "x");
+        assertThat(mLimitedData).containsExactly("x", "a", "bc", "def", "ghij").inOrder();
+        verify(mDataObserver).onItemRangeInserted(0, 1);
+        verify(mDataObserver).onItemRangeRemoved(5, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removeBelowLimitPullsElementIn() {
+        mData.remove(1);
+        assertThat(mLimitedData).containsExactly("a", "def", "ghij", "klmno", "pqrstu").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(1, 1);
+        verify(mDataObserver).onItemRangeInserted(4, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void moveBelowLimitForwarded() {
+        mData.move(0, 3, 2);
+        assertThat(mLimitedData).containsExactly("def", "ghij", "klmno", "a", "bc").inOrder();
+        verify(mDataObserver).onItemRangeMoved(0, 3, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void moveOutOfLimitSplitIntoRemovalAndInsertion() {
+        mData.move(1, 5, 1);
+        assertThat(mLimitedData).containsExactly("a", "def", "ghij", "klmno", "pqrstu").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(1, 1);
+        verify(mDataObserver).onItemRangeInserted(4, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void moveIntoLimitSplitIntoRemovalAndInsertion() {
+        mData.move(6, 0, 1);
+        assertThat(mLimitedData).containsExactly("vwxyz12", "a", "bc", "def", "ghij").inOrder();
+        verify(mDataObserver).onItemRangeInserted(0, 1);
+        verify(mDataObserver).onItemRangeRemoved(5, 1);
         verifyNoMoreInteractions(mDataObserver);
     }
 
+    @Test
+    public void moveBeyondLimitDropped() {
+        mData.move(5, 6, 1);
+        assertLimitedDataClippedContents();
+        verifyZeroInteractions(mDataObserver);
+    }
+
     @Test
     public void boundaryStraddlingRemoveClipped() {
         mData.clear();
@@ -0,0 +1,189 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class LoadCallbackTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    @Mock
+    private ErrorObserver mErrorObserver;
+
+    private AsyncArrayData mData;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new AsyncArrayData();
+        mData.registerErrorObserver(mErrorObserver);
+        mData.registerDataObserver(mDataObserver);
+    }
+
+    @Test
+    public void loadStartedWithoutBlockingThread() {
+        assertThat(mData.mCallbacks).hasSize(1);
+        assertTrue(mData.isLoading());
+    }
+
+    @Test
+    public void emittedAndFinalElementsApplied() {
+        LoadCallback<? super String> callback = mData.mCallbacks.get(0);
+        callback.emit(newArrayList("a", "b"));
+        callback.onSuccess(newArrayList("c"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("a", "b", "c").inOrder();
+        assertFalse(mData.isLoading());
+    }
+
+    @Test
+    public void failureNotifiesError() {
+        IOException e = new IOException();
+        mData.mCallbacks.get(0).onFailure(e);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        verify(mErrorObserver).onError(e);
+        assertFalse(mData.isLoading());
+    }
+
+    @Test
+    public void failureAfterEmitRemovesStaleElements() {
+        mData.mCallbacks.get(0).onSuccess(newArrayList("a", "b", "c"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        reset(mDataObserver);
+        mData.refresh();
+        LoadCallback<? super String> callback = mData.mCallbacks.get(1);
+        callback.emit(newArrayList("x"));
+        IOException e = new IOException();
+        callback.onFailure(e);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("x");
+        verify(mDataObserver).onItemRangeChanged(0, 1);
+        verify(mDataObserver).onItemRangeRemoved(1, 2);
+        verify(mErrorObserver).onError(e);
+    }
+
+    @Test
+    public void failureBeforeEmitKeepsElements() {
+        mData.mCallbacks.get(0).onSuccess(newArrayList("a", "b"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        reset(mDataObserver);
+        mData.refresh();
+        mData.mCallbacks.get(1).onFailure(new IOException());
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("a", "b").inOrder();
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test
+    public void onlyFirstCompletionCounts() {
+        LoadCallback<? super String> callback = mData.mCallbacks.get(0);
+        callback.onSuccess(newArrayList("a"));
+        callback.onFailure(new IOException());
+        callback.onSuccess(newArrayList("b"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("a");
+        verifyZeroInteractions(mErrorObserver);
+    }
+
+    @Test
+    public void abandonedLoadIgnored() {
+        LoadCallback<? super String> stale = mData.mCallbacks.get(0);
+        mData.refresh();
+        assertTrue(mData.mCancellationTokens.get(0).isCanceled());
+        stale.onSuccess(newArrayList("stale"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).isEmpty();
+        assertTrue(mData.isLoading());
+        mData.mCallbacks.get(1).onSuccess(newArrayList("fresh"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("fresh");
+    }
+
+    @Test
+    public void validatorAvailableAfterSuccess() {
+        LoadCallback<? super String> callback = mData.mCallbacks.get(0);
+        callback.setValidator("v1");
+        callback.onSuccess(newArrayList("a"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals("v1", mData.getValidator());
+        mData.refresh();
+        mData.mCallbacks.get(1).onSuccess(newArrayList("b"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertNull(mData.getValidator());
+    }
+
+    @Test
+    public void notModifiedLeavesElementsUntouched() {
+        mData.mCallbacks.get(0).onSuccess(newArrayList("a", "b"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        reset(mDataObserver);
+        mData.refresh();
+        mData.mCallbacks.get(1).onNotModified();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("a", "b").inOrder();
+        assertFalse(mData.isLoading());
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test
+    public void unchangedContentDispatchesNoNotifications() {
+        mData.mCallbacks.get(0).onSuccess(newArrayList("a", "b"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        reset(mDataObserver);
+        mData.refresh();
+        mData.mCallbacks.get(1).onSuccess(newArrayList("a", "b"));
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertThat(mData).containsExactly("a", "b").inOrder();
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void notModifiedAfterEmitThrows() {
+        LoadCallback<? super String> callback = mData.mCallbacks.get(0);
+        callback.emit(newArrayList("a"));
+        callback.onNotModified();
+    }
+
+    private static final class AsyncArrayData extends ArrayData<String> {
+
+        final List<LoadCallback<? super String>> mCallbacks = new ArrayList<>();
+
+        final List<CancellationToken> mCancellationTokens = new ArrayList<>();
+
+        @Override
+        protected void loadAsync(@NonNull LoadCallback<? super String> callback,
+                                 @NonNull CancellationToken cancellationToken) {
+            mCallbacks.add(callback);
+            mCancellationTokens.add(cancellationToken);
+        }
+
+        @NonNull
+        @Override
+        protected List<? extends String> load(@NonNull CancellationToken cancellationToken) {
+            throw new AssertionError("Loads are asynchronous");
+        }
+    }
+}
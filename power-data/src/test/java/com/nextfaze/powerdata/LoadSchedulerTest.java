@@ -0,0 +1,145 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class LoadSchedulerTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private LoadScheduler mScheduler;
+
+    private final List<String> mOrder = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() throws Exception {
+        mScheduler = new LoadScheduler(1);
+    }
+
+    @Test
+    public void visibleDataLoadsBeforeHiddenData() throws Exception {
+        FakeData<String> hidden = new FakeData<>();
+        FakeData<String> visible = new FakeData<>();
+        visible.registerLoadingObserver(mock(LoadingObserver.class));
+        mScheduler.acquire(new FakeData<String>());
+        Thread hiddenThread = startLoad("hidden", hidden);
+        Thread visibleThread = startLoad("visible", visible);
+        mScheduler.release();
+        hiddenThread.join();
+        visibleThread.join();
+        assertThat(mOrder).containsExactly("visible", "hidden").inOrder();
+    }
+
+    @Test
+    public void viewportNearerEndLoadsFirst() throws Exception {
+        FakeData<String> far = new FakeData<>();
+        FakeData<String> near = new FakeData<>();
+        Collections.addAll(far, "a", "b", "c", "d", "e");
+        Collections.addAll(near, "a", "b", "c", "d", "e");
+        far.setViewport(new Viewport(0, 1, Viewport.Direction.FORWARD, 0));
+        near.setViewport(new Viewport(2, 4, Viewport.Direction.FORWARD, 0));
+        mScheduler.acquire(new FakeData<String>());
+        Thread farThread = startLoad("far", far);
+        Thread nearThread = startLoad("near", near);
+        mScheduler.release();
+        farThread.join();
+        nearThread.join();
+        assertThat(mOrder).containsExactly("near", "far").inOrder();
+    }
+
+    @Test
+    public void interruptedWaitDoesNotHoldSlot() throws Exception {
+        mScheduler.acquire(new FakeData<String>());
+        Thread thread = startLoad("interrupted", new FakeData<String>());
+        thread.interrupt();
+        thread.join();
+        mScheduler.release();
+        mScheduler.acquire(new FakeData<String>());
+        mScheduler.release();
+        assertThat(mOrder).isEmpty();
+    }
+
+    @Test
+    public void defaultSchedulerUnbounded() {
+        assertEquals(LoadScheduler.UNBOUNDED, LoadScheduler.getDefault().getMaxConcurrentLoads());
+    }
+
+    @Test
+    public void queuedLoadWaitsWithoutBlockingCaller() throws Exception {
+        mScheduler.acquire(new FakeData<String>());
+        mScheduler.executor(new FakeData<String>(), DIRECT).execute(record("queued"));
+        assertThat(mOrder).isEmpty();
+        mScheduler.release();
+        assertThat(mOrder).containsExactly("queued");
+        // The queued load released its slot once it ran.
+        mScheduler.acquire(new FakeData<String>());
+        mScheduler.release();
+    }
+
+    @Test
+    public void loadDistanceFollowsSizeChanges() throws Exception {
+        FakeData<String> grown = new FakeData<>();
+        FakeData<String> other = new FakeData<>();
+        Collections.addAll(grown, "a", "b", "c");
+        Collections.addAll(other, "a", "b", "c");
+        grown.setViewport(new Viewport(0, 2, Viewport.Direction.FORWARD, 0));
+        other.setViewport(new Viewport(0, 2, Viewport.Direction.FORWARD, 0));
+        mScheduler.acquire(new FakeData<String>());
+        mScheduler.executor(grown, DIRECT).execute(record("grown"));
+        mScheduler.executor(other, DIRECT).execute(record("other"));
+        Collections.addAll(grown, "d", "e");
+        mScheduler.release();
+        assertThat(mOrder).containsExactly("other", "grown").inOrder();
+    }
+
+    @NonNull
+    private Runnable record(@NonNull final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mOrder.add(name);
+            }
+        };
+    }
+
+    /** Starts a thread that records the name once permitted to load, returning once it's waiting. */
+    private Thread startLoad(final String name, final AbstractData<?> data) throws InterruptedException {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    mScheduler.acquire(data);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                mOrder.add(name);
+                mScheduler.release();
+            }
+        });
+        thread.start();
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+}
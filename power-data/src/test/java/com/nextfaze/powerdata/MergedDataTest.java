@@ -0,0 +1,157 @@
+package com.nextfaze.powerdata;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Comparator;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Collections.addAll;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class MergedDataTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    private FakeData<String> mFirst;
+    private FakeData<String> mSecond;
+    private Data<String> mMergedData;
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    @Mock
+    private LoadingObserver mLoadingObserver;
+
+    @Before
+    public void setUp() throws Exception {
+        mFirst = new FakeData<>();
+        mSecond = new FakeData<>();
+        addAll(mFirst, "b", "d", "f");
+        addAll(mSecond, "a", "c", "e");
+        mMergedData = Datas.mergeSorted(naturalOrder(), mFirst, mSecond);
+        mMergedData.registerDataObserver(mDataObserver);
+        mMergedData.registerLoadingObserver(mLoadingObserver);
+    }
+
+    @Test
+    public void elementsMerged() {
+        assertThat(mMergedData).containsExactly("a", "b", "c", "d", "e", "f").inOrder();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getWithoutObservingDataThrows() {
+        Datas.mergeSorted(naturalOrder(), mFirst, mSecond).get(0);
+    }
+
+    @Test
+    public void equalElementsOrderedByChild() {
+        mSecond.add(0, "b");
+        assertThat(mMergedData).containsExactly("a", "b", "b", "c", "d", "e", "f").inOrder();
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void pageInsertedWithSingleNotification() {
+        mSecond.addAll(newArrayList("g", "h", "i"));
+        assertThat(mMergedData).containsExactly("a", "b", "c", "d", "e", "f", "g", "h", "i").inOrder();
+        verify(mDataObserver).onItemRangeInserted(6, 3);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void interleavedInsertionNotifiesEachGap() {
+        mSecond.addAll(2, newArrayList("c2", "d2"));
+        assertThat(mMergedData).containsExactly("a", "b", "c", "c2", "d", "d2", "e", "f").inOrder();
+        verify(mDataObserver).onItemRangeInserted(3, 1);
+        verify(mDataObserver).onItemRangeInserted(5, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removalNotifiesMergedPosition() {
+        mFirst.remove("d");
+        assertThat(mMergedData).containsExactly("a", "b", "c", "e", "f").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(3, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeInPlaceNotifiesChange() {
+        mFirst.set(1, "dd");
+        assertThat(mMergedData).containsExactly("a", "b", "c", "dd", "e", "f").inOrder();
+        verify(mDataObserver).onItemRangeChanged(3, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeOutOfPlaceNotifiesMove() {
+        mSecond.set(0, "bb");
+        assertThat(mMergedData).containsExactly("b", "bb", "c", "d", "e", "f").inOrder();
+        verify(mDataObserver).onItemRangeMoved(0, 1, 1);
+        verify(mDataObserver).onItemRangeChanged(1, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void rangeChangeInPlaceNotifiesChangesWithPayload() {
+        PayloadDataObserver payloadDataObserver = mock(PayloadDataObserver.class);
+        mMergedData.registerDataObserver(payloadDataObserver);
+        mFirst.setNotificationsEnabled(false);
+        mFirst.set(0, "bb");
+        mFirst.set(1, "dd");
+        Object payload = new Object();
+        mFirst.notifyItemRangeChanged(0, 2, payload);
+        assertThat(mMergedData).containsExactly("a", "bb", "c", "dd", "e", "f").inOrder();
+        verify(payloadDataObserver).onItemRangeChanged(1, 1, payload);
+        verify(payloadDataObserver).onItemRangeChanged(3, 1, payload);
+        verifyNoMoreInteractions(payloadDataObserver);
+    }
+
+    @Test
+    public void coarseGrainedChangeConfinedToChild() {
+        mFirst.setNotificationsEnabled(false);
+        mFirst.add("g");
+        mFirst.notifyDataChanged();
+        assertThat(mMergedData).containsExactly("a", "b", "c", "d", "e", "f", "g").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(1, 1);
+        verify(mDataObserver).onItemRangeRemoved(2, 1);
+        verify(mDataObserver).onItemRangeRemoved(3, 1);
+        verify(mDataObserver).onItemRangeInserted(1, 1);
+        verify(mDataObserver).onItemRangeInserted(3, 1);
+        verify(mDataObserver).onItemRangeInserted(5, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void loadingIfAnyChildLoading() {
+        mSecond.setLoading(true);
+        assertTrue(mMergedData.isLoading());
+        mSecond.setLoading(false);
+        assertFalse(mMergedData.isLoading());
+        verify(mLoadingObserver, times(2)).onLoadingChange();
+        verifyNoMoreInteractions(mLoadingObserver);
+    }
+
+    private static Comparator<String> naturalOrder() {
+        return new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.compareTo(b);
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.nextfaze.powerdata;
+
+import com.nextfaze.powerdata.IncrementalArrayData.Result;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class PageCacheTest {
+
+    private static final long TTL = 60000;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        mDirectory = new File(mFolder.getRoot(), "pages");
+    }
+
+    @Test
+    public void memoryLevelServesPage() {
+        PageCache<String> cache = new PageCache<>(2, TTL);
+        cache.put("0", new Result<>(newArrayList("a", "b"), 5));
+        Result<String> result = cache.get("0");
+        assertThat(result.getElements()).containsExactly("a", "b").inOrder();
+        assertEquals(5, result.getRemaining());
+        assertNull(cache.get("1"));
+    }
+
+    @Test
+    public void memoryLevelEvictsLeastRecentlyUsed() {
+        PageCache<String> cache = new PageCache<>(2, TTL);
+        cache.put("0", new Result<>(newArrayList("a"), 2));
+        cache.put("1", new Result<>(newArrayList("b"), 1));
+        cache.get("0");
+        cache.put("2", new Result<>(newArrayList("c"), 0));
+        assertNotNull(cache.get("0"));
+        assertNull(cache.get("1"));
+    }
+
+    @Test
+    public void expiredPageIgnored() throws Exception {
+        PageCache<String> cache = new PageCache<>(2, 0);
+        cache.put("0", new Result<>(newArrayList("a"), 0));
+        Thread.sleep(5);
+        assertNull(cache.get("0"));
+    }
+
+    @Test
+    public void diskLevelSurvivesNewInstance() {
+        newDiskCache(Long.MAX_VALUE).put("0", new Result<>(newArrayList("a", "b"), 3));
+        Result<String> result = newDiskCache(Long.MAX_VALUE).get("0");
+        assertThat(result.getElements()).containsExactly("a", "b").inOrder();
+        assertEquals(3, result.getRemaining());
+    }
+
+    @Test
+    public void diskLevelPreservesNextPageToken() {
+        newDiskCache(Long.MAX_VALUE).put("token-a", Result.nextPage(newArrayList("a"), "b"));
+        Result<String> result = newDiskCache(Long.MAX_VALUE).get("token-a");
+        assertEquals("b", result.getNextPageToken());
+        assertEquals(Integer.MAX_VALUE, result.getRemaining());
+    }
+
+    @Test
+    public void diskLevelTrimmedToSizeCap() {
+        PageCache<String> cache = newDiskCache(0);
+        cache.put("0", new Result<>(newArrayList("a"), 0));
+        assertNull(newDiskCache(0).get("0"));
+    }
+
+    @Test
+    public void clearRemovesBothLevels() {
+        PageCache<String> cache = newDiskCache(Long.MAX_VALUE);
+        cache.put("0", new Result<>(newArrayList("a"), 0));
+        cache.clear();
+        assertNull(cache.get("0"));
+        assertNull(newDiskCache(Long.MAX_VALUE).get("0"));
+    }
+
+    private PageCache<String> newDiskCache(long maxDiskBytes) {
+        return new PageCache<>(2, TTL, mDirectory, SnapshotFile.STRING_CODEC, maxDiskBytes);
+    }
+}
@@ -0,0 +1,116 @@
+package com.nextfaze.powerdata;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class RankedListTest {
+
+    private final RankedList<Integer> mList = new RankedList<>();
+    private final List<RankedList.Node<Integer>> mNodes = new ArrayList<>();
+
+    @Test
+    public void nodesAddedAtPosition() {
+        add(0, 1);
+        add(0, 0);
+        add(2, 3);
+        add(2, 2);
+        assertContents(0, 1, 2, 3);
+    }
+
+    @Test
+    public void nodeRemoved() {
+        add(0, 0);
+        add(1, 1);
+        add(2, 2);
+        mList.remove(mNodes.get(1));
+        assertContents(0, 2);
+        assertThat(mList.indexOf(mNodes.get(2))).isEqualTo(1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfBoundsThrows() {
+        add(0, 0);
+        mList.get(1);
+    }
+
+    @Test
+    public void insertionPositionFollowsLesserValues() {
+        add(0, 0);
+        add(1, 2);
+        add(2, 2);
+        add(3, 4);
+        assertThat(mList.insertionPosition(2, naturalOrder())).isEqualTo(1);
+        assertThat(mList.insertionPosition(3, naturalOrder())).isEqualTo(3);
+        assertThat(mList.insertionPosition(5, naturalOrder())).isEqualTo(4);
+    }
+
+    @Test
+    public void repositionMovesOutOfOrderNode() {
+        add(0, 0);
+        add(1, 5);
+        add(2, 2);
+        add(3, 4);
+        assertThat(mList.reposition(mNodes.get(1), naturalOrder())).isEqualTo(3);
+        assertContents(0, 2, 4, 5);
+    }
+
+    @Test
+    public void repositionLeavesOrderedNode() {
+        add(0, 0);
+        add(1, 2);
+        add(2, 4);
+        assertThat(mList.reposition(mNodes.get(1), naturalOrder())).isEqualTo(1);
+        assertContents(0, 2, 4);
+    }
+
+    @Test
+    public void randomOperationsMatchArrayList() {
+        Random random = new Random(0);
+        List<RankedList.Node<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                int position = random.nextInt(expected.size() + 1);
+                expected.add(position, mList.add(position, i));
+            } else {
+                mList.remove(expected.remove(random.nextInt(expected.size())));
+            }
+        }
+        assertThat(mList.size()).isEqualTo(expected.size());
+        for (int position = 0; position < expected.size(); position++) {
+            assertThat(mList.get(position)).isSameAs(expected.get(position));
+            assertThat(mList.indexOf(expected.get(position))).isEqualTo(position);
+        }
+    }
+
+    private void add(int position, int value) {
+        mNodes.add(mList.add(position, value));
+    }
+
+    private void assertContents(Integer... values) {
+        List<Integer> contents = new ArrayList<>();
+        for (int position = 0; position < mList.size(); position++) {
+            contents.add(mList.get(position).mValue);
+        }
+        assertThat(contents).containsExactly((Object[]) values).inOrder();
+    }
+
+    private static Comparator<Integer> naturalOrder() {
+        return new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return a.compareTo(b);
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.nextfaze.powerdata;
+
+import com.android.internal.util.Predicate;
+import com.google.common.collect.Range;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class RetryPolicyTest {
+
+    @Test
+    public void noneNeverRetries() {
+        assertFalse(RetryPolicy.NONE.shouldRetry(1, new IOException()));
+    }
+
+    @Test
+    public void retriesUntilMaxAttempts() {
+        RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000);
+        assertTrue(retryPolicy.shouldRetry(1, new IOException()));
+        assertTrue(retryPolicy.shouldRetry(2, new IOException()));
+        assertFalse(retryPolicy.shouldRetry(3, new IOException()));
+    }
+
+    @Test
+    public void onlyRetryableErrorsRetried() {
+        RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000);
+        assertFalse(retryPolicy.shouldRetry(1, new IllegalStateException()));
+    }
+
+    @Test
+    public void customRetryablePredicate() {
+        RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000, 2, 0, new Predicate<Throwable>() {
+            @Override
+            public boolean apply(Throwable e) {
+                return e instanceof IllegalStateException;
+            }
+        });
+        assertTrue(retryPolicy.shouldRetry(1, new IllegalStateException()));
+        assertFalse(retryPolicy.shouldRetry(1, new IOException()));
+    }
+
+    @Test
+    public void delayGrowsExponentiallyUpToMax() {
+        RetryPolicy retryPolicy = new RetryPolicy(10, 100, 1000, 2, 0, RetryPolicy.IO_EXCEPTIONS);
+        assertEquals(100, retryPolicy.getDelayMillis(1));
+        assertEquals(200, retryPolicy.getDelayMillis(2));
+        assertEquals(400, retryPolicy.getDelayMillis(3));
+        assertEquals(800, retryPolicy.getDelayMillis(4));
+        assertEquals(1000, retryPolicy.getDelayMillis(5));
+    }
+
+    @Test
+    public void jitterReducesDelayWithinBounds() {
+        RetryPolicy retryPolicy = new RetryPolicy(10, 1000, 1000, 2, 0.5, RetryPolicy.IO_EXCEPTIONS);
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.getDelayMillis(1)).isIn(Range.closed(500L, 1000L));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidJitterThrows() {
+        new RetryPolicy(3, 100, 1000, 2, 1.5, RetryPolicy.IO_EXCEPTIONS);
+    }
+}
@@ -0,0 +1,172 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Collections.addAll;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class SectionedDataTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    private FakeData<String> mData;
+    private SectionedData<String> mSectionedData;
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new FakeData<>();
+        addAll(mData, "apple", "avocado", "banana", "cherry", "coconut");
+        mSectionedData = new SectionedData<>(mData, firstLetter());
+        mSectionedData.registerDataObserver(mDataObserver);
+    }
+
+    @Test
+    public void headersInserted() {
+        assertThat(mSectionedData).containsExactly(
+                "a", "apple", "avocado", "b", "banana", "c", "cherry", "coconut").inOrder();
+    }
+
+    @Test
+    public void headerPositionsIdentified() {
+        assertTrue(mSectionedData.isHeader(0));
+        assertFalse(mSectionedData.isHeader(1));
+        assertTrue(mSectionedData.isHeader(3));
+        assertTrue(mSectionedData.isHeader(5));
+        assertFalse(mSectionedData.isHeader(7));
+    }
+
+    @Test
+    public void sectionIndexerLookups() {
+        assertThat(mSectionedData.getSections()).asList().containsExactly("a", "b", "c").inOrder();
+        assertEquals(3, mSectionedData.getPositionForSection(1));
+        assertEquals(5, mSectionedData.getPositionForSection(2));
+        assertEquals(0, mSectionedData.getSectionForPosition(2));
+        assertEquals(1, mSectionedData.getSectionForPosition(4));
+        assertEquals(2, mSectionedData.getSectionForPosition(7));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getWithoutObservingDataThrows() {
+        new SectionedData<>(mData, firstLetter()).get(0);
+    }
+
+    @Test
+    public void insertionIntoExistingSection() {
+        mData.add(1, "apricot");
+        assertThat(mSectionedData).containsExactly(
+                "a", "apple", "apricot", "avocado", "b", "banana", "c", "cherry", "coconut").inOrder();
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertionOfNewSection() {
+        mData.addAll(3, newArrayList("date", "durian"));
+        assertThat(mSectionedData).containsExactly(
+                "a", "apple", "avocado", "b", "banana", "d", "date", "durian", "c", "cherry", "coconut").inOrder();
+        verify(mDataObserver).onItemRangeInserted(5, 3);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertionSplittingSectionAddsHeaders() {
+        mData.add(4, "coconut");
+        reset(mDataObserver);
+        mData.add(4, "date");
+        assertThat(mSectionedData).containsExactly(
+                "a", "apple", "avocado", "b", "banana", "c", "cherry", "d", "date", "c", "coconut", "coconut").inOrder();
+        verify(mDataObserver).onItemRangeInserted(7, 2);
+        verify(mDataObserver).onItemRangeInserted(9, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removalOfEntireSectionRemovesHeader() {
+        mData.remove("banana");
+        assertThat(mSectionedData).containsExactly(
+                "a", "apple", "avocado", "c", "cherry", "coconut").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(3, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removalMergingSectionsRemovesHeader() {
+        mData.add(1, "banana");
+        reset(mDataObserver);
+        mData.remove(1);
+        assertThat(mSectionedData).containsExactly(
+                "a", "apple", "avocado", "b", "banana", "c", "cherry", "coconut").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(2, 2);
+        verify(mDataObserver).onItemRangeRemoved(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeOfKeyMovesSectionBoundary() {
+        mData.set(2, "cranberry");
+        assertThat(mSectionedData).containsExactly(
+                "a", "apple", "avocado", "c", "cranberry", "cherry", "coconut").inOrder();
+        verify(mDataObserver).onItemRangeChanged(3, 1);
+        verify(mDataObserver).onItemRangeChanged(4, 1);
+        verify(mDataObserver).onItemRangeRemoved(5, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changePayloadNotAppliedToHeader() {
+        PayloadDataObserver payloadDataObserver = mock(PayloadDataObserver.class);
+        mSectionedData.registerDataObserver(payloadDataObserver);
+        mData.setNotificationsEnabled(false);
+        mData.set(0, "zebra");
+        mData.set(1, "zucchini");
+        mData.setNotificationsEnabled(true);
+        Object payload = new Object();
+        mData.notifyItemRangeChanged(0, 2, payload);
+        verify(payloadDataObserver).onItemRangeChanged(0, 1);
+        verify(payloadDataObserver).onItemRangeChanged(1, 1, payload);
+        verify(payloadDataObserver).onItemRangeChanged(2, 1, payload);
+        verifyNoMoreInteractions(payloadDataObserver);
+    }
+
+    @Test
+    public void changeWithinSectionNotifiesElementOnly() {
+        mData.set(4, "cocoa");
+        verify(mDataObserver).onItemRangeChanged(7, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @NonNull
+    private static Function<String, Object> firstLetter() {
+        return new Function<String, Object>() {
+            @NonNull
+            @Override
+            public Object apply(@NonNull String s) {
+                return s.substring(0, 1);
+            }
+        };
+    }
+
+    @Test
+    public void viewportHeadersTranslatedToFirstElementOfSection() {
+        mSectionedData.setViewport(new Viewport(3, 5, Viewport.Direction.BACKWARD, 5));
+        assertThat(mData.getViewport()).isEqualTo(new Viewport(2, 3, Viewport.Direction.BACKWARD, 5));
+    }
+}
@@ -0,0 +1,157 @@
+package com.nextfaze.powerdata;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Collections.addAll;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class SliceDataTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    private FakeData<String> mData;
+    private SliceData<String> mSliceData;
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new FakeData<>();
+        //noinspection SpellCheckingInspection
+        addAll(mData, "a", "bc", "def", "ghij", "klmno", "pqrstu", "vwxyz12");
+        mSliceData = new SliceData<>(mData, 2, 3);
+        mSliceData.registerDataObserver(mDataObserver);
+    }
+
+    @Test
+    public void slicedSize() {
+        assertThat(mSliceData).hasSize(3);
+    }
+
+    @Test
+    public void slicedContents() {
+        assertThat(mSliceData).containsExactly("def", "ghij", "klmno").inOrder();
+    }
+
+    @Test
+    public void offsetOnlyPresentsRemainder() {
+        assertThat(Datas.offset(mData, 5)).containsExactly("pqrstu", "vwxyz12").inOrder();
+    }
+
+    @Test
+    public void offsetBeyondEndIsEmpty() {
+        assertThat(Datas.offset(mData, 10)).isEmpty();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfBoundsThrows() {
+        mSliceData.get(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeOffsetThrows() {
+        mSliceData.setOffset(-1);
+    }
+
+    @Test
+    public void changeWithinWindowTranslated() {
+        mData.set(3, "x");
+        verify(mDataObserver).onItemRangeChanged(1, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeOutsideWindowDropped() {
+        mData.set(0, "x");
+        mData.set(6, "y");
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertBeforeWindowShiftsElementsIn() {
+        mData.add(0, "x");
+        assertThat(mSliceData).containsExactly("bc", "def", "ghij").inOrder();
+        verify(mDataObserver).onItemRangeInserted(0, 1);
+        verify(mDataObserver).onItemRangeRemoved(3, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertWithinWindowPushesLastElementOut() {
+        mData.add(3, "x");
+        assertThat(mSliceData).containsExactly("def", "x", "ghij").inOrder();
+        verify(mDataObserver).onItemRangeInserted(1, 1);
+        verify(mDataObserver).onItemRangeRemoved(3, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertAfterWindowDropped() {
+        mData.add("x");
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removeWithinWindowPullsNextElementIn() {
+        mData.remove(2);
+        assertThat(mSliceData).containsExactly("ghij", "klmno", "pqrstu").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(0, 1);
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void moveWithinWindowTranslated() {
+        mData.move(2, 4, 1);
+        assertThat(mSliceData).containsExactly("ghij", "klmno", "def").inOrder();
+        verify(mDataObserver).onItemRangeMoved(0, 2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void slideForwardNotifiesEdgesOnly() {
+        mSliceData.setOffset(3);
+        assertThat(mSliceData).containsExactly("ghij", "klmno", "pqrstu").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(0, 1);
+        verify(mDataObserver).onItemRangeInserted(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void slideBackwardNotifiesEdgesOnly() {
+        mSliceData.setOffset(0);
+        assertThat(mSliceData).containsExactly("a", "bc", "def").inOrder();
+        verify(mDataObserver).onItemRangeInserted(0, 2);
+        verify(mDataObserver).onItemRangeRemoved(3, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void increaseLimitNotifiesInsertion() {
+        mSliceData.setLimit(10);
+        assertThat(mSliceData).containsExactly("def", "ghij", "klmno", "pqrstu", "vwxyz12").inOrder();
+        verify(mDataObserver).onItemRangeInserted(3, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void decreaseLimitNotifiesRemoval() {
+        mSliceData.setLimit(1);
+        assertThat(mSliceData).containsExactly("def").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(1, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+}
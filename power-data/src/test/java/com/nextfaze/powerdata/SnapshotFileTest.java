@@ -0,0 +1,241 @@
+package com.nextfaze.powerdata;
+
+import lombok.NonNull;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class SnapshotFileTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    private File mFile;
+
+    private SnapshotFile<String> mSnapshotFile;
+
+    @Before
+    public void setUp() throws Exception {
+        mFile = new File(mFolder.getRoot(), "snapshot");
+        mSnapshotFile = new SnapshotFile<>(mFile, SnapshotFile.STRING_CODEC);
+    }
+
+    @Test
+    public void writtenElementsRead() throws Exception {
+        mSnapshotFile.write(newArrayList("a", "bb", "", "ccc"), null);
+        assertThat(mSnapshotFile.read()).containsExactly("a", "bb", "", "ccc").inOrder();
+    }
+
+    @Test
+    public void tagSavedWithElements() throws Exception {
+        mSnapshotFile.write(newArrayList("a", "b"), "etag");
+        assertEquals("etag", mSnapshotFile.readTag());
+        assertThat(mSnapshotFile.read()).containsExactly("a", "b").inOrder();
+    }
+
+    @Test
+    public void emptySnapshotRead() throws Exception {
+        mSnapshotFile.write(new ArrayList<String>(), null);
+        assertThat(mSnapshotFile.read()).isEmpty();
+    }
+
+    @Test
+    public void missingSnapshotReadAsNull() {
+        assertNull(mSnapshotFile.read());
+    }
+
+    @Test
+    public void invalidSnapshotDiscarded() throws Exception {
+        FileOutputStream out = new FileOutputStream(mFile);
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+        assertNull(mSnapshotFile.read());
+        assertFalse(mFile.exists());
+    }
+
+    @Test
+    public void elementsDecodedLazily() throws Exception {
+        CountingCodec codec = new CountingCodec();
+        SnapshotFile<String> snapshotFile = new SnapshotFile<>(mFile, codec);
+        snapshotFile.write(newArrayList("a", "b", "c"), null);
+        List<String> snapshot = snapshotFile.read();
+        assertEquals(3, snapshot.size());
+        assertEquals(0, codec.mReadCount);
+        assertEquals("b", snapshot.get(1));
+        assertEquals("b", snapshot.get(1));
+        assertEquals(1, codec.mReadCount);
+    }
+
+    @Test
+    public void snapshotRestoredIntoData() throws Exception {
+        mSnapshotFile.write(newArrayList("a", "b", "c"), null);
+        AsyncArrayData data = new AsyncArrayData();
+        data.setSnapshotFile(mSnapshotFile);
+        assertThat(data).containsExactly("a", "b", "c").inOrder();
+    }
+
+    @Test
+    public void revalidationNotifiesOnlyDifferences() throws Exception {
+        mSnapshotFile.write(newArrayList("a", "b", "c"), null);
+        AsyncArrayData data = new AsyncArrayData();
+        data.setSnapshotFile(mSnapshotFile);
+        data.registerDataObserver(mDataObserver);
+        data.mCallback.onSuccess(newArrayList("a", "x", "c", "d"));
+        assertThat(data).containsExactly("a", "x", "c", "d").inOrder();
+        verify(mDataObserver).onItemRangeChanged(1, 1);
+        verify(mDataObserver).onItemRangeInserted(3, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void unchangedRevalidationNeitherClearsNorSaves() throws Exception {
+        CountingCodec codec = new CountingCodec();
+        SnapshotFile<String> snapshotFile = new SnapshotFile<>(mFile, codec);
+        snapshotFile.write(newArrayList("a", "b", "c"), "etag");
+        codec.mWriteCount = 0;
+        AsyncArrayData data = new AsyncArrayData();
+        data.setSnapshotFile(snapshotFile);
+        data.registerDataObserver(mDataObserver);
+        data.mCallback.setValidator("etag");
+        data.mCallback.onSuccess(newArrayList("a", "b", "c"));
+        awaitPendingSaves();
+        assertThat(data).containsExactly("a", "b", "c").inOrder();
+        assertEquals(0, data.mClearCount);
+        assertEquals(0, codec.mWriteCount);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void shrinkingRevalidationClearsAndSaves() throws Exception {
+        CountingCodec codec = new CountingCodec();
+        SnapshotFile<String> snapshotFile = new SnapshotFile<>(mFile, codec);
+        snapshotFile.write(newArrayList("a", "b", "c"), null);
+        codec.mWriteCount = 0;
+        AsyncArrayData data = new AsyncArrayData();
+        data.setSnapshotFile(snapshotFile);
+        data.registerDataObserver(mDataObserver);
+        data.mCallback.onSuccess(newArrayList("a", "b"));
+        awaitPendingSaves();
+        assertEquals(1, data.mClearCount);
+        assertEquals(2, codec.mWriteCount);
+        verify(mDataObserver).onItemRangeRemoved(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void validatorRestoredIntoData() throws Exception {
+        mSnapshotFile.write(newArrayList("a", "b"), "etag");
+        AsyncArrayData data = new AsyncArrayData();
+        data.setSnapshotFile(mSnapshotFile);
+        assertThat(data).containsExactly("a", "b").inOrder();
+        assertEquals("etag", data.getValidator());
+    }
+
+    @Test
+    public void undecodableSnapshotDiscardedByData() throws Exception {
+        new SnapshotFile<>(mFile, new CountingCodec()).write(newArrayList("a", "b"), "etag");
+        AsyncArrayData data = new AsyncArrayData();
+        data.setSnapshotFile(new SnapshotFile<>(mFile, new FailingCodec()));
+        assertThat(data).isEmpty();
+        assertNull(data.getValidator());
+        assertFalse(mFile.exists());
+    }
+
+    /** Waits for saves already requested to be written, as all snapshot files share a single save thread. */
+    private void awaitPendingSaves() throws Exception {
+        File marker = mFolder.newFile();
+        assertTrue(marker.delete());
+        new SnapshotFile<>(marker, SnapshotFile.STRING_CODEC).save(newArrayList("marker"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!marker.exists()) {
+            assertTrue("Timed out waiting for pending saves", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class FailingCodec implements SnapshotFile.Codec<String> {
+
+        @Override
+        public void write(@NonNull DataOutput out, @NonNull String s) throws IOException {
+            SnapshotFile.STRING_CODEC.write(out, s);
+        }
+
+        @NonNull
+        @Override
+        public String read(@NonNull DataInput in) throws IOException {
+            throw new IOException("Unreadable");
+        }
+    }
+
+    private static final class CountingCodec implements SnapshotFile.Codec<String> {
+
+        int mReadCount;
+
+        volatile int mWriteCount;
+
+        @Override
+        public void write(@NonNull DataOutput out, @NonNull String s) throws IOException {
+            mWriteCount++;
+            SnapshotFile.STRING_CODEC.write(out, s);
+        }
+
+        @NonNull
+        @Override
+        public String read(@NonNull DataInput in) throws IOException {
+            mReadCount++;
+            return SnapshotFile.STRING_CODEC.read(in);
+        }
+    }
+
+    private static final class AsyncArrayData extends ArrayData<String> {
+
+        LoadCallback<? super String> mCallback;
+
+        int mClearCount;
+
+        @Override
+        protected void loadAsync(@NonNull LoadCallback<? super String> callback,
+                                 @NonNull CancellationToken cancellationToken) {
+            mCallback = callback;
+        }
+
+        @Override
+        protected void onClear() {
+            mClearCount++;
+        }
+
+        @NonNull
+        @Override
+        protected List<? extends String> load(@NonNull CancellationToken cancellationToken) {
+            throw new AssertionError("Loads are asynchronous");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.nextfaze.powerdata;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Comparator;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Collections.addAll;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public final class SortedDataTest {
+
+    @Rule
+    public MockitoRule mMockito = MockitoJUnit.rule();
+
+    private FakeData<String> mData;
+    private Data<String> mSortedData;
+
+    @Mock
+    private DataObserver mDataObserver;
+
+    @Before
+    public void setUp() throws Exception {
+        mData = new FakeData<>();
+        addAll(mData, "foo", "bear", "cat", "baz", "fish");
+        mSortedData = new SortedData<>(mData, naturalOrder());
+        mSortedData.registerDataObserver(mDataObserver);
+    }
+
+    @Test
+    public void elementsSorted() {
+        assertThat(mSortedData).containsExactly("baz", "bear", "cat", "fish", "foo").inOrder();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getWithoutObservingDataThrows() {
+        new SortedData<>(mData, naturalOrder()).get(0);
+    }
+
+    @Test
+    public void equalElementsRetainInnerOrder() {
+        Data<String> data = new SortedData<>(mData, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.charAt(0) - b.charAt(0);
+            }
+        });
+        data.registerDataObserver(mock(DataObserver.class));
+        assertThat(data).containsExactly("bear", "baz", "cat", "foo", "fish").inOrder();
+    }
+
+    @Test
+    public void insertionPlacedInSortedPosition() {
+        mData.add("bat");
+        assertThat(mSortedData).containsExactly("bat", "baz", "bear", "cat", "fish", "foo").inOrder();
+        verify(mDataObserver).onItemRangeInserted(0, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void rangeInsertionPlacesEachElement() {
+        mData.addAll(1, newArrayList("dog", "zebra"));
+        assertThat(mSortedData).containsExactly("baz", "bear", "cat", "dog", "fish", "foo", "zebra").inOrder();
+        verify(mDataObserver).onItemRangeInserted(3, 1);
+        verify(mDataObserver).onItemRangeInserted(6, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void removalNotifiesSortedPosition() {
+        mData.remove("cat");
+        assertThat(mSortedData).containsExactly("baz", "bear", "fish", "foo").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeInPlaceNotifiesChange() {
+        mData.set(2, "cow");
+        assertThat(mSortedData).containsExactly("baz", "bear", "cow", "fish", "foo").inOrder();
+        verify(mDataObserver).onItemRangeChanged(2, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void changeOutOfPlaceNotifiesMove() {
+        mData.set(2, "zebra");
+        assertThat(mSortedData).containsExactly("baz", "bear", "fish", "foo", "zebra").inOrder();
+        verify(mDataObserver).onItemRangeMoved(2, 4, 1);
+        verify(mDataObserver).onItemRangeChanged(4, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void rangeChangeInPlaceNotifiesChangesWithPayload() {
+        PayloadDataObserver payloadDataObserver = mock(PayloadDataObserver.class);
+        mSortedData.registerDataObserver(payloadDataObserver);
+        mData.setNotificationsEnabled(false);
+        mData.set(1, "bee");
+        mData.set(2, "cow");
+        Object payload = new Object();
+        mData.notifyItemRangeChanged(1, 2, payload);
+        assertThat(mSortedData).containsExactly("baz", "bee", "cow", "fish", "foo").inOrder();
+        verify(payloadDataObserver).onItemRangeChanged(1, 1, payload);
+        verify(payloadDataObserver).onItemRangeChanged(2, 1, payload);
+        verifyNoMoreInteractions(payloadDataObserver);
+    }
+
+    @Test
+    public void rangeChangeOutOfPlaceNotifiesMoves() {
+        mData.setNotificationsEnabled(false);
+        mData.set(0, "ant");
+        mData.set(1, "zoo");
+        mData.notifyItemRangeChanged(0, 2);
+        assertThat(mSortedData).containsExactly("ant", "baz", "cat", "fish", "zoo").inOrder();
+        verify(mDataObserver).onItemRangeMoved(4, 0, 1);
+        verify(mDataObserver).onItemRangeChanged(0, 1);
+        verify(mDataObserver).onItemRangeMoved(2, 4, 1);
+        verify(mDataObserver).onItemRangeChanged(4, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void innerMoveDoesNotNotify() {
+        mData.move(0, 3, 2);
+        assertThat(mSortedData).containsExactly("baz", "bear", "cat", "fish", "foo").inOrder();
+        verifyZeroInteractions(mDataObserver);
+    }
+
+    @Test
+    public void innerMoveUpdatesIndex() {
+        mData.move(0, 3, 2);
+        mData.remove("foo");
+        assertThat(mSortedData).containsExactly("baz", "bear", "cat", "fish").inOrder();
+        verify(mDataObserver).onItemRangeRemoved(4, 1);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    @Test
+    public void insertionAmongEqualElementsFollowsInnerOrder() {
+        Data<String> data = new SortedData<>(mData, firstCharOrder());
+        DataObserver dataObserver = mock(DataObserver.class);
+        data.registerDataObserver(dataObserver);
+        mData.add(0, "bat");
+        assertThat(data).containsExactly("bat", "bear", "baz", "cat", "foo", "fish").inOrder();
+        verify(dataObserver).onItemRangeInserted(0, 1);
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test
+    public void innerMoveAmongEqualElementsReorders() {
+        Data<String> data = new SortedData<>(mData, firstCharOrder());
+        DataObserver dataObserver = mock(DataObserver.class);
+        data.registerDataObserver(dataObserver);
+        mData.move(3, 0, 1);
+        assertThat(data).containsExactly("baz", "bear", "cat", "foo", "fish").inOrder();
+        verify(dataObserver).onItemRangeMoved(1, 0, 1);
+        verifyNoMoreInteractions(dataObserver);
+    }
+
+    @Test
+    public void adjacentInsertionsCoalesced() {
+        mData.addAll(newArrayList("ant", "ape"));
+        assertThat(mSortedData).containsExactly("ant", "ape", "baz", "bear", "cat", "fish", "foo").inOrder();
+        verify(mDataObserver).onItemRangeInserted(0, 2);
+        verifyNoMoreInteractions(mDataObserver);
+    }
+
+    private static Comparator<String> firstCharOrder() {
+        return new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.charAt(0) - b.charAt(0);
+            }
+        };
+    }
+
+    private static Comparator<String> naturalOrder() {
+        return new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return a.compareTo(b);
+            }
+        };
+    }
+}
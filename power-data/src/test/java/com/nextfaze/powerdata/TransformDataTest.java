@@ -39,4 +39,23 @@ public final class TransformDataTest {
         });
         assertThat(transformed).containsExactly(1, 2, 3, 4, 5, 6, 7).inOrder();
     }
+
+    @Test
+    public void itemIdsOfInnerElements() {
+        mData.setIdFunction(new IdFunction<String>() {
+            @Override
+            public long apply(@NonNull String s) {
+                return s.charAt(0);
+            }
+        });
+        Data<Integer> transformed = new TransformData<>(mData, new Function<String, Integer>() {
+            @NonNull
+            @Override
+            public Integer apply(@NonNull String s) {
+                return s.length();
+            }
+        });
+        assertThat(transformed.hasStableIds()).isTrue();
+        assertThat(transformed.getItemId(2)).isEqualTo((long) 'd');
+    }
 }